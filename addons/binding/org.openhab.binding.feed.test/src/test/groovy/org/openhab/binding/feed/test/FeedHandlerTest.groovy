@@ -109,6 +109,13 @@ public class FeedHandlerTest extends OSGiTest {
         def feedContent;
         def httpStatus;
 
+        /**
+         * If set, the servlet answers conditional requests with HTTP Status code 304 Not Modified
+         */
+        def entityTag = null
+        int fullResponses = 0
+        int notModifiedResponses = 0
+
         public FeedServiceMock(def feedContentFile) {
             super()
             setFeedContent(feedContentFile)
@@ -118,6 +125,15 @@ public class FeedHandlerTest extends OSGiTest {
 
         @Override
         protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException{
+            if(entityTag != null) {
+                if(entityTag == request.getHeader("If-None-Match")) {
+                    notModifiedResponses++
+                    response.setStatus(HttpStatus.NOT_MODIFIED_304)
+                    return
+                }
+                response.setHeader("ETag", entityTag)
+            }
+            fullResponses++
             ServletOutputStream outputStream = response.getOutputStream()
             outputStream.println(feedContent)
             //Recommended RSS MIME type - http://www.rssboard.org/rss-mime-type-application.txt
@@ -307,6 +323,32 @@ public class FeedHandlerTest extends OSGiTest {
         testIfItemStateIsUpdated(commandReceived,contentChanged);
     }
 
+    @Test
+    public void 'assert that unchanged content is not downloaded again if the server supports conditional requests' () {
+        servlet.entityTag = '"1"'
+        initializeDefaultFeedHandler()
+
+        waitForAssert({
+            assertThat "Feed Thing can not be initialized",feedThing.getStatus(),is(equalTo(ThingStatus.ONLINE))
+            assertThat "Item's state is not updated on initialize", currentItemState, is(notNullValue())
+        },  DEFAULT_MAX_WAIT_TIME)
+
+        String firstItemState = currentItemState
+        int fullResponses = servlet.fullResponses
+
+        //Before this time has expired, the refresh command will no trigger a request to the server
+        sleep(FeedBindingConstants.MINIMUM_REFRESH_TIME)
+
+        feedThing.handler.handleCommand(channelUID,RefreshType.REFRESH)
+
+        waitForAssert({
+            assertThat "Conditional request is not sent!",servlet.notModifiedResponses > 0,is(true)
+        }, DEFAULT_MAX_WAIT_TIME)
+        assertThat servlet.fullResponses,is(equalTo(fullResponses))
+        assertThat feedThing.getStatus(),is(equalTo(ThingStatus.ONLINE))
+        assertThat currentItemState,is(equalTo(firstItemState))
+    }
+
     @Test
     public void 'assert that thing\'s status is updated when HTTP 500 error code is received' () {
         testIfThingStatusIsUpdated(HttpStatus.INTERNAL_SERVER_ERROR_500)
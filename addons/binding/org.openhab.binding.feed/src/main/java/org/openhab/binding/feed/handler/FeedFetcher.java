@@ -0,0 +1,268 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.feed.handler;
+
+import static org.openhab.binding.feed.FeedBindingConstants.MINIMUM_REFRESH_TIME;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.rometools.rome.feed.synd.SyndContent;
+import com.rometools.rome.feed.synd.SyndEntry;
+import com.rometools.rome.feed.synd.SyndFeed;
+import com.rometools.rome.io.FeedException;
+import com.rometools.rome.io.SyndFeedInput;
+import com.rometools.rome.io.XmlReader;
+
+/**
+ * The {@link FeedFetcher} downloads a feed for all {@link FeedHandler}s which use the same URL.
+ *
+ * Only one download of a feed runs at a time. Handlers which ask for the feed while it is downloaded,
+ * or shortly after that, share the result instead of downloading it again. HTTP requests are conditional
+ * and accept gzip, so an unchanged feed is neither transferred nor parsed again.
+ *
+ * Changes are detected with a digest of the feed properties and the newest entries, which is much
+ * cheaper to compare than the whole feed.
+ *
+ * @author agent - Initial contribution
+ */
+class FeedFetcher {
+
+    /**
+     * The feed data together with its digest
+     */
+    static class Content {
+        private final SyndFeed feed;
+        private final byte[] digest;
+
+        private Content(SyndFeed feed, byte[] digest) {
+            this.feed = feed;
+            this.digest = digest;
+        }
+
+        SyndFeed getFeed() {
+            return feed;
+        }
+
+        byte[] getDigest() {
+            return digest;
+        }
+    }
+
+    /**
+     * Number of the newest entries, which are part of the digest. New entries are the newest ones, so older entries
+     * are not needed to detect a change.
+     */
+    private static final int DIGEST_ENTRIES = 10;
+
+    /**
+     * Orders entries by their published date, or their updated date if they have none, newest first. Entries
+     * without a date come last.
+     */
+    private static final Comparator<SyndEntry> NEWEST_FIRST = new Comparator<SyndEntry>() {
+        @Override
+        public int compare(SyndEntry entry1, SyndEntry entry2) {
+            Date date1 = getDate(entry1);
+            Date date2 = getDate(entry2);
+            if (date1 == null) {
+                return date2 == null ? 0 : 1;
+            } else if (date2 == null) {
+                return -1;
+            }
+            return date2.compareTo(date1);
+        }
+
+        private Date getDate(SyndEntry entry) {
+            return entry.getPublishedDate() != null ? entry.getPublishedDate() : entry.getUpdatedDate();
+        }
+    };
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final Map<String, FeedFetcher> fetchers = new HashMap<>();
+
+    private final Logger logger = LoggerFactory.getLogger(FeedFetcher.class);
+
+    private final String urlString;
+    private int users;
+
+    private Content content;
+    private String entityTag;
+    private String lastModified;
+
+    private long lastAttempt;
+    private Exception lastError;
+
+    private FeedFetcher(String urlString) {
+        this.urlString = urlString;
+    }
+
+    /**
+     * Returns the fetcher of the given URL. Every call must be matched by a call of {@link #release()}.
+     */
+    static FeedFetcher acquire(String urlString) {
+        synchronized (fetchers) {
+            FeedFetcher fetcher = fetchers.get(urlString);
+            if (fetcher == null) {
+                fetcher = new FeedFetcher(urlString);
+                fetchers.put(urlString, fetcher);
+            }
+            fetcher.users++;
+            return fetcher;
+        }
+    }
+
+    /**
+     * Releases the fetcher, its cached feed is dropped once it is no longer used.
+     */
+    void release() {
+        synchronized (fetchers) {
+            if (--users == 0) {
+                fetchers.remove(urlString);
+            }
+        }
+    }
+
+    /**
+     * Returns the current content of the feed. If another handler has just downloaded the feed, or is downloading it
+     * right now, its result is returned.
+     *
+     * @throws MalformedURLException if the URL is not valid
+     * @throws IOException if the feed can not be downloaded
+     * @throws FeedException if the content is not a valid feed
+     */
+    Content fetch() throws IOException, FeedException {
+        long requested = System.currentTimeMillis();
+        synchronized (this) {
+            if (lastAttempt != 0 && lastAttempt > requested - MINIMUM_REFRESH_TIME) {
+                logger.debug("Sharing the last download of feed {}", urlString);
+                if (lastError instanceof IOException) {
+                    throw (IOException) lastError;
+                } else if (lastError instanceof FeedException) {
+                    throw (FeedException) lastError;
+                }
+                return content;
+            }
+
+            try {
+                content = download();
+                lastError = null;
+                return content;
+            } catch (IOException | FeedException e) {
+                lastError = e;
+                throw e;
+            } finally {
+                lastAttempt = System.currentTimeMillis();
+            }
+        }
+    }
+
+    private Content download() throws IOException, FeedException {
+        URL url = new URL(urlString);
+        URLConnection connection = url.openConnection();
+        connection.setRequestProperty("Accept-Encoding", "gzip");
+
+        HttpURLConnection httpConnection = null;
+        if (connection instanceof HttpURLConnection) {
+            httpConnection = (HttpURLConnection) connection;
+            if (content != null) {
+                if (entityTag != null) {
+                    connection.setRequestProperty("If-None-Match", entityTag);
+                }
+                if (lastModified != null) {
+                    connection.setRequestProperty("If-Modified-Since", lastModified);
+                }
+            }
+        }
+
+        InputStream in = connection.getInputStream();
+        try {
+            if (httpConnection != null && httpConnection.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                logger.debug("Feed {} has not been modified", urlString);
+                return content;
+            }
+
+            if ("gzip".equalsIgnoreCase(connection.getContentEncoding())) {
+                in = new GZIPInputStream(in);
+            }
+
+            // the XmlReader detects the encoding from the content type and the XML prolog
+            SyndFeed feed = new SyndFeedInput().build(new XmlReader(in, connection.getContentType(), true));
+
+            if (httpConnection != null) {
+                entityTag = connection.getHeaderField("ETag");
+                lastModified = connection.getHeaderField("Last-Modified");
+            }
+            return new Content(feed, digest(feed));
+        } finally {
+            in.close();
+        }
+    }
+
+    private static byte[] digest(SyndFeed feed) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support MD5
+            throw new IllegalStateException(e);
+        }
+
+        update(digest, feed.getTitle());
+        update(digest, feed.getDescription());
+        update(digest, feed.getAuthor());
+        update(digest, feed.getPublishedDate());
+
+        // feeds are not required to list their entries in order, the list of the feed is left as it is
+        List<SyndEntry> entries = new ArrayList<>(feed.getEntries());
+        Collections.sort(entries, NEWEST_FIRST);
+        update(digest, String.valueOf(entries.size()));
+        for (int i = 0; i < entries.size() && i < DIGEST_ENTRIES; i++) {
+            SyndEntry entry = entries.get(i);
+            update(digest, entry.getUri());
+            update(digest, entry.getLink());
+            update(digest, entry.getTitle());
+            SyndContent description = entry.getDescription();
+            update(digest, description != null ? description.getValue() : null);
+            update(digest, entry.getPublishedDate());
+            update(digest, entry.getUpdatedDate());
+        }
+        return digest.digest();
+    }
+
+    private static void update(MessageDigest digest, Date value) {
+        update(digest, value != null ? String.valueOf(value.getTime()) : null);
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        if (value != null) {
+            digest.update(value.getBytes(UTF_8));
+        }
+        // the separator keeps values from being shifted into their neighbours
+        digest.update((byte) 0);
+    }
+}
@@ -10,13 +10,10 @@ package org.openhab.binding.feed.handler;
 
 import static org.openhab.binding.feed.FeedBindingConstants.*;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.math.BigDecimal;
 import java.net.MalformedURLException;
-import java.net.URL;
-import java.net.URLConnection;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
@@ -43,7 +40,6 @@ import org.slf4j.LoggerFactory;
 import com.rometools.rome.feed.synd.SyndEntry;
 import com.rometools.rome.feed.synd.SyndFeed;
 import com.rometools.rome.io.FeedException;
-import com.rometools.rome.io.SyndFeedInput;
 
 /**
  * The {@link FeedHandler } is responsible for handling commands, which are
@@ -58,7 +54,9 @@ public class FeedHandler extends BaseThingHandler {
     private String urlString;
     private BigDecimal refreshTime;
     private ScheduledFuture<?> refreshTask;
+    private FeedFetcher fetcher;
     private SyndFeed currentFeedState;
+    private byte[] currentFeedDigest;
     private long lastRefreshTime;
 
     public FeedHandler(Thing thing) {
@@ -69,6 +67,9 @@ public class FeedHandler extends BaseThingHandler {
     @Override
     public void initialize() {
         checkConfiguration();
+        if (urlString != null) {
+            fetcher = FeedFetcher.acquire(urlString);
+        }
         startAutomaticRefresh();
         super.initialize();
     }
@@ -111,8 +112,8 @@ public class FeedHandler extends BaseThingHandler {
     }
 
     private void refreshFeedState() {
-        SyndFeed feed = fetchFeedData(urlString);
-        boolean feedUpdated = updateFeedIfChanged(feed);
+        FeedFetcher.Content content = fetchFeedData(urlString);
+        boolean feedUpdated = updateFeedIfChanged(content);
 
         if (feedUpdated) {
             List<Channel> channels = getThing().getChannels();
@@ -179,16 +180,16 @@ public class FeedHandler extends BaseThingHandler {
 
     /**
      * This method updates the {@link #currentFeedState}, only if there are changes on the server, since the last check.
-     * It compares the content on the server with the local
+     * It compares the digest of the content on the server with the digest of the local
      * stored {@link #currentFeedState} in the {@link FeedHandler}.
      *
      * @return <code>true</code> if new content is available on the server since the last update or <code>false</code>
      *         otherwise
      */
-    private synchronized boolean updateFeedIfChanged(SyndFeed newFeedState) {
-        // SyndFeed class has implementation of equals ()
-        if (newFeedState != null && !newFeedState.equals(currentFeedState)) {
-            currentFeedState = newFeedState;
+    private synchronized boolean updateFeedIfChanged(FeedFetcher.Content newContent) {
+        if (newContent != null && !Arrays.equals(newContent.getDigest(), currentFeedDigest)) {
+            currentFeedState = newContent.getFeed();
+            currentFeedDigest = newContent.getDigest();
             logger.debug("New content available!");
             return true;
         }
@@ -197,28 +198,23 @@ public class FeedHandler extends BaseThingHandler {
     }
 
     /**
-     * This method tries to make connection with the server and fetch data from the feed.
+     * This method fetches the data of the feed, the download is shared with all handlers of the same URL.
      * The status of the feed thing is set to {@link ThingStatus#ONLINE}, if the fetching was successful.
      * Otherwise the status will be set to {@link ThingStatus#OFFLINE} with
      * {@link ThingStatusDetail#CONFIGURATION_ERROR} or
      * {@link ThingStatusDetail#COMMUNICATION_ERROR} and adequate message.
      *
      * @param urlString - URL of the Feed
-     * @return {@link SyndFeed} instance with the feed data, if the connection attempt was successful and
-     *         <code>null</code> otherwise
+     * @return the feed data, if the connection attempt was successful and <code>null</code> otherwise
      */
-    private SyndFeed fetchFeedData(String urlString) {
-        SyndFeed feed = null;
+    private FeedFetcher.Content fetchFeedData(String urlString) {
+        FeedFetcher.Content content = null;
         try {
-            URL url = new URL(urlString);
-
-            URLConnection connection = url.openConnection();
-
-            BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-
-            SyndFeedInput input = new SyndFeedInput();
-            feed = input.build(in);
-            in.close();
+            FeedFetcher fetcher = this.fetcher;
+            if (fetcher == null) {
+                throw new IllegalArgumentException("Feed URL is not configured");
+            }
+            content = fetcher.fetch();
 
             if (this.thing.getStatus() != ThingStatus.ONLINE) {
                 updateStatus(ThingStatus.ONLINE);
@@ -241,7 +237,7 @@ public class FeedHandler extends BaseThingHandler {
             return null;
         }
 
-        return feed;
+        return content;
 
     }
 
@@ -270,8 +266,8 @@ public class FeedHandler extends BaseThingHandler {
         if (command instanceof RefreshType) {
             // safeguard for multiple REFRESH commands for different channels in a row
             if (isMinimumRefreshTimeExceeded()) {
-                SyndFeed feed = fetchFeedData(urlString);
-                updateFeedIfChanged(feed);
+                FeedFetcher.Content content = fetchFeedData(urlString);
+                updateFeedIfChanged(content);
             }
             publishChannelIfLinked(channelUID);
         } else {
@@ -285,6 +281,10 @@ public class FeedHandler extends BaseThingHandler {
         if (refreshTask != null) {
             refreshTask.cancel(true);
         }
+        if (fetcher != null) {
+            fetcher.release();
+            fetcher = null;
+        }
         lastRefreshTime = 0;
     }
 
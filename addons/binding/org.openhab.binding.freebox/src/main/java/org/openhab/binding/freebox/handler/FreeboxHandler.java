@@ -13,8 +13,12 @@ import static org.openhab.binding.freebox.FreeboxBindingConstants.*;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -42,6 +46,8 @@ import org.matmaul.freeboxos.connection.ConnectionStatus;
 import org.matmaul.freeboxos.connection.xDslStatus;
 import org.matmaul.freeboxos.ftp.FtpConfig;
 import org.matmaul.freeboxos.lan.LanConfig;
+import org.matmaul.freeboxos.lan.LanHostConfig;
+import org.matmaul.freeboxos.lan.LanHostL3Connectivity;
 import org.matmaul.freeboxos.lan.LanHostsConfig;
 import org.matmaul.freeboxos.lcd.LCDConfig;
 import org.matmaul.freeboxos.login.Authorize;
@@ -54,6 +60,7 @@ import org.matmaul.freeboxos.wifi.WifiGlobalConfig;
 import org.openhab.binding.freebox.FreeboxBindingConstants;
 import org.openhab.binding.freebox.config.FreeboxServerConfiguration;
 import org.openhab.binding.freebox.internal.FreeboxDataListener;
+import org.openhab.binding.freebox.internal.FreeboxNetInfo;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.FrameworkUtil;
 import org.slf4j.Logger;
@@ -70,8 +77,12 @@ public class FreeboxHandler extends BaseBridgeHandler {
 
     private Logger logger = LoggerFactory.getLogger(FreeboxHandler.class);
 
+    // The settings of the server change rarely and are refreshed on each command, so they are polled less often
+    private static final int SETTINGS_POLLING_FACTOR = 4;
+
     private ScheduledFuture<?> authorizeJob;
-    private ScheduledFuture<?> globalJob;
+    private List<ScheduledFuture<?>> globalJobs = new CopyOnWriteArrayList<>();
+    private final Set<String> failedJobs = new HashSet<>();
     private FreeboxOsClient fbClient;
     private long uptime;
     private List<FreeboxDataListener> dataListeners = new CopyOnWriteArrayList<>();
@@ -80,7 +91,6 @@ public class FreeboxHandler extends BaseBridgeHandler {
         super(bridge);
 
         authorizeJob = null;
-        globalJob = null;
         fbClient = null;
         uptime = -1;
     }
@@ -224,11 +234,10 @@ public class FreeboxHandler extends BaseBridgeHandler {
                 if (authorize()) {
                     updateStatus(ThingStatus.ONLINE);
 
-                    if (globalJob == null || globalJob.isCancelled()) {
+                    if (globalJobs.isEmpty()) {
                         long polling_interval = getConfigAs(FreeboxServerConfiguration.class).refreshInterval;
                         logger.debug("Scheduling server state update every {} seconds...", polling_interval);
-                        globalJob = scheduler.scheduleAtFixedRate(globalRunnable, 1, polling_interval,
-                                TimeUnit.SECONDS);
+                        schedulePollingJobs(polling_interval);
                     }
                 } else {
                     updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR);
@@ -263,41 +272,142 @@ public class FreeboxHandler extends BaseBridgeHandler {
         }
     };
 
-    private Runnable globalRunnable = new Runnable() {
-        @Override
-        public void run() {
-            logger.debug("Polling server state...");
+    /**
+     * Schedules the polling of the server. The states and the settings are polled by two tasks, which run
+     * their jobs one after the other, so the polling occupies at most two threads of the shared scheduler.
+     * The settings are polled half an interval after the states. A failing job does not prevent the
+     * following jobs of its task from running.
+     */
+    private void schedulePollingJobs(long polling_interval) {
+        long settings_interval = polling_interval * SETTINGS_POLLING_FACTOR;
 
-            try {
+        List<PollingJob> stateJobs = Arrays.<PollingJob> asList(new PollingJob("system") {
+            @Override
+            protected void fetch() throws FreeboxException {
                 fetchSystemConfig();
-                fetchLCDConfig();
-                fetchWifiConfig();
+            }
+        }, new PollingJob("xDSL") {
+            @Override
+            protected void fetch() throws FreeboxException {
                 fetchxDslStatus();
+            }
+        }, new PollingJob("connection") {
+            @Override
+            protected void fetch() throws FreeboxException {
                 fetchConnectionStatus();
-                fetchFtpConfig();
-                fetchAirMediaConfig();
-                fetchUPnPAVConfig();
-                fetchSambaConfig();
+            }
+        }, new PollingJob("LAN hosts") {
+            @Override
+            protected void fetch() throws FreeboxException {
                 LanHostsConfig lanHostsConfiguration = fetchLanHostsConfig();
 
                 // Trigger a new discovery of things
                 for (FreeboxDataListener dataListener : dataListeners) {
                     dataListener.onDataFetched(getThing().getUID(), lanHostsConfiguration);
                 }
+            }
+        });
+        List<PollingJob> settingsJobs = Arrays.<PollingJob> asList(new PollingJob("LCD") {
+            @Override
+            protected void fetch() throws FreeboxException {
+                fetchLCDConfig();
+            }
+        }, new PollingJob("wifi") {
+            @Override
+            protected void fetch() throws FreeboxException {
+                fetchWifiConfig();
+            }
+        }, new PollingJob("FTP") {
+            @Override
+            protected void fetch() throws FreeboxException {
+                fetchFtpConfig();
+            }
+        }, new PollingJob("AirMedia") {
+            @Override
+            protected void fetch() throws FreeboxException {
+                fetchAirMediaConfig();
+            }
+        }, new PollingJob("UPnP AV") {
+            @Override
+            protected void fetch() throws FreeboxException {
+                fetchUPnPAVConfig();
+            }
+        }, new PollingJob("Samba") {
+            @Override
+            protected void fetch() throws FreeboxException {
+                fetchSambaConfig();
+            }
+        });
+
+        schedulePollingJobs(stateJobs, 1, polling_interval);
+        schedulePollingJobs(settingsJobs, 1 + polling_interval / 2, settings_interval);
+    }
+
+    private void schedulePollingJobs(final List<PollingJob> jobs, long initialDelay, long interval) {
+        globalJobs.add(scheduler.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                for (PollingJob job : jobs) {
+                    job.run();
+                }
+            }
+        }, initialDelay, interval, TimeUnit.SECONDS));
+    }
 
+    /**
+     * Records the result of a polling job and updates the status of the server accordingly. The status
+     * is derived from all failed jobs under a lock, so concurrent jobs can not leave the server ONLINE
+     * while one of them is failing.
+     */
+    private void updatePollingStatus(String name, boolean failed) {
+        synchronized (failedJobs) {
+            if (failed) {
+                failedJobs.add(name);
+            } else {
+                failedJobs.remove(name);
+            }
+            if (failedJobs.isEmpty()) {
                 if (getThing().getStatus() == ThingStatus.OFFLINE) {
                     updateStatus(ThingStatus.ONLINE);
                 }
+            } else if (getThing().getStatus() == ThingStatus.ONLINE) {
+                updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR);
+            }
+        }
+    }
+
+    /**
+     * A job polling one kind of data from the server. The server is considered offline as long as
+     * at least one of the jobs failed at its last run.
+     */
+    private abstract class PollingJob implements Runnable {
+
+        private final String name;
+
+        public PollingJob(String name) {
+            this.name = name;
+        }
+
+        protected abstract void fetch() throws FreeboxException;
+
+        @Override
+        public void run() {
+            logger.debug("Polling server {} state...", name);
+
+            try {
+                fetch();
+
+                updatePollingStatus(name, false);
 
             } catch (Throwable t) {
                 if (t instanceof FreeboxException) {
-                    logger.error("Server state job - FreeboxException: {}", ((FreeboxException) t).getMessage());
+                    logger.error("Server {} job - FreeboxException: {}", name, ((FreeboxException) t).getMessage());
                 } else if (t instanceof Exception) {
-                    logger.error("Server state job - Exception: {}", ((Exception) t).getMessage());
+                    logger.error("Server {} job - Exception: {}", name, ((Exception) t).getMessage());
                 } else if (t instanceof Error) {
-                    logger.error("Server state job - Error: {}", ((Error) t).getMessage());
+                    logger.error("Server {} job - Error: {}", name, ((Error) t).getMessage());
                 } else {
-                    logger.error("Server state job - Unexpected error");
+                    logger.error("Server {} job - Unexpected error", name);
                 }
                 StringWriter sw = new StringWriter();
                 if ((t instanceof RuntimeException) && (t.getCause() != null)) {
@@ -306,13 +416,11 @@ public class FreeboxHandler extends BaseBridgeHandler {
                     t.printStackTrace(new PrintWriter(sw));
                 }
                 logger.error(sw.toString());
-                if (getThing().getStatus() == ThingStatus.ONLINE) {
-                    updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR);
-                }
+                updatePollingStatus(name, true);
             }
 
         }
-    };
+    }
 
     @Override
     public void dispose() {
@@ -321,9 +429,12 @@ public class FreeboxHandler extends BaseBridgeHandler {
             authorizeJob.cancel(true);
             authorizeJob = null;
         }
-        if (globalJob != null && !globalJob.isCancelled()) {
+        for (ScheduledFuture<?> globalJob : globalJobs) {
             globalJob.cancel(true);
-            globalJob = null;
+        }
+        globalJobs.clear();
+        synchronized (failedJobs) {
+            failedJobs.clear();
         }
         super.dispose();
     }
@@ -450,10 +561,43 @@ public class FreeboxHandler extends BaseBridgeHandler {
     private synchronized LanHostsConfig fetchLanHostsConfig() throws FreeboxException {
         LanHostsConfig lanHostsConfiguration = fbClient.getLanManager().getAllLanHostsConfig();
 
-        // The update of channels is delegated to each thing handler
+        // Index the hosts once by MAC address and by IP address
+        Map<String, FreeboxNetInfo> hostsByMac = new HashMap<>();
+        Map<String, FreeboxNetInfo> hostsByIp = new HashMap<>();
+        if (lanHostsConfiguration != null && lanHostsConfiguration.getConfig() != null) {
+            for (LanHostConfig hostConfig : lanHostsConfiguration.getConfig()) {
+                if ((hostConfig.getMAC() != null) && !hostsByMac.containsKey(hostConfig.getMAC())) {
+                    hostsByMac.put(hostConfig.getMAC(),
+                            new FreeboxNetInfo(hostConfig.getReachable(), hostConfig.getVendorName()));
+                }
+                if (hostConfig.getL3connectivities() != null) {
+                    for (LanHostL3Connectivity l3 : hostConfig.getL3connectivities()) {
+                        if (l3.getAddr() == null) {
+                            continue;
+                        }
+                        // An address is reachable if any host reports it reachable
+                        if (l3.getReachable()) {
+                            hostsByIp.put(l3.getAddr(), new FreeboxNetInfo(true, hostConfig.getVendorName()));
+                        } else if (!hostsByIp.containsKey(l3.getAddr())) {
+                            hostsByIp.put(l3.getAddr(), new FreeboxNetInfo(false, null));
+                        }
+                    }
+                }
+            }
+        }
+
+        // The update of channels is delegated to each thing handler, which ignores unchanged information
         for (Thing thing : getThing().getThings()) {
-            if (thing.getHandler() != null) {
-                ((FreeboxThingHandler) thing.getHandler()).updateNetInfo(lanHostsConfiguration);
+            if (thing.getHandler() instanceof FreeboxThingHandler) {
+                FreeboxThingHandler handler = (FreeboxThingHandler) thing.getHandler();
+                if (handler.getNetAddress() == null) {
+                    continue;
+                }
+                if (handler.isNetDevice()) {
+                    handler.updateNetInfo(hostsByMac.get(handler.getNetAddress()));
+                } else if (handler.isNetInterface()) {
+                    handler.updateNetInfo(hostsByIp.get(handler.getNetAddress()));
+                }
             }
         }
 
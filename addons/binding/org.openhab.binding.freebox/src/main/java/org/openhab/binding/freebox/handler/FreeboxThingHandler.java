@@ -33,16 +33,15 @@ import org.eclipse.smarthome.core.thing.ThingStatusInfo;
 import org.eclipse.smarthome.core.thing.binding.BaseThingHandler;
 import org.eclipse.smarthome.core.thing.binding.ThingHandler;
 import org.eclipse.smarthome.core.types.Command;
+import org.eclipse.smarthome.core.types.RefreshType;
 import org.matmaul.freeboxos.FreeboxException;
 import org.matmaul.freeboxos.call.CallEntry;
-import org.matmaul.freeboxos.lan.LanHostConfig;
-import org.matmaul.freeboxos.lan.LanHostL3Connectivity;
-import org.matmaul.freeboxos.lan.LanHostsConfig;
 import org.matmaul.freeboxos.phone.PhoneStatus;
 import org.openhab.binding.freebox.FreeboxBindingConstants;
 import org.openhab.binding.freebox.config.FreeboxNetDeviceConfiguration;
 import org.openhab.binding.freebox.config.FreeboxNetInterfaceConfiguration;
 import org.openhab.binding.freebox.config.FreeboxPhoneConfiguration;
+import org.openhab.binding.freebox.internal.FreeboxNetInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -61,6 +60,7 @@ public class FreeboxThingHandler extends BaseThingHandler {
     private FreeboxHandler bridgeHandler;
     private Calendar lastPhoneCheck;
     private String netAddress;
+    private volatile FreeboxNetInfo netInfo;
 
     public FreeboxThingHandler(Thing thing) {
         super(thing);
@@ -73,6 +73,16 @@ public class FreeboxThingHandler extends BaseThingHandler {
 
     @Override
     public void handleCommand(ChannelUID channelUID, Command command) {
+        if (command instanceof RefreshType && channelUID.getId().equals(FreeboxBindingConstants.REACHABLE)) {
+            updateReachable();
+        }
+    }
+
+    @Override
+    public void channelLinked(ChannelUID channelUID) {
+        if (channelUID.getId().equals(FreeboxBindingConstants.REACHABLE)) {
+            updateReachable();
+        }
     }
 
     @Override
@@ -124,9 +134,11 @@ public class FreeboxThingHandler extends BaseThingHandler {
 
                 } else if (getThing().getThingTypeUID().equals(FreeboxBindingConstants.FREEBOX_THING_TYPE_NET_DEVICE)) {
                     netAddress = getConfigAs(FreeboxNetDeviceConfiguration.class).macAddress;
+                    netInfo = null;
                 } else if (getThing().getThingTypeUID()
                         .equals(FreeboxBindingConstants.FREEBOX_THING_TYPE_NET_INTERFACE)) {
                     netAddress = getConfigAs(FreeboxNetInterfaceConfiguration.class).ipAddress;
+                    netInfo = null;
                 }
             } else {
                 updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.BRIDGE_OFFLINE);
@@ -274,42 +286,33 @@ public class FreeboxThingHandler extends BaseThingHandler {
         }
     }
 
-    public void updateNetInfo(LanHostsConfig config) {
-        if ((config != null) && (getThing().getStatus() == ThingStatus.ONLINE)
-                && (getThing().getThingTypeUID().equals(FreeboxBindingConstants.FREEBOX_THING_TYPE_NET_DEVICE)
-                        || getThing().getThingTypeUID()
-                                .equals(FreeboxBindingConstants.FREEBOX_THING_TYPE_NET_INTERFACE))) {
-            logger.debug("netAddress {}", netAddress);
-            boolean found = false;
-            boolean reachable = false;
-            String vendor = null;
-            for (LanHostConfig hostConfig : config.getConfig()) {
-                if ((getThing().getThingTypeUID().equals(FreeboxBindingConstants.FREEBOX_THING_TYPE_NET_DEVICE))
-                        && (hostConfig.getMAC() != null) && hostConfig.getMAC().equals(netAddress)) {
-                    found = true;
-                    reachable = hostConfig.getReachable();
-                    vendor = hostConfig.getVendorName();
-                    break;
-                }
-                if (hostConfig.getL3connectivities() != null) {
-                    for (LanHostL3Connectivity l3 : hostConfig.getL3connectivities()) {
-                        if ((getThing().getThingTypeUID()
-                                .equals(FreeboxBindingConstants.FREEBOX_THING_TYPE_NET_INTERFACE))
-                                && (l3.getAddr() != null) && l3.getAddr().equals(netAddress)) {
-                            found = true;
-                            if (l3.getReachable()) {
-                                reachable = true;
-                                vendor = hostConfig.getVendorName();
-                                break;
-                            }
-                        }
-                    }
-                }
-            }
-            if (found) {
-                updateState(new ChannelUID(getThing().getUID(), FreeboxBindingConstants.REACHABLE),
-                        reachable ? OnOffType.ON : OnOffType.OFF);
-            }
+    public boolean isNetDevice() {
+        return getThing().getThingTypeUID().equals(FreeboxBindingConstants.FREEBOX_THING_TYPE_NET_DEVICE);
+    }
+
+    public boolean isNetInterface() {
+        return getThing().getThingTypeUID().equals(FreeboxBindingConstants.FREEBOX_THING_TYPE_NET_INTERFACE);
+    }
+
+    /**
+     * Returns the MAC address of a net device or the IP address of a net interface
+     */
+    public String getNetAddress() {
+        return netAddress;
+    }
+
+    /**
+     * Updates the reachable channel and the vendor property with the information the bridge found
+     * for the address of this thing. Nothing is updated if the information did not change.
+     *
+     * @param info the information found for {@link #getNetAddress()}
+     */
+    public void updateNetInfo(FreeboxNetInfo info) {
+        if ((info != null) && (getThing().getStatus() == ThingStatus.ONLINE) && !info.equals(netInfo)) {
+            logger.debug("netAddress {}: {}", netAddress, info);
+            netInfo = info;
+            updateReachable();
+            String vendor = info.getVendor();
             if ((vendor != null) && !vendor.isEmpty()) {
                 Map<String, String> properties = editProperties();
                 if ((properties.get(Thing.PROPERTY_VENDOR) == null)
@@ -320,6 +323,17 @@ public class FreeboxThingHandler extends BaseThingHandler {
         }
     }
 
+    /**
+     * Publishes the last reachability received from the bridge, if any
+     */
+    private void updateReachable() {
+        FreeboxNetInfo info = netInfo;
+        if (info != null) {
+            updateState(new ChannelUID(getThing().getUID(), FreeboxBindingConstants.REACHABLE),
+                    info.isReachable() ? OnOffType.ON : OnOffType.OFF);
+        }
+    }
+
     /**
      * A comparator of phone calls by ascending end date and time
      */
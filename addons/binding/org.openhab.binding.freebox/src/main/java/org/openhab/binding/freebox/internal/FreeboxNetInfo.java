@@ -0,0 +1,53 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.freebox.internal;
+
+/**
+ * The {@link FreeboxNetInfo} holds what the Freebox server reports about a
+ * LAN host for one MAC or IP address: its reachability and its vendor.
+ *
+ * @author agent - Initial contribution
+ */
+public class FreeboxNetInfo {
+
+    private boolean reachable;
+    private String vendor;
+
+    public FreeboxNetInfo(boolean reachable, String vendor) {
+        this.reachable = reachable;
+        this.vendor = vendor;
+    }
+
+    public boolean isReachable() {
+        return reachable;
+    }
+
+    public String getVendor() {
+        return vendor;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof FreeboxNetInfo)) {
+            return false;
+        }
+        FreeboxNetInfo other = (FreeboxNetInfo) obj;
+        return reachable == other.reachable && (vendor == null ? other.vendor == null : vendor.equals(other.vendor));
+    }
+
+    @Override
+    public int hashCode() {
+        return (reachable ? 1 : 0) + 31 * (vendor == null ? 0 : vendor.hashCode());
+    }
+
+    @Override
+    public String toString() {
+        return "reachable=" + reachable + ", vendor=" + vendor;
+    }
+}
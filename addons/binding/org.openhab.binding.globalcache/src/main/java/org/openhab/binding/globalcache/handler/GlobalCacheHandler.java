@@ -12,6 +12,7 @@ import static org.openhab.binding.globalcache.GlobalCacheBindingConstants.*;
 
 import java.io.BufferedReader;
 import java.io.DataOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.InetAddress;
@@ -21,15 +22,15 @@ import java.net.Socket;
 import java.net.SocketException;
 import java.net.URLDecoder;
 import java.net.UnknownHostException;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
 import org.apache.commons.lang.StringUtils;
+import org.eclipse.smarthome.config.core.ConfigConstants;
 import org.eclipse.smarthome.core.library.types.OnOffType;
 import org.eclipse.smarthome.core.net.NetUtil;
 import org.eclipse.smarthome.core.thing.Channel;
@@ -64,10 +65,22 @@ import org.slf4j.LoggerFactory;
 public class GlobalCacheHandler extends BaseThingHandler {
     private Logger logger = LoggerFactory.getLogger(GlobalCacheHandler.class);
 
+    private static final Pattern HEX_CODE_PATTERN = Pattern
+            .compile("0000( +[0-9A-Fa-f][0-9A-Fa-f][0-9A-Fa-f][0-9A-Fa-f])+");
+
+    private static final String TRANSFORM_FOLDER = "transform";
+
     private InetAddress ifAddress;
     private CommandProcessor commandProcessor;
-    ScheduledExecutorService scheduledExecutorService = Executors.newScheduledThreadPool(MAX_GC_DEVICES);
-    ScheduledFuture<?> scheduledFuture;
+    private ScheduledFuture<?> scheduledFuture;
+
+    /*
+     * IR and serial codes looked up in the MAP file and, for hex codes, converted to GC format, by command.
+     * The cache is cleared when the name or the modification time of the MAP file changes.
+     */
+    private final ConcurrentHashMap<String, String> codeCache = new ConcurrentHashMap<String, String>();
+    private String codeCacheMapFile;
+    private long codeCacheLastModified;
 
     private LinkedBlockingQueue<RequestMessage> sendQueue = null;
 
@@ -77,7 +90,7 @@ public class GlobalCacheHandler extends BaseThingHandler {
     public GlobalCacheHandler(Thing gcDevice) {
         super(gcDevice);
         irCounter = new AtomicInteger(1);
-        commandProcessor = new CommandProcessor();
+        commandProcessor = null;
         scheduledFuture = null;
     }
 
@@ -97,16 +110,30 @@ public class GlobalCacheHandler extends BaseThingHandler {
             markThingOfflineWithError(ThingStatusDetail.OFFLINE.CONFIGURATION_ERROR, "No suitable network interface");
             return;
         }
-        scheduledFuture = scheduledExecutorService.schedule(commandProcessor, 2, TimeUnit.SECONDS);
+        // The command processor blocks on its queue for as long as the thing is initialized, so it gets its own
+        // thread, which is started after a short delay
+        final CommandProcessor processor = new CommandProcessor();
+        commandProcessor = processor;
+        scheduledFuture = scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                processor.start();
+            }
+        }, 2, TimeUnit.SECONDS);
     }
 
     @Override
     public void dispose() {
         logger.debug("Disposing thing {}", thingID());
-        commandProcessor.terminate();
         if (scheduledFuture != null) {
             scheduledFuture.cancel(false);
+            scheduledFuture = null;
+        }
+        if (commandProcessor != null) {
+            commandProcessor.terminate();
+            commandProcessor = null;
         }
+        codeCache.clear();
     }
 
     @Override
@@ -234,13 +261,19 @@ public class GlobalCacheHandler extends BaseThingHandler {
             return null;
         }
 
+        validateCodeCache(mapFile);
+        String code = codeCache.get(command.toString());
+        if (code != null) {
+            logger.debug("Found cached code for {} for thing {} from map file '{}'", command, thingID(), mapFile);
+            return code;
+        }
+
         TransformationService transformService = TransformationHelper.getTransformationService(bundleContext, "MAP");
         if (transformService == null) {
             logger.error("Failed to get MAP transformation service for thing {}; is bundle installed?", thingID());
             return null;
         }
 
-        String code;
         try {
             code = transformService.transform(mapFile, command.toString());
 
@@ -268,15 +301,34 @@ public class GlobalCacheHandler extends BaseThingHandler {
                 return null;
             }
         }
+        codeCache.put(command.toString(), code);
         return code;
     }
 
+    /*
+     * Clear the code cache if a different MAP file is configured, or if the MAP file was modified
+     * since the codes were cached.
+     */
+    private synchronized void validateCodeCache(String mapFile) {
+        File file = new File(ConfigConstants.getConfigFolder() + File.separator + TRANSFORM_FOLDER + File.separator
+                + mapFile);
+        long lastModified = file.lastModified();
+        if (!mapFile.equals(codeCacheMapFile) || lastModified != codeCacheLastModified) {
+            if (!codeCache.isEmpty()) {
+                logger.debug("Map file '{}' for thing {} has changed, clearing {} cached codes", mapFile, thingID(),
+                        codeCache.size());
+            }
+            codeCache.clear();
+            codeCacheMapFile = mapFile;
+            codeCacheLastModified = lastModified;
+        }
+    }
+
     /*
      * Check if the string looks like a hex code; if not then assume it's GC format
      */
     private boolean isHexCode(String code) {
-        Pattern pattern = Pattern.compile("0000( +[0-9A-Fa-f][0-9A-Fa-f][0-9A-Fa-f][0-9A-Fa-f])+");
-        return pattern.matcher(code).find();
+        return HEX_CODE_PATTERN.matcher(code).find();
     }
 
     /*
@@ -428,7 +480,8 @@ public class GlobalCacheHandler extends BaseThingHandler {
         ConnectionManager connectionManager;
 
         public CommandProcessor() {
-            super("GlobalCache Command Processor");
+            super("GlobalCache Command Processor " + thingID());
+            setDaemon(true);
             sendQueue = new LinkedBlockingQueue<RequestMessage>(SEND_QUEUE_MAX_DEPTH);
             logger.debug("Processor for thing {} created request queue, depth={}", thingID(), SEND_QUEUE_MAX_DEPTH);
         }
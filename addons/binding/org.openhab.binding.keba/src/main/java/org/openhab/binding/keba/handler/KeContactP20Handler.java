@@ -11,27 +11,17 @@ package org.openhab.binding.keba.handler;
 import static org.openhab.binding.keba.KebaBindingConstants.*;
 
 import java.io.IOException;
-import java.io.UnsupportedEncodingException;
 import java.math.BigDecimal;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
-import java.net.PortUnreachableException;
-import java.nio.ByteBuffer;
-import java.nio.channels.ClosedChannelException;
-import java.nio.channels.DatagramChannel;
-import java.nio.channels.NotYetConnectedException;
-import java.nio.channels.SelectionKey;
-import java.nio.channels.Selector;
+import java.net.UnknownHostException;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
-import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.TimeZone;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.lang.StringUtils;
 import org.eclipse.smarthome.core.library.types.DateTimeType;
@@ -59,6 +49,11 @@ import com.google.gson.JsonParser;
  * The {@link KeContactP20Handler} is responsible for handling commands, which
  * are sent to one of the channels.
  *
+ * All wallboxes share the {@link KeContactTransceiver}, which sends the commands and
+ * passes the data received from this wallbox to {@link #onRead(String)}. The reports
+ * of a poll cycle are requested one after the other, each as soon as the previous
+ * one has been answered.
+ *
  * @author Karel Goderis - Initial contribution
  */
 public class KeContactP20Handler extends BaseThingHandler {
@@ -66,26 +61,27 @@ public class KeContactP20Handler extends BaseThingHandler {
     public static final String IP_ADDRESS = "ipAddress";
     public static final String POLLING_REFRESH_INTERVAL = "refreshInterval";
 
-    public static final int CONNECTION_REFRESH_INTERVAL = 100;
-    public static final int REPORT_INTERVAL = 2000;
-    public static final int PING_TIME_OUT = 3000;
+    public static final int REPORT_TIME_OUT = 3000;
     public static final int BUFFER_SIZE = 1024;
     public static final int REMOTE_PORT_NUMBER = 7090;
     public static final int LISTENER_PORT_NUMBER = 7090;
 
+    private static final int LAST_REPORT = 3;
+
     private Logger logger = LoggerFactory.getLogger(KeContactP20Handler.class);
 
-    private Selector selector;
-    private DatagramChannel datagramChannel = null;
-    protected SelectionKey datagramChannelKey = null;
-    protected DatagramChannel listenerChannel = null;
-    protected SelectionKey listenerKey = null;
-    private final Lock lock = new ReentrantLock();
+    private KeContactTransceiver transceiver;
+    private InetSocketAddress remoteAddress;
     protected JsonParser parser = new JsonParser();
 
-    private ScheduledFuture<?> listeningJob;
     private ScheduledFuture<?> pollingJob;
 
+    // the report of the running poll cycle which has not yet been answered, 0 if there is none
+    private final Object reportLock = new Object();
+    private int pendingReport = 0;
+    private long reportRequested;
+    private long cycleStarted;
+
     private int maxPresetCurrent = 0;
     private int maxSystemCurrent = 63000;
 
@@ -97,27 +93,42 @@ public class KeContactP20Handler extends BaseThingHandler {
     public void initialize() {
         logger.debug("Initializing KEBA KeContact P20 handler.");
 
-        try {
-            selector = Selector.open();
-        } catch (IOException e) {
-            logger.error("An exception occurred while registering the selector: '{}'", e.getMessage());
-        }
+        if (getConfig().get(IP_ADDRESS) != null && !getConfig().get(IP_ADDRESS).equals("")) {
 
-        configureListener(LISTENER_PORT_NUMBER);
+            try {
+                remoteAddress = new InetSocketAddress(InetAddress.getByName((String) getConfig().get(IP_ADDRESS)),
+                        REMOTE_PORT_NUMBER);
+            } catch (UnknownHostException e) {
+                updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR,
+                        "The IP address can not be resolved");
+                return;
+            }
 
-        if (getConfig().get(IP_ADDRESS) != null && !getConfig().get(IP_ADDRESS).equals("")) {
+            try {
+                transceiver = KeContactTransceiver.acquire();
+            } catch (IOException e) {
+                logger.error("An exception occurred while creating the Listener Channel on port number {} ({})",
+                        LISTENER_PORT_NUMBER, e.getMessage());
+                updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR,
+                        "The listener port can not be opened");
+                return;
+            }
 
-            establishConnection();
+            if (!transceiver.register(remoteAddress.getAddress(), this)) {
+                transceiver.release();
+                transceiver = null;
+                updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR,
+                        "The IP address is already used by another thing");
+                return;
+            }
 
-            if (listeningJob == null || listeningJob.isCancelled()) {
-                try {
-                    listeningJob = scheduler.scheduleWithFixedDelay(listeningRunnable, 0, CONNECTION_REFRESH_INTERVAL,
-                            TimeUnit.MILLISECONDS);
-                } catch (Exception e) {
-                    updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.NONE,
-                            "An exception occurred while scheduling the connection job");
-                }
+            synchronized (reportLock) {
+                pendingReport = 0;
             }
+
+            // The status is known once the wallbox has answered or the first report has timed out
+            updateStatus(ThingStatus.UNKNOWN);
+
             if (pollingJob == null || pollingJob.isCancelled()) {
                 try {
                     pollingJob = scheduler.scheduleWithFixedDelay(pollingRunnable, 0,
@@ -137,390 +148,72 @@ public class KeContactP20Handler extends BaseThingHandler {
     @Override
     public void dispose() {
 
-        try {
-            selector.close();
-        } catch (IOException e) {
-            logger.error("An exception occurred while closing the selector: '{}'", e.getMessage());
-        }
-
-        try {
-            datagramChannel.close();
-        } catch (IOException e) {
-            logger.warn("An exception occurred while closing the channel '{}': {}", datagramChannel, e.getMessage());
-        }
-
-        try {
-            listenerChannel.close();
-        } catch (IOException e) {
-            logger.error("An exception occurred while closing the listener channel on port number {} ({})",
-                    LISTENER_PORT_NUMBER, e.getMessage());
-        }
-
-        if (listeningJob != null && !listeningJob.isCancelled()) {
-            listeningJob.cancel(true);
-            listeningJob = null;
-        }
-
         if (pollingJob != null && !pollingJob.isCancelled()) {
             pollingJob.cancel(true);
             pollingJob = null;
         }
 
-        logger.debug("Handler disposed.");
-    }
-
-    protected void configureListener(int listenerPort) {
-
-        // open the listener port
-        try {
-            listenerChannel = DatagramChannel.open();
-            listenerChannel.socket().bind(new InetSocketAddress(listenerPort));
-            listenerChannel.configureBlocking(false);
-
-            logger.info("Listening for incoming data on {}", listenerChannel.getLocalAddress());
-
-            synchronized (selector) {
-                selector.wakeup();
-                try {
-                    listenerKey = listenerChannel.register(selector, listenerChannel.validOps());
-
-                } catch (ClosedChannelException e1) {
-                    logger.error("An exception occurred while registering a selector: {}", e1.getMessage());
-                }
-            }
-        } catch (Exception e2) {
-            logger.error("An exception occurred while creating the Listener Channel on port number {} ({})",
-                    listenerPort, e2.getMessage());
+        if (transceiver != null) {
+            transceiver.unregister(remoteAddress.getAddress(), this);
+            transceiver.release();
+            transceiver = null;
         }
-    }
-
-    protected ByteBuffer onReadable(DatagramChannel theChannel, int bufferSize, InetAddress permittedClientAddress) {
-        lock.lock();
-        try {
-
-            SelectionKey theSelectionKey = theChannel.keyFor(selector);
-
-            if (theSelectionKey != null) {
-
-                synchronized (selector) {
-                    try {
-                        selector.selectNow();
-                    } catch (IOException e) {
-                        logger.error("An exception occurred while selecting: {}", e.getMessage());
-                    }
-                }
-
-                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
-                while (it.hasNext()) {
-                    SelectionKey selKey = it.next();
-                    it.remove();
-                    if (selKey.isValid() && selKey.isReadable() && selKey == theSelectionKey) {
-
-                        ByteBuffer readBuffer = ByteBuffer.allocate(bufferSize);
-                        int numberBytesRead = 0;
-                        boolean error = false;
-
-                        if (selKey == listenerKey) {
-                            try {
-                                InetSocketAddress clientAddress = (InetSocketAddress) theChannel.receive(readBuffer);
-                                if (clientAddress.getAddress().equals(permittedClientAddress)) {
-                                    logger.debug("Received {} on the listener port from {}",
-                                            new String(readBuffer.array()), clientAddress);
-                                    numberBytesRead = readBuffer.position();
-                                } else {
-                                    logger.warn(
-                                            "Received data from '{}' which is not the permitted remote address '{}'",
-                                            clientAddress, permittedClientAddress);
-                                    return null;
-                                }
-                            } catch (Exception e) {
-                                logger.error("An exception occurred while receiving data on the listener port: '{}'",
-                                        e.getMessage());
-                                error = true;
-                            }
-
-                        } else {
 
-                            try {
-                                numberBytesRead = theChannel.read(readBuffer);
-                            } catch (NotYetConnectedException e) {
-                                updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR,
-                                        "The remote host is not yet connected");
-                                error = true;
-                            } catch (PortUnreachableException e) {
-                                updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR,
-                                        "The remote host is probably not a KEBA EV Charging station");
-                                error = true;
-                            } catch (IOException e) {
-                                updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR,
-                                        "An IO exception occurred");
-                                error = true;
-                            }
-                        }
-
-                        if (numberBytesRead == -1) {
-                            error = true;
-                        }
-
-                        if (error) {
-                            logger.debug("Disconnecting '{}' because of a socket error",
-                                    getThing().getUID().toString());
-                            try {
-                                theChannel.close();
-                            } catch (IOException e) {
-                                logger.error("An exception occurred while closing the channel '{}': {}",
-                                        datagramChannel, e.getMessage());
-                            }
-
-                            onConnectionLost();
-
-                        } else {
-                            readBuffer.flip();
-                            return readBuffer;
-                        }
-                    }
-                }
-            }
-
-            return null;
-        } finally {
-            lock.unlock();
-        }
+        logger.debug("Handler disposed.");
     }
 
-    protected void onWritable(ByteBuffer buffer, DatagramChannel theChannel) {
-        lock.lock();
-        try {
-
-            SelectionKey theSelectionKey = theChannel.keyFor(selector);
-
-            if (theSelectionKey != null) {
-
-                synchronized (selector) {
-                    try {
-                        selector.selectNow();
-                    } catch (IOException e) {
-                        logger.error("An exception occurred while selecting: {}", e.getMessage());
-                    }
-                }
-
-                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
-                while (it.hasNext()) {
-                    SelectionKey selKey = it.next();
-                    it.remove();
-                    if (selKey.isValid() && selKey.isWritable() && selKey == theSelectionKey) {
-
-                        boolean error = false;
-                        buffer.rewind();
-
-                        try {
-                            logger.debug("Sending '{}' on the channel '{}'->'{}'",
-                                    new Object[] { new String(buffer.array()), theChannel.getLocalAddress(),
-                                            theChannel.getRemoteAddress() });
-                            theChannel.write(buffer);
-                        } catch (NotYetConnectedException e) {
-                            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR,
-                                    "The remote host is not yet connected");
-                            error = true;
-                        } catch (ClosedChannelException e) {
-                            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR,
-                                    "The connection to the remote host is closed");
-                            error = true;
-                        } catch (IOException e) {
-                            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR,
-                                    "An IO exception occurred");
-                            error = true;
-                        }
-
-                        if (error) {
-                            logger.debug("Disconnecting '{}' because of a socket error",
-                                    getThing().getUID().toString());
-                            try {
-                                theChannel.close();
-                            } catch (IOException e) {
-                                logger.warn("An exception occurred while closing the channel '{}': {}", datagramChannel,
-                                        e.getMessage());
-                            }
-
-                            onConnectionLost();
+    private Runnable pollingRunnable = new Runnable() {
 
-                        }
+        @Override
+        public void run() {
+            synchronized (reportLock) {
+                if (pendingReport != 0) {
+                    if (System.currentTimeMillis() - reportRequested < REPORT_TIME_OUT) {
+                        // the previous poll cycle is still running
+                        return;
                     }
+                    updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR,
+                            "The charging station did not answer 'report " + pendingReport + "'");
                 }
+                cycleStarted = System.currentTimeMillis();
+                requestReport(1);
             }
-        } finally {
-            lock.unlock();
         }
-    }
-
-    public void onConnectionLost() {
-        establishConnection();
-    }
+    };
 
-    public void onConnectionResumed() {
-        updateStatus(ThingStatus.ONLINE);
+    private void requestReport(int report) {
+        pendingReport = report;
+        reportRequested = System.currentTimeMillis();
+        sendCommand("report " + report);
     }
 
-    private void establishConnection() {
-        lock.lock();
-        try {
-            if (getThing().getStatusInfo().getStatusDetail() != ThingStatusDetail.CONFIGURATION_ERROR
-                    && getConfig().get(IP_ADDRESS) != null && !getConfig().get(IP_ADDRESS).equals("")) {
-
-                try {
-                    datagramChannel = DatagramChannel.open();
-                } catch (Exception e2) {
-                    updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR,
-                            "An exception occurred while opening a datagram channel");
-                }
-
-                try {
-                    datagramChannel.configureBlocking(false);
-                } catch (IOException e2) {
-                    updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR,
-                            "An exception occurred while configuring a datagram channel");
-                }
-
-                synchronized (selector) {
-                    selector.wakeup();
-                    int interestSet = SelectionKey.OP_READ | SelectionKey.OP_WRITE;
-                    try {
-                        datagramChannelKey = datagramChannel.register(selector, interestSet);
-                    } catch (ClosedChannelException e1) {
-                        updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR,
-                                "An exception occurred while registering a selector");
-                    }
-
-                    InetSocketAddress remoteAddress = new InetSocketAddress((String) getConfig().get(IP_ADDRESS),
-                            REMOTE_PORT_NUMBER);
-
-                    try {
-                        logger.trace("Connecting the channel for {} ", remoteAddress);
-                        datagramChannel.connect(remoteAddress);
-
-                        onConnectionResumed();
-
-                    } catch (Exception e) {
-                        logger.error("An exception occurred while connecting connecting to '{}:{}' : {}", new Object[] {
-                                (String) getConfig().get(IP_ADDRESS), REMOTE_PORT_NUMBER, e.getMessage() });
-                        updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR,
-                                "An exception occurred while connecting");
-                    }
-                }
+    /**
+     * Requests the next report of the poll cycle once the pending one has been answered
+     */
+    private void onReportReceived(int report) {
+        synchronized (reportLock) {
+            if (report != pendingReport) {
+                return;
+            }
+            if (report < LAST_REPORT) {
+                requestReport(report + 1);
             } else {
-                updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR,
-                        getThing().getStatusInfo().getDescription());
+                pendingReport = 0;
+                logger.trace("Polled '{}' in {} ms", getThing().getUID(), System.currentTimeMillis() - cycleStarted);
             }
-        } finally {
-            lock.unlock();
         }
     }
 
-    private Runnable listeningRunnable = new Runnable() {
-
-        @Override
-        public void run() {
-            lock.lock();
-            try {
-                if (getThing().getStatusInfo().getStatusDetail() != ThingStatusDetail.CONFIGURATION_ERROR) {
-                    if (datagramChannel == null || !datagramChannel.isConnected()) {
-                        updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR,
-                                "The connection is not yet initialized");
-                        onConnectionLost();
-                    }
-
-                    if (datagramChannel.isConnected()) {
-
-                        long stamp = System.currentTimeMillis();
-                        if (!InetAddress.getByName(((String) getConfig().get(IP_ADDRESS))).isReachable(PING_TIME_OUT)) {
-                            logger.debug("Ping timed out after '{}' milliseconds", System.currentTimeMillis() - stamp);
-                            logger.trace("Disconnecting the datagram channel '{}'", datagramChannel);
-                            try {
-                                datagramChannel.close();
-                            } catch (IOException e) {
-                                updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR,
-                                        "An exception occurred while closing the channel");
-                            }
-
-                            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR,
-                                    "A ping timeout occurred");
-                            onConnectionLost();
-                        } else {
-                            ByteBuffer buffer = onReadable(datagramChannel, BUFFER_SIZE, null);
-                            if (buffer != null && buffer.remaining() > 0) {
-                                onRead(buffer, datagramChannel);
-                            }
-                        }
-                    }
-
-                    ByteBuffer buffer = onReadable(listenerChannel, BUFFER_SIZE,
-                            InetAddress.getByName((String) getConfig().get(IP_ADDRESS)));
-                    if (buffer != null && buffer.remaining() > 0) {
-                        onRead(buffer, listenerChannel);
-                    }
-                }
-            } catch (Exception e) {
-                updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR,
-                        "An exception occurred while receiving event data from the charging station");
-            } finally {
-                lock.unlock();
-            }
-        }
-    };
-
-    private Runnable pollingRunnable = new Runnable() {
-
-        @Override
-        public void run() {
-            try {
+    /**
+     * Processes the data received from the wallbox, called by the {@link KeContactTransceiver}
+     */
+    protected void onRead(String data) {
 
-                String command = "report 1";
+        String response = StringUtils.chomp(data);
 
-                ByteBuffer byteBuffer = ByteBuffer.allocate(command.getBytes().length);
-                try {
-                    byteBuffer.put(command.getBytes("ASCII"));
-                    onWritable(byteBuffer, datagramChannel);
-                } catch (UnsupportedEncodingException | NumberFormatException e) {
-                    logger.error("An exception occurred while polling the KEBA KeContact P20 for '{}': {}",
-                            getThing().getUID(), e.getMessage());
-                }
-
-                Thread.sleep(REPORT_INTERVAL);
-
-                command = "report 2";
-
-                byteBuffer = ByteBuffer.allocate(command.getBytes().length);
-                try {
-                    byteBuffer.put(command.getBytes("ASCII"));
-                    onWritable(byteBuffer, datagramChannel);
-                } catch (UnsupportedEncodingException | NumberFormatException e) {
-                    logger.error("An exception occurred while polling the KEBA KeContact P20 for '{}': {}",
-                            getThing().getUID(), e.getMessage());
-                }
-
-                Thread.sleep(REPORT_INTERVAL);
-
-                command = "report 3";
-
-                byteBuffer = ByteBuffer.allocate(command.getBytes().length);
-                try {
-                    byteBuffer.put(command.getBytes("ASCII"));
-                    onWritable(byteBuffer, datagramChannel);
-                } catch (UnsupportedEncodingException | NumberFormatException e) {
-                    logger.error("An exception occurred while polling the KEBA KeContact P20 for '{}': {}",
-                            getThing().getUID(), e.getMessage());
-                }
-
-            } catch (Exception e) {
-                updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR, e.getMessage());
-            }
+        if (getThing().getStatus() != ThingStatus.ONLINE) {
+            updateStatus(ThingStatus.ONLINE);
         }
-    };
-
-    protected void onRead(ByteBuffer byteBuffer, DatagramChannel datagramChannel) {
-
-        String response = new String(byteBuffer.array(), 0, byteBuffer.limit());
-        response = StringUtils.chomp(response);
 
         if (response.contains("TCH-OK")) {
             // ignore confirmation messages which are not JSON
@@ -740,7 +433,12 @@ public class KeContactP20Handler extends BaseThingHandler {
                 }
             }
 
-        } catch (JsonParseException e) {
+            JsonElement id = readObject.get("ID");
+            if (id != null) {
+                onReportReceived(id.getAsInt());
+            }
+
+        } catch (JsonParseException | IllegalStateException | NumberFormatException e) {
             logger.debug("Invalid JSON data will be ignored: '{}'", response);
         }
     }
@@ -818,15 +516,9 @@ public class KeContactP20Handler extends BaseThingHandler {
 
     private void sendCommand(String command) {
 
-        if (command != null) {
-            ByteBuffer byteBuffer = ByteBuffer.allocate(command.getBytes().length);
-            try {
-                byteBuffer.put(command.getBytes("ASCII"));
-                onWritable(byteBuffer, datagramChannel);
-            } catch (UnsupportedEncodingException | NumberFormatException e) {
-                logger.error("An exception occurred while sending a command to the KeContact wallbox for '{}': {}",
-                        getThing().getUID(), e.getMessage());
-            }
+        KeContactTransceiver transceiver = this.transceiver;
+        if (command != null && transceiver != null) {
+            transceiver.send(remoteAddress, command);
         }
 
     }
@@ -0,0 +1,267 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.keba.handler;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link KeContactTransceiver} owns the UDP port all KEBA KeContact wallboxes
+ * answer to, and serves all handlers with a single selector loop. Received datagrams
+ * are dispatched to the handler of the sending wallbox, commands are queued and sent
+ * by the loop, so no handler thread ever blocks on the socket.
+ *
+ * The receive buffer is reused for all datagrams, and command buffers are taken from
+ * a small pool.
+ *
+ * @author agent - Initial contribution
+ */
+class KeContactTransceiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(KeContactTransceiver.class);
+
+    private static final Charset US_ASCII = Charset.forName("US-ASCII");
+
+    private static final int COMMAND_BUFFER_SIZE = 256;
+    private static final int MAX_POOLED_BUFFERS = 16;
+
+    private static KeContactTransceiver instance;
+
+    private int users;
+
+    private Selector selector;
+    private DatagramChannel channel;
+    private SelectionKey channelKey;
+
+    private final ConcurrentMap<InetAddress, KeContactP20Handler> handlers = new ConcurrentHashMap<>();
+    private final Queue<Datagram> outgoing = new ConcurrentLinkedQueue<>();
+    private final ArrayDeque<ByteBuffer> bufferPool = new ArrayDeque<>();
+
+    private static class Datagram {
+        private final SocketAddress target;
+        private final ByteBuffer buffer;
+
+        private Datagram(SocketAddress target, ByteBuffer buffer) {
+            this.target = target;
+            this.buffer = buffer;
+        }
+    }
+
+    private KeContactTransceiver() {
+    }
+
+    /**
+     * Returns the transceiver, which is started if it is not yet in use.
+     * Every call must be matched by a call of {@link #release()}.
+     *
+     * @throws IOException if the listener port cannot be opened
+     */
+    static KeContactTransceiver acquire() throws IOException {
+        synchronized (KeContactTransceiver.class) {
+            if (instance == null) {
+                KeContactTransceiver transceiver = new KeContactTransceiver();
+                transceiver.start();
+                instance = transceiver;
+            }
+            instance.users++;
+            return instance;
+        }
+    }
+
+    /**
+     * Releases the transceiver, which is stopped once it is no longer used.
+     */
+    void release() {
+        synchronized (KeContactTransceiver.class) {
+            if (--users == 0) {
+                instance = null;
+                stop();
+            }
+        }
+    }
+
+    /**
+     * Registers the handler which receives the datagrams sent by the given address
+     *
+     * @return false if another handler is already registered for the address
+     */
+    boolean register(InetAddress address, KeContactP20Handler handler) {
+        KeContactP20Handler registered = handlers.get(address);
+        if (registered == handler) {
+            return true;
+        }
+        return registered == null && handlers.putIfAbsent(address, handler) == null;
+    }
+
+    void unregister(InetAddress address, KeContactP20Handler handler) {
+        handlers.remove(address, handler);
+    }
+
+    /**
+     * Queues an ASCII command for the given wallbox, it is sent by the selector loop
+     */
+    void send(InetSocketAddress target, String command) {
+        ByteBuffer buffer = acquireBuffer(command.length());
+        for (int i = 0; i < command.length(); i++) {
+            buffer.put((byte) command.charAt(i));
+        }
+        buffer.flip();
+        outgoing.add(new Datagram(target, buffer));
+        selector.wakeup();
+    }
+
+    private void start() throws IOException {
+        selector = Selector.open();
+        try {
+            channel = DatagramChannel.open();
+            channel.socket().setReuseAddress(true);
+            channel.socket().bind(new InetSocketAddress(KeContactP20Handler.LISTENER_PORT_NUMBER));
+            channel.configureBlocking(false);
+            channelKey = channel.register(selector, SelectionKey.OP_READ);
+        } catch (IOException e) {
+            if (channel != null) {
+                channel.close();
+            }
+            selector.close();
+            throw e;
+        }
+
+        Thread loopThread = new Thread("KEBA KeContact transceiver") {
+            @Override
+            public void run() {
+                loop();
+            }
+        };
+        loopThread.setDaemon(true);
+        loopThread.start();
+        logger.info("Listening for incoming data on {}", channel.socket().getLocalSocketAddress());
+    }
+
+    private void stop() {
+        // closing the selector ends the selector loop
+        try {
+            selector.close();
+        } catch (IOException e) {
+            logger.error("An exception occurred while closing the selector: '{}'", e.getMessage());
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.error("An exception occurred while closing the listener channel on port number {} ({})",
+                    KeContactP20Handler.LISTENER_PORT_NUMBER, e.getMessage());
+        }
+        outgoing.clear();
+        logger.debug("Stopped listening on port number {}", KeContactP20Handler.LISTENER_PORT_NUMBER);
+    }
+
+    private void loop() {
+        ByteBuffer readBuffer = ByteBuffer.allocate(KeContactP20Handler.BUFFER_SIZE);
+
+        while (selector.isOpen()) {
+            try {
+                selector.select();
+                selector.selectedKeys().clear();
+                if (channelKey.isReadable()) {
+                    receive(readBuffer);
+                }
+                flush();
+            } catch (ClosedSelectorException | CancelledKeyException e) {
+                return;
+            } catch (IOException e) {
+                if (selector.isOpen()) {
+                    logger.warn("An exception occurred while receiving data on the listener port: '{}'",
+                            e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void receive(ByteBuffer readBuffer) throws IOException {
+        SocketAddress sender;
+        while ((sender = channel.receive(readBuffer)) != null) {
+            readBuffer.flip();
+            InetAddress address = ((InetSocketAddress) sender).getAddress();
+            KeContactP20Handler handler = handlers.get(address);
+            if (handler == null) {
+                logger.debug("Received data from '{}' which is not a configured KEBA KeContact wallbox", sender);
+            } else if (readBuffer.hasRemaining()) {
+                String data = new String(readBuffer.array(), 0, readBuffer.limit(), US_ASCII);
+                logger.debug("Received {} on the listener port from {}", data, sender);
+                try {
+                    handler.onRead(data);
+                } catch (RuntimeException e) {
+                    logger.error("An exception occurred while processing data from '{}'", sender, e);
+                }
+            }
+            readBuffer.clear();
+        }
+    }
+
+    private void flush() {
+        Datagram datagram;
+        while ((datagram = outgoing.peek()) != null) {
+            try {
+                if (channel.send(datagram.buffer, datagram.target) == 0) {
+                    // the socket buffer is full, continue once the channel is writable again
+                    channelKey.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+                logger.debug("Sent '{}' to '{}'",
+                        new String(datagram.buffer.array(), 0, datagram.buffer.limit(), US_ASCII), datagram.target);
+            } catch (IOException e) {
+                logger.warn("An exception occurred while sending data to '{}': {}", datagram.target, e.getMessage());
+            }
+            outgoing.poll();
+            releaseBuffer(datagram.buffer);
+        }
+        channelKey.interestOps(SelectionKey.OP_READ);
+    }
+
+    private ByteBuffer acquireBuffer(int size) {
+        if (size > COMMAND_BUFFER_SIZE) {
+            return ByteBuffer.allocate(size);
+        }
+        synchronized (bufferPool) {
+            ByteBuffer buffer = bufferPool.pollFirst();
+            if (buffer != null) {
+                buffer.clear();
+                return buffer;
+            }
+        }
+        return ByteBuffer.allocate(COMMAND_BUFFER_SIZE);
+    }
+
+    private void releaseBuffer(ByteBuffer buffer) {
+        if (buffer.capacity() != COMMAND_BUFFER_SIZE) {
+            return;
+        }
+        synchronized (bufferPool) {
+            if (bufferPool.size() < MAX_POOLED_BUFFERS) {
+                bufferPool.addFirst(buffer);
+            }
+        }
+    }
+}
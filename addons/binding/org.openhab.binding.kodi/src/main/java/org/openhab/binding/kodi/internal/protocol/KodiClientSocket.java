@@ -9,9 +9,15 @@
 package org.openhab.binding.kodi.internal.protocol;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.annotations.OnWebSocketClose;
@@ -24,6 +30,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
@@ -32,6 +39,9 @@ import com.google.gson.JsonParser;
  * KodiClientSocket implements the low level communication to kodi through websocket. Usually this communication is done
  * through port 9090
  *
+ * Responses are correlated with their requests by the JSON-RPC id, so several requests can be in flight at the same
+ * time.
+ *
  * @author Paul Frank
  *
  */
@@ -41,9 +51,9 @@ public class KodiClientSocket {
     private final ScheduledExecutorService scheduler;
     private static final int REQUEST_TIMEOUT_MS = 60000;
 
-    private CountDownLatch commandLatch = null;
-    private JsonObject commandResponse = null;
-    private int nextMessageId = 1;
+    private final ConcurrentMap<Integer, PendingRequest> pendingRequests = new ConcurrentHashMap<Integer, PendingRequest>();
+    private final AtomicInteger nextMessageId = new AtomicInteger(1);
+    private final Object sendLock = new Object();
 
     private boolean connected = false;
 
@@ -137,14 +147,19 @@ public class KodiClientSocket {
         @OnWebSocketMessage
         public void onMessage(String message) {
             logger.debug("Message received from server: {}", message);
-            final JsonObject json = parser.parse(message).getAsJsonObject();
-            if (json.has("id")) {
-                logger.debug("Response received from server:" + json.toString());
-                int messageId = json.get("id").getAsInt();
-                if (messageId == nextMessageId - 1) {
-                    commandResponse = json;
-                    commandLatch.countDown();
+            JsonElement element = parser.parse(message);
+            if (element.isJsonArray()) {
+                // response to a batch request
+                for (JsonElement response : element.getAsJsonArray()) {
+                    if (response.isJsonObject()) {
+                        handleResponse(response.getAsJsonObject());
+                    }
                 }
+                return;
+            }
+            final JsonObject json = element.getAsJsonObject();
+            if (json.has("id")) {
+                handleResponse(json);
             } else {
                 logger.debug("Event received from server: {}", json.toString());
                 try {
@@ -170,6 +185,17 @@ public class KodiClientSocket {
             }
         }
 
+        private void handleResponse(JsonObject json) {
+            logger.debug("Response received from server: {}", json);
+            JsonElement id = json.get("id");
+            PendingRequest request = id.isJsonPrimitive() ? pendingRequests.get(id.getAsInt()) : null;
+            if (request != null) {
+                request.complete(json);
+            } else {
+                logger.debug("Response received for an unknown request: {}", json);
+            }
+        }
+
         @OnWebSocketClose
         public void onClose(int statusCode, String reason) {
             session = null;
@@ -192,37 +218,65 @@ public class KodiClientSocket {
     private void sendMessage(String str) throws Exception {
         if (isConnected()) {
             logger.debug("send message: {}", str);
-            session.getRemote().sendString(str);
+            // a blocking send must not overlap with another one
+            synchronized (sendLock) {
+                session.getRemote().sendString(str);
+            }
         } else {
             throw new Exception("socket not initialized");
         }
     }
 
-    public JsonElement callMethod(String methodName) {
-        return callMethod(methodName, null);
-    }
+    /**
+     * A request waiting for its response
+     */
+    private static class PendingRequest {
+        private final CountDownLatch latch;
+        private volatile JsonObject response;
 
-    public synchronized JsonElement callMethod(String methodName, JsonObject params) {
-        try {
-            JsonObject payloadObject = new JsonObject();
-            payloadObject.addProperty("jsonrpc", "2.0");
-            payloadObject.addProperty("id", nextMessageId);
-            payloadObject.addProperty("method", methodName);
+        PendingRequest(CountDownLatch latch) {
+            this.latch = latch;
+        }
 
-            if (params != null) {
-                payloadObject.add("params", params);
+        void complete(JsonObject response) {
+            if (this.response == null) {
+                this.response = response;
+                latch.countDown();
             }
+        }
 
-            String message = mapper.toJson(payloadObject);
+        JsonElement getResult() {
+            return response != null ? response.get("result") : null;
+        }
+    }
 
-            commandLatch = new CountDownLatch(1);
-            commandResponse = null;
-            nextMessageId++;
+    private JsonObject createPayload(int id, String methodName, JsonObject params) {
+        JsonObject payloadObject = new JsonObject();
+        payloadObject.addProperty("jsonrpc", "2.0");
+        payloadObject.addProperty("id", id);
+        payloadObject.addProperty("method", methodName);
+
+        if (params != null) {
+            payloadObject.add("params", params);
+        }
+        return payloadObject;
+    }
+
+    public JsonElement callMethod(String methodName) {
+        return callMethod(methodName, null);
+    }
+
+    public JsonElement callMethod(String methodName, JsonObject params) {
+        int id = nextMessageId.getAndIncrement();
+        PendingRequest request = new PendingRequest(new CountDownLatch(1));
+        pendingRequests.put(id, request);
+        try {
+            String message = mapper.toJson(createPayload(id, methodName, params));
 
             sendMessage(message);
-            if (commandLatch.await(REQUEST_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
-                logger.debug("callMethod returns {}", commandResponse.toString());
-                return commandResponse.get("result");
+            if (request.latch.await(REQUEST_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                logger.debug("callMethod returns {}", request.response);
+                return request.getResult();
             } else {
                 logger.error("Timeout during callMethod({}, {})", methodName, params != null ? params.toString() : "");
                 return null;
@@ -230,6 +284,48 @@ public class KodiClientSocket {
         } catch (Exception e) {
             logger.error("Error during callMethod", e);
             return null;
+        } finally {
+            pendingRequests.remove(id);
+        }
+    }
+
+    /**
+     * Calls several methods in one JSON-RPC batch request, so all of them take a single round trip
+     *
+     * @param methodNames the names of the methods to call
+     * @param params the parameters of each method, or null for methods without parameters
+     * @return the results in the order of the methods, null for a method which failed
+     */
+    public List<JsonElement> callMethods(List<String> methodNames, List<JsonObject> params) {
+        int count = methodNames.size();
+        CountDownLatch latch = new CountDownLatch(count);
+        int[] ids = new int[count];
+        List<PendingRequest> requests = new ArrayList<PendingRequest>(count);
+        JsonArray batch = new JsonArray();
+        for (int i = 0; i < count; i++) {
+            ids[i] = nextMessageId.getAndIncrement();
+            PendingRequest request = new PendingRequest(latch);
+            requests.add(request);
+            pendingRequests.put(ids[i], request);
+            batch.add(createPayload(ids[i], methodNames.get(i), params.get(i)));
+        }
+        try {
+            sendMessage(mapper.toJson(batch));
+            if (!latch.await(REQUEST_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                logger.error("Timeout during callMethods({})", methodNames);
+            }
+            List<JsonElement> results = new ArrayList<JsonElement>(count);
+            for (PendingRequest request : requests) {
+                results.add(request.getResult());
+            }
+            return results;
+        } catch (Exception e) {
+            logger.error("Error during callMethods", e);
+            return Collections.nCopies(count, (JsonElement) null);
+        } finally {
+            for (int id : ids) {
+                pendingRequests.remove(id);
+            }
         }
     }
 }
@@ -9,6 +9,8 @@
 package org.openhab.binding.kodi.internal.protocol;
 
 import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.ScheduledExecutorService;
 
 import org.openhab.binding.kodi.internal.KodiEventListener;
@@ -24,6 +26,9 @@ import com.google.gson.JsonPrimitive;
 /**
  * KodiConnection provides an api for accessing a kodi device.
  *
+ * Requests are not serialized by the connection, so commands are not held up by a running status update. Only the
+ * status updates are serialized among each other.
+ *
  * @author Paul Frank
  *
  */
@@ -34,10 +39,14 @@ public class KodiConnection implements KodiClientSocketEventListener {
     private static final int VOLUMESTEP = 10;
 
     private URI wsUri;
-    private KodiClientSocket socket;
+    private volatile KodiClientSocket socket;
 
     private int volume = 0;
-    private KodiState currentState = KodiState.Stop;
+    private volatile KodiState currentState = KodiState.Stop;
+
+    // the last active player, which is queried together with the status in one batch
+    private final Object statusLock = new Object();
+    private int lastActivePlayer = -1;
 
     private final KodiEventListener listener;
 
@@ -66,7 +75,10 @@ public class KodiConnection implements KodiClientSocketEventListener {
     }
 
     private int getActivePlayer() {
-        JsonElement response = socket.callMethod("Player.GetActivePlayers");
+        return getActivePlayer(socket.callMethod("Player.GetActivePlayers"));
+    }
+
+    private int getActivePlayer(JsonElement response) {
         if (response != null) {
             boolean playing = response.isJsonArray() && response.getAsJsonArray().size() > 0;
             if (playing) {
@@ -77,21 +89,21 @@ public class KodiConnection implements KodiClientSocketEventListener {
         return -1;
     }
 
-    public synchronized void playerPlayPause() {
+    public void playerPlayPause() {
         int activePlayer = getActivePlayer();
         JsonObject params = new JsonObject();
         params.addProperty("playerid", activePlayer);
         socket.callMethod("Player.PlayPause", params);
     }
 
-    public synchronized void playerStop() {
+    public void playerStop() {
         int activePlayer = getActivePlayer();
         JsonObject params = new JsonObject();
         params.addProperty("playerid", activePlayer);
         socket.callMethod("Player.Stop", params);
     }
 
-    public synchronized void playerNext() {
+    public void playerNext() {
         int activePlayer = getActivePlayer();
 
         JsonObject params = new JsonObject();
@@ -102,7 +114,7 @@ public class KodiConnection implements KodiClientSocketEventListener {
         updatePlayerStatus();
     }
 
-    public synchronized void playerPrevious() {
+    public void playerPrevious() {
         int activePlayer = getActivePlayer();
 
         JsonObject params = new JsonObject();
@@ -113,7 +125,7 @@ public class KodiConnection implements KodiClientSocketEventListener {
         updatePlayerStatus();
     }
 
-    public synchronized void playerRewind() {
+    public void playerRewind() {
         int activePlayer = getActivePlayer();
 
         JsonObject params = new JsonObject();
@@ -125,7 +137,7 @@ public class KodiConnection implements KodiClientSocketEventListener {
 
     }
 
-    public synchronized void playerFastForward() {
+    public void playerFastForward() {
         int activePlayer = getActivePlayer();
 
         JsonObject params = new JsonObject();
@@ -136,74 +148,96 @@ public class KodiConnection implements KodiClientSocketEventListener {
         updatePlayerStatus();
     }
 
-    public synchronized void increaseVolume() {
-        this.volume += VOLUMESTEP;
+    public void increaseVolume() {
+        int volume;
+        synchronized (this) {
+            volume = this.volume += VOLUMESTEP;
+        }
         JsonObject params = new JsonObject();
         params.addProperty("volume", volume);
         socket.callMethod("Application.SetVolume", params);
     }
 
-    public synchronized void decreaseVolume() {
-        this.volume -= VOLUMESTEP;
+    public void decreaseVolume() {
+        int volume;
+        synchronized (this) {
+            volume = this.volume -= VOLUMESTEP;
+        }
         JsonObject params = new JsonObject();
         params.addProperty("volume", volume);
         socket.callMethod("Application.SetVolume", params);
     }
 
-    public synchronized void setVolume(int volume) {
-        this.volume = volume;
+    public void setVolume(int volume) {
+        synchronized (this) {
+            this.volume = volume;
+        }
         JsonObject params = new JsonObject();
         params.addProperty("volume", volume);
         socket.callMethod("Application.SetVolume", params);
     }
 
-    public int getVolume() {
+    public synchronized int getVolume() {
         return volume;
     }
 
-    public synchronized void setMute(boolean mute) {
+    public void setMute(boolean mute) {
         JsonObject params = new JsonObject();
         params.addProperty("mute", mute);
         socket.callMethod("Application.SetMute", params);
     }
 
-    private int getSpeed(int activePlayer) {
+    private JsonObject getSpeedParams(int activePlayer) {
         final String[] properties = { "speed", "position" };
 
         JsonObject params = new JsonObject();
         params.addProperty("playerid", activePlayer);
         params.add("properties", getJsonArray(properties));
-        JsonElement response = socket.callMethod("Player.GetProperties", params);
-
-        JsonObject result = response.getAsJsonObject();
-        return result.get("speed").getAsInt();
-    }
-
-    public synchronized void updatePlayerStatus() {
-        if (socket.isConnected()) {
-            int activePlayer = getActivePlayer();
-            if (activePlayer >= 0) {
-                int speed = getSpeed(activePlayer);
-                if (speed == 0) {
+        return params;
+    }
+
+    /**
+     * Updates the player state and the current item. The active player, its speed and its item are fetched in one
+     * batch for the player which was active last time; only if another player became active, its status is fetched
+     * with a second batch.
+     */
+    public void updatePlayerStatus() {
+        synchronized (statusLock) {
+            if (socket.isConnected()) {
+                int activePlayer = lastActivePlayer >= 0 ? lastActivePlayer : getActivePlayer();
+                for (int attempt = 0; attempt < 2 && activePlayer >= 0; attempt++) {
+                    List<JsonElement> results = socket.callMethods(
+                            Arrays.asList("Player.GetActivePlayers", "Player.GetProperties", "Player.GetItem"),
+                            Arrays.asList(null, getSpeedParams(activePlayer), getItemParams(activePlayer)));
+                    int currentPlayer = getActivePlayer(results.get(0));
+                    if (currentPlayer == activePlayer) {
+                        if (results.get(1) == null || results.get(2) == null) {
+                            logger.debug("Incomplete player status received for player {}", activePlayer);
+                            break;
+                        }
+                        int speed = results.get(1).getAsJsonObject().get("speed").getAsInt();
+                        if (speed == 0) {
+                            updateState(KodiState.Stop);
+                        } else if (speed == 1) {
+                            updateState(KodiState.Play);
+                        } else if (speed < 0) {
+                            updateState(KodiState.Rewind);
+                        } else {
+                            updateState(KodiState.FastForward);
+                        }
+                        updatePlayerItem(results.get(2), true);
+                        break;
+                    }
+                    activePlayer = currentPlayer;
+                }
+                lastActivePlayer = activePlayer;
+                if (activePlayer < 0) {
                     updateState(KodiState.Stop);
-                } else if (speed == 1) {
-                    updateState(KodiState.Play);
-                } else if (speed < 0) {
-                    updateState(KodiState.Rewind);
-                } else {
-                    updateState(KodiState.FastForward);
                 }
-                requestPlayerUpdate(activePlayer);
-            } else {
-                updateState(KodiState.Stop);
             }
         }
     }
 
-    private void requestPlayerUpdate(int activePlayer) {
-        requestPlayerUpdate(activePlayer, true);
-    }
-
     private void updateFanartUrl(String imagePath) {
         if (imagePath == null || imagePath.isEmpty()) {
             return;
@@ -225,15 +259,21 @@ public class KodiConnection implements KodiClientSocketEventListener {
          */
     }
 
-    private void requestPlayerUpdate(int activePlayer, boolean updateMediaType) {
+    private JsonObject getItemParams(int activePlayer) {
         final String[] properties = { "title", "album", "artist", "director", "thumbnail", "file", "fanart",
                 "showtitle", "streamdetails" };
 
         JsonObject params = new JsonObject();
         params.addProperty("playerid", activePlayer);
         params.add("properties", getJsonArray(properties));
-        JsonElement response = socket.callMethod("Player.GetItem", params);
+        return params;
+    }
 
+    private void requestPlayerUpdate(int activePlayer, boolean updateMediaType) {
+        updatePlayerItem(socket.callMethod("Player.GetItem", getItemParams(activePlayer)), updateMediaType);
+    }
+
+    private void updatePlayerItem(JsonElement response, boolean updateMediaType) {
         JsonObject item = ((JsonObject) response).get("item").getAsJsonObject();
 
         String title = "";
@@ -410,7 +450,9 @@ public class KodiConnection implements KodiClientSocketEventListener {
                 logger.error("Event listener invoking error", e);
             }
 
-            this.volume = volume;
+            synchronized (this) {
+                this.volume = volume;
+            }
         } else {
             logger.debug("Unknown event from kodi {}: {}", method, json.toString());
         }
@@ -447,7 +489,7 @@ public class KodiConnection implements KodiClientSocketEventListener {
         socket = null;
     }
 
-    public synchronized void updateVolume() {
+    public void updateVolume() {
         if (socket.isConnected()) {
             String[] props = { "volume", "version", "name", "muted" };
 
@@ -459,7 +501,10 @@ public class KodiConnection implements KodiClientSocketEventListener {
             if (response instanceof JsonObject) {
                 JsonObject result = (JsonObject) response;
                 if (result.has("volume")) {
-                    volume = result.get("volume").getAsInt();
+                    int volume = result.get("volume").getAsInt();
+                    synchronized (this) {
+                        this.volume = volume;
+                    }
                     listener.updateVolume(volume);
                 }
                 if (result.has("muted")) {
@@ -474,7 +519,7 @@ public class KodiConnection implements KodiClientSocketEventListener {
         }
     }
 
-    public synchronized void playURI(String uri) {
+    public void playURI(String uri) {
         JsonObject item = new JsonObject();
         item.addProperty("file", uri);
 
@@ -483,7 +528,7 @@ public class KodiConnection implements KodiClientSocketEventListener {
         socket.callMethod("Player.Open", params);
     }
 
-    public synchronized void showNotification(String message) {
+    public void showNotification(String message) {
         JsonObject params = new JsonObject();
         params.addProperty("title", "openHAB");
         params.addProperty("message", message);
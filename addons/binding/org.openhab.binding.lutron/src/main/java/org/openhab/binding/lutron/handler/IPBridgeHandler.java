@@ -11,14 +11,16 @@ package org.openhab.binding.lutron.handler;
 import java.io.IOException;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.MatchResult;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.apache.commons.lang.StringUtils;
 import org.eclipse.smarthome.config.discovery.DiscoveryService;
@@ -46,7 +48,8 @@ import org.slf4j.LoggerFactory;
  * @author Allan Tong - Initial contribution
  */
 public class IPBridgeHandler extends BaseBridgeHandler {
-    private static final Pattern STATUS_REGEX = Pattern.compile("~(OUTPUT|DEVICE|SYSTEM),([^,]+),(.*)");
+    private static final LutronCommandType[] STATUS_TYPES = { LutronCommandType.OUTPUT, LutronCommandType.DEVICE,
+            LutronCommandType.SYSTEM };
 
     private static final String DB_UPDATE_DATE_FORMAT = "MM/dd/yyyy HH:mm:ss";
 
@@ -67,6 +70,8 @@ public class IPBridgeHandler extends BaseBridgeHandler {
     private TelnetSession session;
     private BlockingQueue<LutronCommand> sendQueue = new LinkedBlockingQueue<>();
 
+    private Map<Integer, LutronHandler> handlers = new ConcurrentHashMap<>();
+
     private ScheduledFuture<?> messageSender;
     private ScheduledFuture<?> keepAlive;
     private ScheduledFuture<?> keepAliveReconnect;
@@ -271,12 +276,35 @@ public class IPBridgeHandler extends BaseBridgeHandler {
         this.sendQueue.add(command);
     }
 
+    void registerHandler(LutronHandler handler) {
+        this.handlers.put(handler.getIntegrationId(), handler);
+    }
+
+    void unregisterHandler(LutronHandler handler) {
+        Iterator<LutronHandler> iterator = this.handlers.values().iterator();
+
+        while (iterator.hasNext()) {
+            if (iterator.next() == handler) {
+                iterator.remove();
+            }
+        }
+    }
+
     private LutronHandler findThingHandler(int integrationId) {
+        LutronHandler registeredHandler = this.handlers.get(integrationId);
+
+        if (registeredHandler != null) {
+            return registeredHandler;
+        }
+
+        // Handlers initialized before this bridge handler could not register themselves
         for (Thing thing : getThing().getThings()) {
             if (thing.getHandler() instanceof LutronHandler) {
                 LutronHandler handler = (LutronHandler) thing.getHandler();
 
                 if (handler.getIntegrationId() == integrationId) {
+                    this.handlers.put(integrationId, handler);
+
                     return handler;
                 }
             }
@@ -292,44 +320,127 @@ public class IPBridgeHandler extends BaseBridgeHandler {
                 continue;
             }
 
-            this.logger.debug("Received message " + line);
+            this.logger.debug("Received message {}", line);
 
             // System is alive, cancel reconnect task.
             if (this.keepAliveReconnect != null) {
                 this.keepAliveReconnect.cancel(true);
             }
 
-            Matcher matcher = STATUS_REGEX.matcher(line);
+            parseUpdate(line);
+        }
+    }
 
-            if (matcher.matches()) {
-                LutronCommandType type = LutronCommandType.valueOf(matcher.group(1));
+    /*
+     * Status messages have the form ~TYPE,integrationId,parameters and are split by hand, as a scene
+     * activation can produce hundreds of them at once.
+     */
+    private void parseUpdate(String line) {
+        int typeEnd = line.indexOf(',');
+        int idEnd = typeEnd < 0 ? -1 : line.indexOf(',', typeEnd + 1);
+        LutronCommandType type = idEnd < 0 ? null : parseType(line, typeEnd);
 
-                if (type == LutronCommandType.SYSTEM) {
-                    // SYSTEM messages are assumed to be a response to the SYSTEM_DBEXPORTDATETIME
-                    // query. The response returns the last time the device database was updated.
-                    setDbUpdateDate(matcher.group(2), matcher.group(3));
+        if (type == null || idEnd == typeEnd + 1) {
+            this.logger.info("Ignoring message {}", line);
 
-                    continue;
-                }
+            return;
+        }
 
-                Integer integrationId = new Integer(matcher.group(2));
-                LutronHandler handler = findThingHandler(integrationId);
+        if (type == LutronCommandType.SYSTEM) {
+            // SYSTEM messages are assumed to be a response to the SYSTEM_DBEXPORTDATETIME
+            // query. The response returns the last time the device database was updated.
+            setDbUpdateDate(line.substring(typeEnd + 1, idEnd), line.substring(idEnd + 1));
 
-                if (handler != null) {
-                    String paramString = matcher.group(3);
+            return;
+        }
 
-                    try {
-                        handler.handleUpdate(type, paramString.split(","));
-                    } catch (Exception e) {
-                        this.logger.error("Error processing update", e);
-                    }
-                } else {
-                    this.logger.info("No thing configured for integration ID " + integrationId);
-                }
-            } else {
-                this.logger.info("Ignoring message " + line);
+        int integrationId = parseIntegrationId(line, typeEnd + 1, idEnd);
+
+        if (integrationId < 0) {
+            this.logger.info("Ignoring message {}", line);
+
+            return;
+        }
+
+        LutronHandler handler = findThingHandler(integrationId);
+
+        if (handler != null) {
+            try {
+                handler.handleUpdate(type, splitParameters(line, idEnd + 1));
+            } catch (Exception e) {
+                this.logger.error("Error processing update", e);
+            }
+        } else {
+            this.logger.info("No thing configured for integration ID {}", integrationId);
+        }
+    }
+
+    private static LutronCommandType parseType(String line, int typeEnd) {
+        if (line.charAt(0) != '~') {
+            return null;
+        }
+
+        for (LutronCommandType type : STATUS_TYPES) {
+            if (type.name().length() == typeEnd - 1 && line.startsWith(type.name(), 1)) {
+                return type;
             }
         }
+
+        return null;
+    }
+
+    private static int parseIntegrationId(String line, int start, int end) {
+        if (end - start > 9) {
+            return -1;
+        }
+
+        int integrationId = 0;
+
+        for (int i = start; i < end; i++) {
+            char c = line.charAt(i);
+
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+
+            integrationId = integrationId * 10 + (c - '0');
+        }
+
+        return integrationId;
+    }
+
+    /*
+     * Same result as line.substring(start).split(","), including the removal of trailing empty parameters.
+     */
+    private static String[] splitParameters(String line, int start) {
+        int count = 1;
+
+        for (int i = start; i < line.length(); i++) {
+            if (line.charAt(i) == ',') {
+                count++;
+            }
+        }
+
+        if (count == 1) {
+            return new String[] { line.substring(start) };
+        }
+
+        String[] parameters = new String[count];
+        int parameter = 0;
+        int parameterStart = start;
+
+        for (int i = start; i <= line.length(); i++) {
+            if (i == line.length() || line.charAt(i) == ',') {
+                parameters[parameter++] = line.substring(parameterStart, i);
+                parameterStart = i + 1;
+            }
+        }
+
+        while (count > 0 && parameters[count - 1].isEmpty()) {
+            count--;
+        }
+
+        return count == parameters.length ? parameters : Arrays.copyOf(parameters, count);
     }
 
     private void sendKeepAlive() {
@@ -72,6 +72,7 @@ public class KeypadHandler extends LutronHandler {
 
         this.integrationId = id.intValue();
 
+        registerWithBridge();
         updateStatus(ThingStatus.ONLINE);
 
         queryDevice(COMPONENT_LED1, LED_STATE);
@@ -42,6 +42,29 @@ public abstract class LutronHandler extends BaseThingHandler {
         return bridge == null ? null : (IPBridgeHandler) bridge.getHandler();
     }
 
+    /**
+     * Registers this handler with the bridge, so the bridge can route the updates for its integration id to it.
+     * To be called once the integration id is known.
+     */
+    protected void registerWithBridge() {
+        IPBridgeHandler bridgeHandler = getBridgeHandler();
+
+        if (bridgeHandler != null) {
+            bridgeHandler.registerHandler(this);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        IPBridgeHandler bridgeHandler = getBridgeHandler();
+
+        if (bridgeHandler != null) {
+            bridgeHandler.unregisterHandler(this);
+        }
+
+        super.dispose();
+    }
+
     private void sendCommand(LutronCommand command) {
         IPBridgeHandler bridgeHandler = getBridgeHandler();
 
@@ -45,6 +45,7 @@ public class OccupancySensorHandler extends LutronHandler {
 
         this.integrationId = id.intValue();
 
+        registerWithBridge();
         updateStatus(ThingStatus.ONLINE);
     }
 
@@ -77,8 +77,9 @@ class PrgProtocolHandler {
     // ------------------------------------------------------------------------------------------------
     // The following are the various responses specified by the
     // http://www.lutron.com/TechnicalDocumentLibrary/RS232ProtocolCommandSet.040196d.pdf
+    // The OK response ("~nnn OK") and button presses (anything not starting with '~' or ':') are recognized
+    // without a pattern, see NormalResponseCallback.
     private final static Pattern RSP_FAILED = Pattern.compile("^~ERROR # (\\d+) (\\d+) OK");
-    private final static Pattern RSP_OK = Pattern.compile("^~(\\d+) OK");
     private final static Pattern RSP_RESETTING = Pattern.compile("^~:Reseting Device... (\\d+) OK");
     private final static Pattern RSP_RMU = Pattern
             .compile("^~:mu (\\d) (\\d+) (\\w+) (\\w+) (\\w+) (\\w+) (\\w+) (\\w+) (\\w+)");
@@ -92,7 +93,6 @@ class PrgProtocolHandler {
             .compile("^~:ra (\\d{1,3}) (\\d{1,3}) (\\d{1,3}) (\\d{1,3}) (\\d+) OK");
     private final static Pattern RSP_SUPERSEQUENCESTATUS = Pattern
             .compile("^~:s\\? (\\w) (\\d+) (\\d{1,2}) (\\d{1,2}) (\\d+) OK");
-    private final static Pattern RSP_BUTTON = Pattern.compile("^[^~:].*");
     private final static String RSP_CONNECTION_ESTABLISHED = "connection established";
 
     /**
@@ -1065,20 +1065,18 @@ class PrgProtocolHandler {
     /**
      * Handles the interface being reset
      *
-     * @param m the non-null {@link Matcher} that matched the response
      * @param resp the possibly null, possibly empty actual response
      */
-    private void handleResetting(Matcher m, String resp) {
+    private void handleResetting(String resp) {
         _callback.statusChanged(ThingStatus.OFFLINE, ThingStatusDetail.DUTY_CYCLE, "Device resetting");
     }
 
     /**
      * Handles the button press response
      *
-     * @param m the non-null {@link Matcher} that matched the response
      * @param resp the possibly null, possibly empty actual response
      */
-    private void handleButton(Matcher m, String resp) {
+    private void handleButton(String resp) {
         _callback.stateChanged(PrgConstants.CHANNEL_BUTTONPRESS, new StringType(resp));
     }
 
@@ -1108,70 +1106,94 @@ class PrgProtocolHandler {
                 return; // simple blank - do nothing
             }
 
-            Matcher m = RSP_OK.matcher(response);
-            if (m.matches()) {
-                // logger.debug(response);
-                return; // nothing to do on an OK! response
-            }
-
-            m = RSP_FAILED.matcher(response);
-            if (m.matches()) {
-                handleCommandFailure(m, response);
-                return; // nothing really to do on an error response either
-            }
-
-            m = RSP_SCENESTATUS.matcher(response);
-            if (m.matches()) {
-                handleSceneStatus(m, response);
+            // Button presses are the only responses not starting with '~' or ':'
+            final char first = response.charAt(0);
+            if (first != '~' && first != ':') {
+                handleButton(response);
                 return;
             }
 
-            m = RSP_REPORTIME.matcher(response);
-            if (m.matches()) {
-                handleReportTime(m, response);
-                return;
+            if (isOkResponse(response)) {
+                return; // nothing to do on an OK! response
             }
 
-            m = RSP_REPORTSCHEDULE.matcher(response);
-            if (m.matches()) {
-                handleReportSchedule(m, response);
-                return;
-            }
+            // The first word of the response determines the only pattern it can match
+            final int prefixEnd = response.indexOf(' ');
+            final String prefix = prefixEnd < 0 ? response : response.substring(0, prefixEnd);
+            Matcher m;
+            switch (prefix) {
+                case "~ERROR":
+                    m = RSP_FAILED.matcher(response);
+                    if (m.matches()) {
+                        handleCommandFailure(m, response);
+                        return; // nothing really to do on an error response either
+                    }
+                    break;
+
+                case "~:ss":
+                case ":ss":
+                    m = RSP_SCENESTATUS.matcher(response);
+                    if (m.matches()) {
+                        handleSceneStatus(m, response);
+                        return;
+                    }
+                    break;
 
-            m = RSP_SUNRISESUNSET.matcher(response);
-            if (m.matches()) {
-                handleSunriseSunset(m, response);
-                return;
-            }
+                case "~:rt":
+                    m = RSP_REPORTIME.matcher(response);
+                    if (m.matches()) {
+                        handleReportTime(m, response);
+                        return;
+                    }
+                    break;
 
-            m = RSP_SUPERSEQUENCESTATUS.matcher(response);
-            if (m.matches()) {
-                handleSuperSequenceStatus(m, response);
-                return;
-            }
+                case "~:rs":
+                    m = RSP_REPORTSCHEDULE.matcher(response);
+                    if (m.matches()) {
+                        handleReportSchedule(m, response);
+                        return;
+                    }
+                    break;
 
-            m = RSP_ZONEINTENSITY.matcher(response);
-            if (m.matches()) {
-                handleZoneIntensity(m, response);
-                return;
-            }
+                case "~:ra":
+                    m = RSP_SUNRISESUNSET.matcher(response);
+                    if (m.matches()) {
+                        handleSunriseSunset(m, response);
+                        return;
+                    }
+                    break;
 
-            m = RSP_RMU.matcher(response);
-            if (m.matches()) {
-                handleControlInfo(m, response);
-                return;
-            }
+                case "~:s?":
+                    m = RSP_SUPERSEQUENCESTATUS.matcher(response);
+                    if (m.matches()) {
+                        handleSuperSequenceStatus(m, response);
+                        return;
+                    }
+                    break;
 
-            m = RSP_RESETTING.matcher(response);
-            if (m.matches()) {
-                handleResetting(m, response);
-                return;
-            }
+                case "~:zi":
+                    m = RSP_ZONEINTENSITY.matcher(response);
+                    if (m.matches()) {
+                        handleZoneIntensity(m, response);
+                        return;
+                    }
+                    break;
 
-            m = RSP_BUTTON.matcher(response);
-            if (m.matches()) {
-                handleButton(m, response);
-                return;
+                case "~:mu":
+                    m = RSP_RMU.matcher(response);
+                    if (m.matches()) {
+                        handleControlInfo(m, response);
+                        return;
+                    }
+                    break;
+
+                case "~:Reseting":
+                    m = RSP_RESETTING.matcher(response);
+                    if (m.matches()) {
+                        handleResetting(response);
+                        return;
+                    }
+                    break;
             }
 
             if (RSP_CONNECTION_ESTABLISHED.equals(response)) {
@@ -1187,6 +1209,26 @@ class PrgProtocolHandler {
                     "Exception occurred reading from PRG: " + exception);
         }
 
+        /**
+         * Checks for the OK response, a '~' followed by the command number and " OK"
+         *
+         * @param response the non-null, non-empty response
+         * @return true if the response is an OK response
+         */
+        private boolean isOkResponse(String response) {
+            final int okStart = response.length() - 3;
+            if (okStart < 2 || response.charAt(0) != '~' || !response.startsWith(" OK", okStart)) {
+                return false;
+            }
+            for (int i = 1; i < okStart; i++) {
+                final char c = response.charAt(i);
+                if (c < '0' || c > '9') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
     }
 
     /**
@@ -80,6 +80,12 @@ public class SocketSession {
      */
     private AtomicReference<SocketSessionCallback> _callback = new AtomicReference<SocketSessionCallback>(null);
 
+    /**
+     * Signalled when a {@link #_callback} is set, so the {@link #_dispatcher} can start dispatching immediately
+     */
+    private final Lock _callbackLock = new ReentrantLock();
+    private final Condition _callbackSet = _callbackLock.newCondition();
+
     /**
      * Creates the socket session from the given host and port
      *
@@ -108,7 +114,13 @@ public class SocketSession {
         if (callback == null) {
             throw new IllegalArgumentException("callback cannot be null");
         }
-        _callback.set(callback);
+        _callbackLock.lock();
+        try {
+            _callback.set(callback);
+            _callbackSet.signalAll();
+        } finally {
+            _callbackLock.unlock();
+        }
     }
 
     /**
@@ -234,42 +246,42 @@ public class SocketSession {
         /**
          * Runs the logic to read from the socket until {@link #_isRunning} is false. A 'response' is anything that ends
          * with a carriage-return/newline combo. Additionally, the special "login" prompts are
-         * treated as responses for purposes of logging in.
+         * treated as responses for purposes of logging in. Whatever has been received is read at once and split into
+         * responses, which are queued as soon as their end has arrived.
          */
         @Override
         public void run() {
             final StringBuilder sb = new StringBuilder(100);
-            int c;
+            final char[] buffer = new char[1024];
 
             _isRunning.set(true);
             _responses.clear();
 
             while (_isRunning.get()) {
                 try {
-                    // if reader is null, sleep and try again
-                    if (_reader == null) {
-                        Thread.sleep(250);
-                        continue;
+                    final BufferedReader reader = _reader;
+                    if (reader == null) {
+                        // disconnected
+                        _isRunning.set(false);
+                        break;
                     }
 
-                    c = _reader.read();
-                    if (c == -1) {
+                    final int read = reader.read(buffer);
+                    if (read == -1) {
                         _responses.put(new IOException("server closed connection"));
                         _isRunning.set(false);
                         break;
                     }
-                    final char ch = (char) c;
-                    sb.append(ch);
-                    if (ch == '\n' || ch == ' ') {
-                        final String str = sb.toString();
-                        if (str.endsWith("\r\n") || str.endsWith("login: ")) {
+                    for (int i = 0; i < read; i++) {
+                        final char ch = buffer[i];
+                        sb.append(ch);
+                        if ((ch == '\n' && endsWith(sb, "\r\n")) || (ch == ' ' && endsWith(sb, "login: "))) {
+                            final String response = sb.substring(0, sb.length() - 2);
                             sb.setLength(0);
-                            final String response = str.substring(0, str.length() - 2);
                             _logger.debug("Received response: {}", response);
                             _responses.put(response);
                         }
                     }
-                    // _logger.debug(">>> reading: " + sb + ":" + (int) ch);
                 } catch (SocketTimeoutException e) {
                     // do nothing - we expect this (setSOTimeout) to check the _isReading
                 } catch (InterruptedException e) {
@@ -291,6 +303,19 @@ public class SocketSession {
                 _lock.unlock();
             }
         }
+
+        private boolean endsWith(StringBuilder sb, String suffix) {
+            final int start = sb.length() - suffix.length();
+            if (start < 0) {
+                return false;
+            }
+            for (int i = 0; i < suffix.length(); i++) {
+                if (sb.charAt(start + i) != suffix.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
     }
 
     /**
@@ -316,7 +341,7 @@ public class SocketSession {
 
         /**
          * Stops the reader. Will wait 5 seconds for the runnable to stop (should stop within 1 second based on the poll
-         * timeout below)
+         * and wait timeouts below)
          */
         public void stopRunning() {
 
@@ -345,9 +370,16 @@ public class SocketSession {
                 try {
                     final SocketSessionCallback callback = _callback.get();
 
-                    // if callback is null, we don't want to start dispatching yet.
+                    // if callback is null, we don't want to start dispatching yet - wait until one is set
                     if (callback == null) {
-                        Thread.sleep(250);
+                        _callbackLock.lock();
+                        try {
+                            if (_callback.get() == null) {
+                                _callbackSet.await(1, TimeUnit.SECONDS);
+                            }
+                        } finally {
+                            _callbackLock.unlock();
+                        }
                         continue;
                     }
 
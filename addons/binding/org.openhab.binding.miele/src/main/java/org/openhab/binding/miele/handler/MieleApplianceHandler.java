@@ -10,9 +10,9 @@ package org.openhab.binding.miele.handler;
 
 import static org.openhab.binding.miele.MieleBindingConstants.*;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang.StringUtils;
 import org.eclipse.smarthome.core.thing.Bridge;
@@ -38,7 +38,6 @@ import com.google.common.collect.Sets;
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 
 /**
  * The {@link MieleApplianceHandler} is an abstract class
@@ -51,6 +50,8 @@ import com.google.gson.JsonParser;
 public abstract class MieleApplianceHandler<E extends Enum<E> & ApplianceChannelSelector> extends BaseThingHandler
         implements ApplianceStatusListener {
 
+    private static final String DEVICE_CLASS_PREFIX = "com.miele.xgw3000.gateway.hdm.deviceclasses.Miele";
+
     public final static Set<ThingTypeUID> SUPPORTED_THING_TYPES = Sets.newHashSet(THING_TYPE_DISHWASHER,
             THING_TYPE_OVEN, THING_TYPE_FRIDGE, THING_TYPE_DRYER, THING_TYPE_HOB, THING_TYPE_FRIDGEFREEZER,
             THING_TYPE_HOOD, THING_TYPE_WASHINGMACHINE);
@@ -63,7 +64,25 @@ public abstract class MieleApplianceHandler<E extends Enum<E> & ApplianceChannel
     private Class<E> selectorType;
     protected String modelID;
 
-    protected Map<String, String> metaDataCache = new HashMap<String, String>();
+    protected String myUID;
+
+    // the metadata of the properties, by property name
+    protected Map<String, CachedMetaData> metaDataCache = new ConcurrentHashMap<String, CachedMetaData>();
+
+    protected static class CachedMetaData {
+        private final JsonObject source;
+        private final DeviceMetaData metaData;
+        private final DeviceMetaData enumMetaData;
+
+        private CachedMetaData(JsonObject source, DeviceMetaData metaData) {
+            this.source = source;
+            this.metaData = metaData;
+            // only keep the enum, if any - that's all we care for events we receive via multicast
+            this.enumMetaData = new DeviceMetaData();
+            this.enumMetaData.MieleEnum = metaData.MieleEnum;
+            this.enumMetaData.access = metaData.access;
+        }
+    }
 
     public MieleApplianceHandler(Thing thing, Class<E> selectorType, String modelID) {
         super(thing);
@@ -101,6 +120,7 @@ public abstract class MieleApplianceHandler<E extends Enum<E> & ApplianceChannel
         final String UID = (String) getThing().getConfiguration().getProperties().get(APPLIANCE_ID);
         if (UID != null) {
             this.UID = UID;
+            this.myUID = "hdm:ZigBee:" + UID;
             if (getMieleBridgeHandler() != null) {
                 ThingStatusInfo statusInfo = getBridge().getStatusInfo();
                 updateStatus(statusInfo.getStatus(), statusInfo.getStatusDetail(), statusInfo.getDescription());
@@ -121,7 +141,7 @@ public abstract class MieleApplianceHandler<E extends Enum<E> & ApplianceChannel
         if (UID != null) {
             MieleBridgeHandler bridgeHandler = getMieleBridgeHandler();
             if (bridgeHandler != null) {
-                getMieleBridgeHandler().unregisterApplianceStatusListener(this);
+                getMieleBridgeHandler().unregisterApplianceStatusListener(UID, this);
             }
             UID = null;
         }
@@ -139,13 +159,9 @@ public abstract class MieleApplianceHandler<E extends Enum<E> & ApplianceChannel
     @Override
     public void onApplianceStateChanged(String UID, DeviceClassObject dco) {
 
-        String myUID = "hdm:ZigBee:" + (String) getThing().getConfiguration().getProperties().get(APPLIANCE_ID);
-        String modelID = StringUtils.right(dco.DeviceClass,
-                dco.DeviceClass.length() - new String("com.miele.xgw3000.gateway.hdm.deviceclasses.Miele").length());
+        if (UID != null && UID.equals(myUID)) {
 
-        if (myUID.equals(UID)) {
-
-            if (modelID.equals(this.modelID)) {
+            if (dco.DeviceClass.equals(DEVICE_CLASS_PREFIX + this.modelID)) {
                 for (JsonElement prop : dco.Properties.getAsJsonArray()) {
                     try {
                         DeviceProperty dp = gson.fromJson(prop, DeviceProperty.class);
@@ -172,34 +188,23 @@ public abstract class MieleApplianceHandler<E extends Enum<E> & ApplianceChannel
 
     @Override
     public void onAppliancePropertyChanged(String UID, DeviceProperty dp) {
-        String myUID = "hdm:ZigBee:" + (String) getThing().getConfiguration().getProperties().get(APPLIANCE_ID);
-
         String dpValue = StringUtils.strip(dp.Value);
         dpValue = StringUtils.trim(dpValue);
 
-        if (myUID.equals(UID)) {
+        if (UID != null && UID.equals(myUID)) {
             try {
                 DeviceMetaData dmd = null;
+                String name = dp.Name != null ? dp.Name.trim() : "null";
+                CachedMetaData cached = metaDataCache.get(name);
                 if (dp.Metadata == null) {
-                    String metadata = metaDataCache.get(new StringBuilder().append(dp.Name).toString().trim());
-                    if (metadata != null) {
-                        JsonParser parser = new JsonParser();
-                        JsonObject jsonMetaData = (JsonObject) parser.parse(metadata);
-                        dmd = gson.fromJson(jsonMetaData, DeviceMetaData.class);
-                        // only keep the enum, if any - that's all we care for events we receive via multicast
-                        // all other fields are nulled
-                        dmd.LocalizedID = null;
-                        dmd.LocalizedValue = null;
-                        dmd.Filter = null;
-                        dmd.description = null;
+                    if (cached != null) {
+                        dmd = cached.enumMetaData;
                     }
-                }
-                if (dp.Metadata != null) {
-                    String metadata = StringUtils.replace(dp.Metadata.toString(), "enum", "MieleEnum");
-                    JsonParser parser = new JsonParser();
-                    JsonObject jsonMetaData = (JsonObject) parser.parse(metadata);
-                    dmd = gson.fromJson(jsonMetaData, DeviceMetaData.class);
-                    metaDataCache.put(new StringBuilder().append(dp.Name).toString().trim(), metadata);
+                } else if (cached != null && cached.source.equals(dp.Metadata)) {
+                    dmd = cached.metaData;
+                } else {
+                    dmd = parseMetaData(dp.Metadata);
+                    metaDataCache.put(name, new CachedMetaData(dp.Metadata, dmd));
                 }
 
                 if (dp != null) {
@@ -239,6 +244,16 @@ public abstract class MieleApplianceHandler<E extends Enum<E> & ApplianceChannel
         }
     }
 
+    private DeviceMetaData parseMetaData(JsonObject metadata) {
+        DeviceMetaData dmd = gson.fromJson(metadata, DeviceMetaData.class);
+        // the enum is named 'enum' in the JSON data, which is a reserved word in Java
+        JsonElement mieleEnum = metadata.get("enum");
+        if (mieleEnum != null && mieleEnum.isJsonObject()) {
+            dmd.MieleEnum = mieleEnum.getAsJsonObject();
+        }
+        return dmd;
+    }
+
     @Override
     public void onApplianceRemoved(HomeDevice appliance) {
         if (UID != null) {
@@ -266,7 +281,7 @@ public abstract class MieleApplianceHandler<E extends Enum<E> & ApplianceChannel
             ThingHandler handler = bridge.getHandler();
             if (handler instanceof MieleBridgeHandler) {
                 this.bridgeHandler = (MieleBridgeHandler) handler;
-                this.bridgeHandler.registerApplianceStatusListener(this);
+                this.bridgeHandler.registerApplianceStatusListener(UID, this);
             } else {
                 return null;
             }
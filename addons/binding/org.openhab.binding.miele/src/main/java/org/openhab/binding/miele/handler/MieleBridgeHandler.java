@@ -23,20 +23,26 @@ import java.net.MalformedURLException;
 import java.net.MulticastSocket;
 import java.net.URL;
 import java.net.UnknownHostException;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 import java.util.zip.GZIPInputStream;
 
-import org.apache.commons.lang.StringUtils;
 import org.eclipse.smarthome.core.thing.Bridge;
 import org.eclipse.smarthome.core.thing.ChannelUID;
 import org.eclipse.smarthome.core.thing.Thing;
@@ -66,6 +72,8 @@ public class MieleBridgeHandler extends BaseBridgeHandler {
 
     public final static Set<ThingTypeUID> SUPPORTED_THING_TYPES = Collections.singleton(THING_TYPE_XGW3000);
 
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
     private static final Pattern IP_PATTERN = Pattern
             .compile("^(([01]?\\d\\d?|2[0-4]\\d|25[0-5])\\.){3}([01]?\\d\\d?|2[0-4]\\d|25[0-5])$");
 
@@ -73,18 +81,23 @@ public class MieleBridgeHandler extends BaseBridgeHandler {
     protected final int JSON_RPC_PORT = 2810;
     protected final String JSON_RPC_MULTICAST_IP1 = "239.255.68.139";
     protected final String JSON_RPC_MULTICAST_IP2 = "224.255.68.139";
+    protected final int POLLING_THREADS = 4;
+    protected final String ZIGBEE_PREFIX = "hdm:ZigBee:";
+    protected final String[] HOME_DEVICES_FILTER = new String[] { "(type=SuperVision)" };
     private boolean lastBridgeConnectionState = false;
-    private boolean currentBridgeConnectionState = false;
 
     protected Random rand = new Random();
     protected Gson gson = new Gson();
     protected Logger logger = LoggerFactory.getLogger(MieleBridgeHandler.class);
 
     protected List<ApplianceStatusListener> applianceStatusListeners = new CopyOnWriteArrayList<>();
+    // the listeners of the appliance things, by appliance id
+    protected ConcurrentMap<String, ApplianceStatusListener> applianceListeners = new ConcurrentHashMap<>();
     protected ScheduledFuture<?> pollingJob;
     protected ScheduledFuture<?> eventListenerJob;
+    protected ExecutorService pollingExecutor;
 
-    protected List<HomeDevice> previousHomeDevices = new CopyOnWriteArrayList<HomeDevice>();
+    protected Map<String, HomeDevice> previousHomeDevices = new LinkedHashMap<String, HomeDevice>();
 
     protected URL url;
     protected Map<String, String> headers;
@@ -137,7 +150,7 @@ public class MieleBridgeHandler extends BaseBridgeHandler {
         }
     }
 
-    public class DeviceMetaData {
+    public static class DeviceMetaData {
         public String Filter;
         public String description;
         public String LocalizedID;
@@ -188,86 +201,54 @@ public class MieleBridgeHandler extends BaseBridgeHandler {
         public void run() {
             if (IP_PATTERN.matcher((String) getConfig().get(HOST)).matches()) {
                 try {
-                    if (isReachable((String) getConfig().get(HOST))) {
-                        currentBridgeConnectionState = true;
-                    } else {
-                        currentBridgeConnectionState = false;
+                    long start = System.currentTimeMillis();
+
+                    // the list of home devices doubles as reachability check, if there is no connection it fails
+                    JsonElement result = invokeRPC("HDAccess/getHomeDevices", HOME_DEVICES_FILTER);
+                    if (result == null) {
+                        logger.debug("{} is not reachable", getConfig().get(HOST));
                         if (lastBridgeConnectionState) {
                             lastBridgeConnectionState = false;
                             onConnectionLost();
                         }
+                        return;
                     }
 
-                    if (!lastBridgeConnectionState && currentBridgeConnectionState) {
+                    if (!lastBridgeConnectionState) {
                         logger.debug("Connection to Miele Gateway {} established.", getConfig().get(HOST));
                         lastBridgeConnectionState = true;
                         onConnectionResumed();
                     }
 
-                    if (currentBridgeConnectionState) {
-                        if (getThing().getStatus() == ThingStatus.ONLINE) {
-                            List<HomeDevice> currentHomeDevices = getHomeDevices();
-                            for (HomeDevice hd : currentHomeDevices) {
-                                boolean isExisting = false;
-                                for (HomeDevice phd : previousHomeDevices) {
-                                    if (phd.UID.equals(hd.UID)) {
-                                        isExisting = true;
-                                        break;
-                                    }
-                                }
-                                if (!isExisting) {
-                                    logger.info("A new appliance with ID '{}' has been added", hd.UID);
-                                    for (ApplianceStatusListener listener : applianceStatusListeners) {
-                                        listener.onApplianceAdded(hd);
-                                    }
-                                }
-                            }
+                    if (getThing().getStatus() == ThingStatus.ONLINE) {
+                        Map<String, HomeDevice> currentHomeDevices = new LinkedHashMap<String, HomeDevice>();
+                        for (HomeDevice hd : parseHomeDevices(result)) {
+                            currentHomeDevices.put(hd.UID, hd);
+                        }
 
-                            for (HomeDevice hd : previousHomeDevices) {
-                                boolean isCurrent = false;
-                                for (HomeDevice chd : currentHomeDevices) {
-                                    if (chd.UID.equals(hd.UID)) {
-                                        isCurrent = true;
-                                        break;
-                                    }
-                                }
-                                if (!isCurrent) {
-                                    logger.info("The appliance with ID '{}' has been removed", hd);
-                                    for (ApplianceStatusListener listener : applianceStatusListeners) {
-                                        listener.onApplianceRemoved(hd);
-                                    }
+                        for (HomeDevice hd : currentHomeDevices.values()) {
+                            if (!previousHomeDevices.containsKey(hd.UID)) {
+                                logger.info("A new appliance with ID '{}' has been added", hd.UID);
+                                for (ApplianceStatusListener listener : applianceStatusListeners) {
+                                    listener.onApplianceAdded(hd);
                                 }
                             }
+                        }
 
-                            previousHomeDevices = currentHomeDevices;
-
-                            for (Thing appliance : getThing().getThings()) {
-                                if (appliance.getStatus() == ThingStatus.ONLINE) {
-                                    String UID = "hdm:ZigBee:"
-                                            + (String) appliance.getConfiguration().getProperties().get(APPLIANCE_ID);
-
-                                    Object[] args = new Object[2];
-                                    args[0] = UID;
-                                    args[1] = true;
-                                    JsonElement result = invokeRPC("HDAccess/getDeviceClassObjects", args);
-
-                                    if (result != null) {
-                                        for (JsonElement obj : result.getAsJsonArray()) {
-                                            try {
-                                                DeviceClassObject dco = gson.fromJson(obj, DeviceClassObject.class);
-
-                                                for (ApplianceStatusListener listener : applianceStatusListeners) {
-                                                    listener.onApplianceStateChanged(UID, dco);
-                                                }
-                                            } catch (Exception e) {
-                                                logger.error("An exception occurred while quering an appliance : '{}'",
-                                                        e.getMessage());
-                                            }
-                                        }
-                                    }
+                        for (HomeDevice hd : previousHomeDevices.values()) {
+                            if (!currentHomeDevices.containsKey(hd.UID)) {
+                                logger.info("The appliance with ID '{}' has been removed", hd);
+                                for (ApplianceStatusListener listener : applianceStatusListeners) {
+                                    listener.onApplianceRemoved(hd);
                                 }
                             }
                         }
+
+                        previousHomeDevices = currentHomeDevices;
+
+                        int polled = pollAppliances();
+                        logger.debug("Polled {} appliances of Miele Gateway {} in {} ms",
+                                new Object[] { polled, getConfig().get(HOST), System.currentTimeMillis() - start });
                     }
 
                 } catch (Exception e) {
@@ -277,27 +258,57 @@ public class MieleBridgeHandler extends BaseBridgeHandler {
                 logger.error("Invalid IP address for the Miele@Home gateway : '{}'", getConfig().get(HOST));
             }
         }
+    };
 
-        private boolean isReachable(String ipAddress) {
-            try {
-                // note that InetAddress.isReachable is unreliable, see
-                // http://stackoverflow.com/questions/9922543/why-does-inetaddress-isreachable-return-false-when-i-can-ping-the-ip-address
-                // That's why we do an HTTP access instead
-
-                // If there is no connection, this line will fail
-                JsonElement result = invokeRPC("system.listMethods", null);
-                if (result == null) {
-                    logger.debug("{} is not reachable", ipAddress);
-                    return false;
+    /**
+     * Requests the state of all online appliances concurrently, and passes it to the listener of each appliance.
+     *
+     * @return the number of appliances which have been polled
+     */
+    private int pollAppliances() throws InterruptedException {
+        List<Callable<Void>> requests = new ArrayList<Callable<Void>>();
+
+        for (Thing appliance : getThing().getThings()) {
+            if (appliance.getStatus() == ThingStatus.ONLINE) {
+                final String applianceId = (String) appliance.getConfiguration().getProperties().get(APPLIANCE_ID);
+                final ApplianceStatusListener listener = applianceListeners.get(applianceId);
+                if (listener == null) {
+                    continue;
                 }
-            } catch (Exception e) {
-                return false;
+
+                requests.add(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        String UID = ZIGBEE_PREFIX + applianceId;
+
+                        Object[] args = new Object[2];
+                        args[0] = UID;
+                        args[1] = true;
+                        JsonElement result = invokeRPC("HDAccess/getDeviceClassObjects", args);
+
+                        if (result != null) {
+                            for (JsonElement obj : result.getAsJsonArray()) {
+                                try {
+                                    DeviceClassObject dco = gson.fromJson(obj, DeviceClassObject.class);
+                                    listener.onApplianceStateChanged(UID, dco);
+                                } catch (Exception e) {
+                                    logger.error("An exception occurred while quering an appliance : '{}'",
+                                            e.getMessage());
+                                }
+                            }
+                        }
+                        return null;
+                    }
+                });
             }
+        }
 
-            logger.debug("{} is reachable", ipAddress);
-            return true;
+        ExecutorService executor = pollingExecutor;
+        if (executor != null && !requests.isEmpty()) {
+            executor.invokeAll(requests);
         }
-    };
+        return requests.size();
+    }
 
     public List<HomeDevice> getHomeDevices() {
 
@@ -305,14 +316,8 @@ public class MieleBridgeHandler extends BaseBridgeHandler {
 
         if (getThing().getStatus() == ThingStatus.ONLINE) {
             try {
-                String[] args = new String[1];
-                args[0] = "(type=SuperVision)";
-                JsonElement result = invokeRPC("HDAccess/getHomeDevices", args);
-
-                for (JsonElement obj : result.getAsJsonArray()) {
-                    HomeDevice hd = gson.fromJson(obj, HomeDevice.class);
-                    devices.add(hd);
-                }
+                JsonElement result = invokeRPC("HDAccess/getHomeDevices", HOME_DEVICES_FILTER);
+                devices = parseHomeDevices(result);
             } catch (Exception e) {
                 logger.error("An exception occurred while getting the home devices :'{}'", e.getMessage());
             }
@@ -320,6 +325,15 @@ public class MieleBridgeHandler extends BaseBridgeHandler {
         return devices;
     }
 
+    private List<HomeDevice> parseHomeDevices(JsonElement result) {
+        List<HomeDevice> devices = new ArrayList<HomeDevice>();
+        for (JsonElement obj : result.getAsJsonArray()) {
+            HomeDevice hd = gson.fromJson(obj, HomeDevice.class);
+            devices.add(hd);
+        }
+        return devices;
+    }
+
     private Runnable eventListenerRunnable = new Runnable() {
 
         @Override
@@ -338,6 +352,7 @@ public class MieleBridgeHandler extends BaseBridgeHandler {
                     }
 
                     byte[] buf = new byte[256];
+                    DatagramPacket packet = new DatagramPacket(buf, buf.length);
                     MulticastSocket clientSocket = null;
 
                     while (true) {
@@ -349,38 +364,25 @@ public class MieleBridgeHandler extends BaseBridgeHandler {
                             clientSocket.joinGroup(address2);
 
                             while (true) {
-                                buf = new byte[256];
-                                DatagramPacket packet = new DatagramPacket(buf, buf.length);
+                                packet.setLength(buf.length);
                                 clientSocket.receive(packet);
 
-                                String event = new String(packet.getData());
-                                logger.debug("Received a multicast event '{}' from '{}:{}'",
-                                        new Object[] { event, packet.getAddress(), packet.getPort() });
+                                if (logger.isDebugEnabled()) {
+                                    logger.debug("Received a multicast event '{}' from '{}:{}'",
+                                            new Object[] { new String(buf, 0, packet.getLength(), UTF_8),
+                                                    packet.getAddress(), packet.getPort() });
+                                }
 
                                 DeviceProperty dp = new DeviceProperty();
-                                String uid = null;
-
-                                String[] parts = StringUtils.split(event, "&");
-                                for (String p : parts) {
-                                    String[] subparts = StringUtils.split(p, "=");
-                                    switch (subparts[0]) {
-                                        case "property": {
-                                            dp.Name = subparts[1];
-                                            break;
-                                        }
-                                        case "value": {
-                                            dp.Value = subparts[1];
-                                            break;
-                                        }
-                                        case "id": {
-                                            uid = subparts[1];
-                                            break;
-                                        }
-                                    }
-                                }
+                                String uid = decodeEvent(buf, packet.getLength(), dp);
 
-                                for (ApplianceStatusListener listener : applianceStatusListeners) {
+                                // only the handler of the appliance is interested in its events
+                                ApplianceStatusListener listener = uid != null && uid.startsWith(ZIGBEE_PREFIX)
+                                        ? applianceListeners.get(uid.substring(ZIGBEE_PREFIX.length())) : null;
+                                if (listener != null) {
                                     listener.onAppliancePropertyChanged(uid, dp);
+                                } else {
+                                    logger.trace("No handler for the multicast event of appliance '{}'", uid);
                                 }
                             }
                         } catch (Exception ex) {
@@ -409,6 +411,54 @@ public class MieleBridgeHandler extends BaseBridgeHandler {
         }
     };
 
+    /**
+     * Decodes an event of the form 'id=...&property=...&value=...' in place.
+     *
+     * @param dp the property to set the name and value of
+     * @return the UID of the appliance, or null if the event does not contain it
+     */
+    protected String decodeEvent(byte[] buf, int length, DeviceProperty dp) {
+        String uid = null;
+        int start = 0;
+        while (start < length) {
+            int end = start;
+            int separator = -1;
+            while (end < length && buf[end] != '&' && buf[end] != 0) {
+                if (separator < 0 && buf[end] == '=') {
+                    separator = end;
+                }
+                end++;
+            }
+            if (separator > start) {
+                String value = new String(buf, separator + 1, end - separator - 1, UTF_8);
+                if (matches(buf, start, separator, "property")) {
+                    dp.Name = value;
+                } else if (matches(buf, start, separator, "value")) {
+                    dp.Value = value;
+                } else if (matches(buf, start, separator, "id")) {
+                    uid = value;
+                }
+            }
+            if (end < length && buf[end] == 0) {
+                break;
+            }
+            start = end + 1;
+        }
+        return uid;
+    }
+
+    private static boolean matches(byte[] buf, int start, int end, String key) {
+        if (end - start != key.length()) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (buf[start + i] != key.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public JsonElement invokeOperation(String UID, String modelID, String methodName) {
         if (getThing().getStatus() == ThingStatus.ONLINE) {
             Object[] args = new Object[4];
@@ -541,6 +591,9 @@ public class MieleBridgeHandler extends BaseBridgeHandler {
     }
 
     private synchronized void onUpdate() {
+        if (pollingExecutor == null) {
+            pollingExecutor = Executors.newFixedThreadPool(POLLING_THREADS);
+        }
         logger.debug("Scheduling the Miele polling job");
         if (pollingJob == null || pollingJob.isCancelled()) {
             logger.trace("Scheduling the Miele polling job period is {}", POLLING_PERIOD);
@@ -593,6 +646,29 @@ public class MieleBridgeHandler extends BaseBridgeHandler {
         return result;
     }
 
+    /**
+     * Registers the listener of an appliance, which receives the state changes of that appliance only.
+     *
+     * @param applianceId the id of the appliance, without the 'hdm:ZigBee:' prefix
+     */
+    public boolean registerApplianceStatusListener(String applianceId,
+            ApplianceStatusListener applianceStatusListener) {
+        if (applianceId == null) {
+            throw new NullPointerException("It's not allowed to pass a null appliance id.");
+        }
+        boolean result = registerApplianceStatusListener(applianceStatusListener);
+        if (result) {
+            applianceListeners.put(applianceId, applianceStatusListener);
+        }
+        return result;
+    }
+
+    public boolean unregisterApplianceStatusListener(String applianceId,
+            ApplianceStatusListener applianceStatusListener) {
+        applianceListeners.remove(applianceId, applianceStatusListener);
+        return unregisterApplianceStatusListener(applianceStatusListener);
+    }
+
     public boolean unregisterApplianceStatusListener(ApplianceStatusListener applianceStatusListener) {
         boolean result = applianceStatusListeners.remove(applianceStatusListener);
         if (result && isInitialized()) {
@@ -617,5 +693,11 @@ public class MieleBridgeHandler extends BaseBridgeHandler {
             pollingJob.cancel(true);
             pollingJob = null;
         }
+        synchronized (this) {
+            if (pollingExecutor != null) {
+                pollingExecutor.shutdownNow();
+                pollingExecutor = null;
+            }
+        }
     }
 }
@@ -184,6 +184,10 @@ public class MilightBridgeHandler extends BaseBridgeHandler implements DiscoverR
         if (discover != null) {
             discover.stopReceiving();
         }
+        if (com != null) {
+            com.dispose();
+            com = null;
+        }
     }
 
     /**
@@ -202,11 +206,19 @@ public class MilightBridgeHandler extends BaseBridgeHandler implements DiscoverR
             return;
         }
 
-        try {
-            com = new MilightCommunication(addr, port_config.intValue(), id);
-        } catch (SocketException e) {
-            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR, e.getLocalizedMessage());
-            return;
+        // Keep the communication object of a bridge detected again, so its queued packets are not dropped.
+        // The bulb handlers fetch the current communication object for each command.
+        if (com == null || !com.getAddr().equals(addr) || com.getPort() != port_config.intValue()
+                || !id.equals(com.getBridgeId())) {
+            if (com != null) {
+                com.dispose();
+            }
+            try {
+                com = new MilightCommunication(addr, port_config.intValue(), id);
+            } catch (SocketException e) {
+                updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR, e.getLocalizedMessage());
+                return;
+            }
         }
 
         // A bridge may be connected/paired to white/rgbw/rgb bulbs. Unfortunately the bridge does
@@ -19,6 +19,7 @@ import org.eclipse.smarthome.core.thing.binding.BaseThingHandler;
 import org.eclipse.smarthome.core.types.Command;
 import org.openhab.binding.milight.MilightBindingConstants;
 import org.openhab.binding.milight.internal.MilightThingState;
+import org.openhab.binding.milight.internal.protocol.MilightCommunication;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -45,6 +46,16 @@ public class MilightLedHandler extends BaseThingHandler {
             return;
         }
 
+        // Always use the current communication object of the bridge, it is replaced when the bridge changes
+        MilightBridgeHandler brHandler = (getBridge() == null) ? null
+                : (MilightBridgeHandler) getBridge().getHandler();
+        MilightCommunication com = (brHandler == null) ? null : brHandler.getCommunication();
+        if (com == null) {
+            logger.debug("Bridge of bulb '{}' is not available", bulbid);
+            return;
+        }
+        state.setCommunication(com);
+
         switch (channelUID.getId()) {
             case MilightBindingConstants.CHANNEL_COLOR: {
                 if (command instanceof HSBType) {
@@ -40,7 +40,7 @@ public class MilightThingState {
      * The channel number under which the bulb is filed in the Mi-Light bridge.
      */
     private final int bulb;
-    private final MilightCommunication com;
+    private MilightCommunication com;
 
     private int brightness, discoSpeed, discoMode;
     private int colorTemperature; // only for white leds applicable
@@ -51,6 +51,14 @@ public class MilightThingState {
         this.com = com;
     }
 
+    /**
+     * Sets the communication object of the bridge, which is replaced when the bridge is detected at another
+     * address or configured otherwise.
+     */
+    public void setCommunication(MilightCommunication com) {
+        this.com = com;
+    }
+
     /**
      * @return The deviceId that has been declared in the binding
      *         configuration.
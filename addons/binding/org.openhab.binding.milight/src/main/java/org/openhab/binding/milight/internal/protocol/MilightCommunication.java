@@ -12,6 +12,10 @@ import java.net.DatagramPacket;
 import java.net.DatagramSocket;
 import java.net.InetAddress;
 import java.net.SocketException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 
 import org.eclipse.smarthome.core.library.types.PercentType;
 import org.openhab.binding.milight.internal.MilightThingState;
@@ -27,6 +31,11 @@ import org.slf4j.LoggerFactory;
  * <li>Change the RGB values of a bulb.</li>
  * </ul>
  * The class is state-less, use {@link MilightThingState} instead.
+ * <p>
+ * Packets are not sent by the calling thread, but queued per bridge and sent by a transmitter thread,
+ * which keeps the required pause between the packets of multi-packet commands. Brightness changes
+ * which are sent as a sequence of steps are queued once per bulb: a new brightness for a bulb which
+ * is still being dimmed only changes the target of the pending steps.
  *
  * @author David Gräff - Converted to pure Communication/Protocol implementation class
  * @author Hans-Joerg Merk
@@ -37,88 +46,211 @@ public class MilightCommunication {
 
     private static final Logger logger = LoggerFactory.getLogger(MilightCommunication.class);
 
+    private static final double WHITE_STEP_SIZE = 9.090909090909091;
+    private static final byte[] WHITE_INCREASE = { 0x3C, 0x00, 0x55 };
+    private static final byte[] WHITE_DECREASE = { 0x34, 0x00, 0x55 };
+    private static final byte[] RGB_INCREASE = { 0x23, 0x00, 0x55 };
+    private static final byte[] RGB_DECREASE = { 0x24, 0x00, 0x55 };
+
     private final String bridgeId;
     final int rgbwSteps = 27;
     final DatagramPacket packet;
     final DatagramSocket datagramSocket;
 
+    private final BlockingQueue<Transmission> queue = new LinkedBlockingQueue<>();
+    // brightness changes which are queued or being sent, by bulb
+    private final Map<Integer, Dimming> pendingDimmings = new HashMap<>();
+    private final Thread transmitter;
+    private long lastSent = 0;
+    // guarded by queue
+    private boolean disposed = false;
+
     public MilightCommunication(InetAddress addr, int port, String bridgeId) throws SocketException {
         this.bridgeId = bridgeId;
         byte[] a = new byte[0];
         packet = new DatagramPacket(a, a.length, addr, port);
         datagramSocket = new DatagramSocket();
+
+        transmitter = new Thread("Milight transmitter " + addr.getHostAddress()) {
+            @Override
+            public void run() {
+                transmit();
+            }
+        };
+        transmitter.setDaemon(true);
+        transmitter.start();
     }
 
-    private void sleep(int ms) {
-        try {
-            Thread.sleep(ms);
-        } catch (InterruptedException e) {
+    /**
+     * Discards all queued packets and stops the transmitter thread. Packets sent afterwards are dropped.
+     */
+    public void dispose() {
+        synchronized (queue) {
+            disposed = true;
+            queue.clear();
         }
+        transmitter.interrupt();
+        datagramSocket.close();
     }
 
-    public int setBrightness(int bulb, int value, int oldPercent) {
-        if (value == 0) {
-            return setOff(bulb);
-        } else if (value == 100) {
-            return setFull(bulb);
+    private abstract class Transmission {
+        abstract void send() throws InterruptedException;
+    }
+
+    private class Message extends Transmission {
+        private final String messageBytes;
+        private final byte[] buffer;
+
+        private Message(String messageBytes, byte[] buffer) {
+            this.messageBytes = messageBytes;
+            this.buffer = buffer;
         }
 
-        // White Bulbs: 10 levels of brightness + Off.
-        if (bulb < 5) {
-            double stepSize = 9.090909090909091;
+        @Override
+        void send() {
+            sendPacket(messageBytes, buffer);
+        }
+    }
 
-            // Assume lowest brightness level (about 9%) if just powered on.
-            if (oldPercent == 0) {
-                oldPercent = 9;
-            }
+    /**
+     * Delays the next packet until the given time has passed since the last one.
+     */
+    private class Pause extends Transmission {
+        private final int millis;
 
-            int repeatCount = Math.abs((int) Math.round(value / stepSize) - (int) Math.round(oldPercent / stepSize));
-            logger.debug("milight: dim from '{}' with command '{}' via '{}' steps.", String.valueOf(oldPercent),
-                    String.valueOf(value), repeatCount);
-            if (value > oldPercent) {
-                for (int i = 0; i < repeatCount; i++) {
-                    sleep(50);
-                    increaseBrightness(bulb, -1);
-                }
-            } else if (value < oldPercent) {
-                for (int i = 0; i < repeatCount; i++) {
-                    sleep(50);
-                    decreaseBrightness(bulb, -1);
+        private Pause(int millis) {
+            this.millis = millis;
+        }
+
+        @Override
+        void send() throws InterruptedException {
+            awaitPause(millis);
+        }
+    }
+
+    /**
+     * Dims a bulb step by step to the latest requested brightness.
+     */
+    private class Dimming extends Transmission {
+        private final int bulb;
+        private int level;
+        private boolean sent = false;
+
+        // guarded by pendingDimmings
+        private int target;
+        private boolean cancelled = false;
+
+        private Dimming(int bulb, int level, int target) {
+            this.bulb = bulb;
+            this.level = level;
+            this.target = target;
+        }
+
+        @Override
+        void send() throws InterruptedException {
+            while (true) {
+                int target;
+                synchronized (pendingDimmings) {
+                    target = this.target;
+                    if (cancelled) {
+                        return;
+                    }
+                    if (isReached(target)) {
+                        pendingDimmings.remove(bulb);
+                        return;
+                    }
                 }
+                step(target);
             }
-            // Old RGB Bulbs: 9 levels of brightness + Off.
-        } else if (bulb == 5) {
-            if (value > oldPercent) {
-                int repeatCount = (value - oldPercent) / 10;
-                for (int i = 0; i < repeatCount; i++) {
-                    sleep(100);
-                    increaseBrightness(bulb, -1);
+        }
+
+        private boolean isReached(int target) {
+            if (bulb < 5) {
+                // White Bulbs: 10 levels of brightness + Off.
+                return Math.round(target / WHITE_STEP_SIZE) == Math.round(level / WHITE_STEP_SIZE);
+            } else if (bulb == 5) {
+                // Old RGB Bulbs: 9 levels of brightness + Off.
+                return Math.abs(target - level) < 10;
+            } else {
+                // RGBW Bulbs: the brightness is set directly.
+                return sent && target == level;
+            }
+        }
 
+        private void step(int target) throws InterruptedException {
+            if (bulb < 5) {
+                long steps = Math.round(level / WHITE_STEP_SIZE);
+                awaitPause(50);
+                if (target > level) {
+                    sendPacket("3C:00:55", WHITE_INCREASE);
+                    steps++;
+                } else {
+                    sendPacket("34:00:55", WHITE_DECREASE);
+                    steps--;
                 }
-            } else if (value < oldPercent) {
-                int repeatCount = (oldPercent - value) / 10;
-                for (int i = 0; i < repeatCount; i++) {
-                    sleep(100);
-                    decreaseBrightness(bulb, -1);
+                level = (int) Math.round(steps * WHITE_STEP_SIZE);
+            } else if (bulb == 5) {
+                awaitPause(100);
+                if (target > level) {
+                    sendPacket("23:00:55", RGB_INCREASE);
+                    level += 10;
+                } else {
+                    sendPacket("24:00:55", RGB_DECREASE);
+                    level -= 10;
                 }
-            }
-            // RGBW Bulbs:
-        } else if (bulb > 5) {
-            if (value > 0 && value < 100) {
-                int newCommand = (value * (rgbwSteps - 2) / 100 + 2);
-                sleep(100);
+            } else {
+                int newCommand = (target * (rgbwSteps - 2) / 100 + 2);
+                awaitPause(100);
                 String messageBytes = "4E:" + Integer.toHexString(newCommand) + ":55";
                 logger.debug("milight: send dimming packet '{}' to RGBW bulb channel '{}'", messageBytes, bulb);
-                sendMessage(messageBytes);
-            } else if (value > 99) {
-                value = setFull(bulb);
-            } else if (value < 1) {
-                value = setOff(bulb);
+                sendPacket(messageBytes, getMessageBytes(messageBytes));
+                level = target;
+                sent = true;
+            }
+        }
+    }
+
+    public int setBrightness(int bulb, int value, int oldPercent) {
+        if (value <= 0) {
+            return setOff(bulb);
+        } else if (value >= 100) {
+            return setFull(bulb);
+        }
+
+        // Assume lowest brightness level (about 9%) of white bulbs if just powered on.
+        if (bulb < 5 && oldPercent == 0) {
+            oldPercent = 9;
+        }
+
+        synchronized (pendingDimmings) {
+            Dimming dimming = pendingDimmings.get(bulb);
+            if (dimming != null) {
+                logger.debug("milight: change dim target of bulb '{}' from '{}' to '{}'",
+                        new Object[] { bulb, dimming.target, value });
+                dimming.target = value;
+            } else {
+                logger.debug("milight: dim bulb '{}' from '{}' to '{}'", new Object[] { bulb, oldPercent, value });
+                dimming = new Dimming(bulb, oldPercent, value);
+                if (enqueue(dimming)) {
+                    pendingDimmings.put(bulb, dimming);
+                }
             }
         }
         return value;
     }
 
+    /**
+     * Stops dimming the bulb, because its brightness is set otherwise.
+     */
+    private void cancelDimming(int bulb) {
+        synchronized (pendingDimmings) {
+            Dimming dimming = pendingDimmings.remove(bulb);
+            if (dimming != null) {
+                dimming.cancelled = true;
+            }
+        }
+    }
+
     public int setDiscoSpeed(int bulb, int value, int oldPercent) {
         // Make sure lights are on and engage current bulb via a preceding ON command:
         setOn(bulb);
@@ -130,13 +262,13 @@ public class MilightCommunication {
         if (value > oldPercent) {
             int repeatCount = (value - oldPercent) / 10;
             for (int i = 0; i < repeatCount; i++) {
-                sleep(100);
+                queuePause(100);
                 increaseSpeed(bulb);
             }
         } else if (value < oldPercent) {
             int repeatCount = (oldPercent - value) / 10;
             for (int i = 0; i < repeatCount; i++) {
-                sleep(100);
+                queuePause(100);
                 decreaseSpeed(bulb);
             }
         }
@@ -155,13 +287,13 @@ public class MilightCommunication {
         if (value > oldPercent) {
             int repeatCount = (value - oldPercent) / 10;
             for (int i = 0; i < repeatCount; i++) {
-                sleep(100);
+                queuePause(100);
                 nextDiscoMode(bulb, oldPercent);
             }
         } else if (value < oldPercent) {
             int repeatCount = (oldPercent - value) / 10;
             for (int i = 0; i < repeatCount; i++) {
-                sleep(100);
+                queuePause(100);
                 previousDiscoMode(bulb, oldPercent);
             }
         }
@@ -186,12 +318,12 @@ public class MilightCommunication {
             logger.debug("milight: dim from '{}' with command '{}' via '{}' steps.", oldPercent, value, repeatCount);
             if (value > oldPercent) {
                 for (int i = 0; i < repeatCount; i++) {
-                    sleep(50);
+                    queuePause(50);
                     warmer(bulb, -1);
                 }
             } else if (value < oldPercent) {
                 for (int i = 0; i < repeatCount; i++) {
-                    sleep(50);
+                    queuePause(50);
                     cooler(bulb, -1);
                 }
             }
@@ -200,13 +332,13 @@ public class MilightCommunication {
             if (value > oldPercent) {
                 int repeatCount = (value - oldPercent) / 10;
                 for (int i = 0; i < repeatCount; i++) {
-                    sleep(100);
+                    queuePause(100);
                     warmer(bulb, -1);
                 }
             } else if (value < oldPercent) {
                 int repeatCount = (oldPercent - value) / 10;
                 for (int i = 0; i < repeatCount; i++) {
-                    sleep(100);
+                    queuePause(100);
                     cooler(bulb, -1);
                 }
             }
@@ -234,7 +366,7 @@ public class MilightCommunication {
         int currentPercent = oldPercent;
         if (currentPercent == 0) {
             setOn(bulb);
-            sleep(100);
+            queuePause(100);
         }
         int newPercent = currentPercent + 10;
         if (newPercent > 100) {
@@ -429,12 +561,8 @@ public class MilightCommunication {
 
         // nightMode for RGBW bulbs requires second message 100ms later.
         if (bulb >= 6 && bulb <= 10) {
-            try {
-                Thread.sleep(100);
-                sendMessage(messageBytes2);
-            } catch (InterruptedException e) {
-                logger.debug("Sleeping thread has been interrupted.");
-            }
+            queuePause(100);
+            sendMessage(messageBytes2);
         }
 
     }
@@ -469,6 +597,7 @@ public class MilightCommunication {
 
     public int setFull(int bulb) {
         logger.debug("milight: sendFull");
+        cancelDimming(bulb);
         String messageBytes = null;
         switch (bulb) {
             case 0:
@@ -496,14 +625,10 @@ public class MilightCommunication {
             case 8:
             case 9:
             case 10:
-                try {
-                    setOn(bulb);
-                    Thread.sleep(100);
-                    messageBytes = "4E:" + Integer.toHexString(rgbwSteps) + ":55";
-                    logger.debug("Bulb '{}' set to '{}' dimming Steps", bulb, rgbwSteps);
-                } catch (InterruptedException e) {
-                    logger.debug("Sleeping thread has been interrupted.");
-                }
+                setOn(bulb);
+                queuePause(100);
+                messageBytes = "4E:" + Integer.toHexString(rgbwSteps) + ":55";
+                logger.debug("Bulb '{}' set to '{}' dimming Steps", bulb, rgbwSteps);
                 break;
         }
         sendMessage(messageBytes);
@@ -564,6 +689,7 @@ public class MilightCommunication {
 
     public int setOff(int bulb) {
         logger.debug("milight: sendOff");
+        cancelDimming(bulb);
         String messageBytes = null;
         switch (bulb) {
             case 0:
@@ -615,7 +741,7 @@ public class MilightCommunication {
         if (bulb < 5) {
             for (int i = 0; i < 10; i++) {
                 decreaseBrightness(bulb, 100);
-                sleep(50);
+                queuePause(50);
             }
         }
         sendMessage(messageBytes);
@@ -638,14 +764,58 @@ public class MilightCommunication {
         }
         if (bulb > 5) {
             setOn(bulb);
-            sleep(50);
+            queuePause(50);
             String messageBytes = "40:" + Integer.toHexString(milightColorNo) + ":55";
             sendMessage(messageBytes);
         }
     }
 
+    /**
+     * Queues a packet, it is sent by the transmitter thread.
+     */
     protected void sendMessage(String messageBytes) {
         byte[] buffer = getMessageBytes(messageBytes);
+        if (buffer != null) {
+            enqueue(new Message(messageBytes, buffer));
+        }
+    }
+
+    /**
+     * Queues a pause, the next packet is sent not before the given time has passed since the previous one.
+     */
+    private void queuePause(int millis) {
+        enqueue(new Pause(millis));
+    }
+
+    private boolean enqueue(Transmission transmission) {
+        synchronized (queue) {
+            if (disposed) {
+                logger.debug("Dropping a packet for bridge '{}', its communication has been disposed", bridgeId);
+                return false;
+            }
+            queue.add(transmission);
+            return true;
+        }
+    }
+
+    private void transmit() {
+        try {
+            while (!datagramSocket.isClosed()) {
+                queue.take().send();
+            }
+        } catch (InterruptedException e) {
+            logger.debug("Transmitter for bridge '{}' stopped", getBridgeId());
+        }
+    }
+
+    private void awaitPause(int millis) throws InterruptedException {
+        long remaining = lastSent + millis - System.currentTimeMillis();
+        if (remaining > 0) {
+            Thread.sleep(remaining);
+        }
+    }
+
+    private void sendPacket(String messageBytes, byte[] buffer) {
         packet.setData(buffer);
         try {
             datagramSocket.send(packet);
@@ -655,6 +825,7 @@ public class MilightCommunication {
             logger.error("Failed to send Message to '{}': ",
                     new Object[] { packet.getAddress().getHostAddress(), e.getMessage() });
         }
+        lastSent = System.currentTimeMillis();
     }
 
     private byte[] getMessageBytes(String messageBytes) {
@@ -9,15 +9,25 @@
 package org.openhab.binding.netatmo.handler;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.oltu.oauth2.client.request.OAuthClientRequest;
 import org.eclipse.smarthome.core.thing.Bridge;
 import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.thing.Thing;
 import org.eclipse.smarthome.core.thing.ThingStatus;
 import org.eclipse.smarthome.core.thing.ThingStatusDetail;
 import org.eclipse.smarthome.core.thing.binding.BaseBridgeHandler;
+import org.eclipse.smarthome.core.thing.binding.ThingHandler;
 import org.eclipse.smarthome.core.types.Command;
 import org.openhab.binding.netatmo.config.NetatmoBridgeConfiguration;
+import org.openhab.binding.netatmo.internal.NADeviceAdapter;
+import org.openhab.binding.netatmo.internal.NAPlugAdapter;
+import org.openhab.binding.netatmo.internal.NAStationAdapter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -27,6 +37,8 @@ import io.swagger.client.api.StationApi;
 import io.swagger.client.api.ThermostatApi;
 import io.swagger.client.auth.OAuth;
 import io.swagger.client.auth.OAuthFlow;
+import io.swagger.client.model.NAMain;
+import io.swagger.client.model.NAPlug;
 import io.swagger.client.model.NAStationDataBody;
 import io.swagger.client.model.NAThermostatDataBody;
 import retrofit.RestAdapter.LogLevel;
@@ -37,6 +49,11 @@ import retrofit.RetrofitError;
  * to the framework. The devices and modules uses the
  * {@link NetatmoBridgeHandler} to request informations about their status
  *
+ * The bridge fetches the data of all stations and of all thermostats with one
+ * API call each, and hands it to the device handlers. The next fetch is timed
+ * for the next upload of measurements to Netatmo, which happens about every
+ * 10 minutes, but not later than the shortest refresh interval of the devices.
+ *
  * @author Gaël L'hopital - Initial contribution OH2 version
  *
  */
@@ -48,6 +65,19 @@ public class NetatmoBridgeHandler extends BaseBridgeHandler {
     private ThermostatApi thermostatApi = null;
     private PartnerApi partnerApi = null;
 
+    // Devices upload their measurements to Netatmo every 10 minutes
+    private static final long MEASUREMENT_INTERVAL = TimeUnit.MINUTES.toMillis(10);
+    // Time after the expected upload until the data is available through the API
+    private static final long MEASUREMENT_DELAY = TimeUnit.SECONDS.toMillis(30);
+    private static final long DEFAULT_REFRESH_INTERVAL = MEASUREMENT_INTERVAL;
+    // Delay of requested refreshes, so that several requests lead to one fetch
+    private static final long REQUEST_DELAY = 1000;
+
+    private volatile Map<String, NADeviceAdapter<?>> devices = Collections.emptyMap();
+    private ScheduledFuture<?> refreshJob;
+    private boolean forceRefresh = false;
+    private boolean disposed = false;
+
     public NetatmoBridgeHandler(Bridge bridge) {
         super(bridge);
     }
@@ -71,6 +101,155 @@ public class NetatmoBridgeHandler extends BaseBridgeHandler {
             }
         }
         super.initialize();
+
+        synchronized (this) {
+            disposed = false;
+        }
+        requestRefresh(false);
+    }
+
+    @Override
+    public void dispose() {
+        synchronized (this) {
+            disposed = true;
+            if (refreshJob != null) {
+                refreshJob.cancel(false);
+                refreshJob = null;
+            }
+        }
+        super.dispose();
+    }
+
+    /**
+     * Requests a fetch of the data of all devices soon
+     *
+     * @param force if true, the devices are updated even if their data has not changed
+     */
+    public void requestRefresh(boolean force) {
+        synchronized (this) {
+            forceRefresh |= force;
+        }
+        scheduleRefresh(REQUEST_DELAY);
+    }
+
+    private synchronized void scheduleRefresh(long delay) {
+        if (disposed) {
+            return;
+        }
+        if (refreshJob != null) {
+            if (refreshJob.getDelay(TimeUnit.MILLISECONDS) <= delay) {
+                // an earlier fetch is already scheduled
+                return;
+            }
+            refreshJob.cancel(false);
+        }
+        logger.debug("Scheduling the next fetch of Netatmo data in {} ms", delay);
+        refreshJob = scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                refreshDevices();
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void refreshDevices() {
+        boolean force;
+        synchronized (this) {
+            refreshJob = null;
+            force = forceRefresh;
+            forceRefresh = false;
+        }
+
+        long refreshInterval = DEFAULT_REFRESH_INTERVAL;
+        try {
+            // index the handlers by their equipment id
+            Map<String, NetatmoDeviceHandler<?>> deviceHandlers = new HashMap<String, NetatmoDeviceHandler<?>>();
+            Map<String, NetatmoModuleHandler<?>> moduleHandlers = new HashMap<String, NetatmoModuleHandler<?>>();
+            for (Thing thing : getThing().getThings()) {
+                ThingHandler thingHandler = thing.getHandler();
+                if (thingHandler instanceof NetatmoDeviceHandler) {
+                    NetatmoDeviceHandler<?> deviceHandler = (NetatmoDeviceHandler<?>) thingHandler;
+                    if (deviceHandler.configuration != null) {
+                        deviceHandlers.put(deviceHandler.configuration.getEquipmentId(), deviceHandler);
+                        if (deviceHandler.configuration.refreshInterval > 0) {
+                            refreshInterval = Math.min(refreshInterval, deviceHandler.configuration.refreshInterval);
+                        }
+                    }
+                } else if (thingHandler instanceof NetatmoModuleHandler) {
+                    NetatmoModuleHandler<?> moduleHandler = (NetatmoModuleHandler<?>) thingHandler;
+                    if (moduleHandler.configuration != null) {
+                        moduleHandlers.put(moduleHandler.configuration.getEquipmentId(), moduleHandler);
+                    }
+                }
+            }
+            if (deviceHandlers.isEmpty()) {
+                return;
+            }
+
+            devices = fetchDevices();
+
+            long now = System.currentTimeMillis();
+            long nextMeasurement = Long.MAX_VALUE;
+            for (Map.Entry<String, NetatmoDeviceHandler<?>> entry : deviceHandlers.entrySet()) {
+                NADeviceAdapter<?> device = devices.get(entry.getKey());
+                if (device == null) {
+                    continue;
+                }
+                entry.getValue().updateDevice(moduleHandlers, force);
+                Integer lastStatusStore = device.getLastStatusStore();
+                if (lastStatusStore != null) {
+                    long expected = lastStatusStore * 1000L + MEASUREMENT_INTERVAL + MEASUREMENT_DELAY;
+                    if (expected > now) {
+                        nextMeasurement = Math.min(nextMeasurement, expected);
+                    }
+                }
+            }
+            if (nextMeasurement - now < refreshInterval) {
+                refreshInterval = nextMeasurement - now;
+            }
+        } catch (RuntimeException e) {
+            logger.error("An error occurred while refreshing Netatmo devices : {}", e.getMessage());
+        } finally {
+            scheduleRefresh(refreshInterval);
+        }
+    }
+
+    /**
+     * Fetches the data of all stations and all thermostats, and indexes the devices by their id.
+     * If a fetch fails, the devices of the last fetch are kept.
+     */
+    private Map<String, NADeviceAdapter<?>> fetchDevices() {
+        Map<String, NADeviceAdapter<?>> devices = new HashMap<String, NADeviceAdapter<?>>();
+        NAStationDataBody stationDataBody = getStationsDataBody(null);
+        NAThermostatDataBody thermostatDataBody = getThermostatsDataBody(null);
+        for (Map.Entry<String, NADeviceAdapter<?>> entry : this.devices.entrySet()) {
+            if ((stationDataBody == null && entry.getValue() instanceof NAStationAdapter)
+                    || (thermostatDataBody == null && entry.getValue() instanceof NAPlugAdapter)) {
+                devices.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (stationDataBody != null && stationDataBody.getDevices() != null) {
+            for (NAMain station : stationDataBody.getDevices()) {
+                devices.put(station.getId().toLowerCase(),
+                        new NAStationAdapter(station, stationDataBody.getUser().getAdministrative()));
+            }
+        }
+        if (thermostatDataBody != null && thermostatDataBody.getDevices() != null) {
+            for (NAPlug plug : thermostatDataBody.getDevices()) {
+                devices.put(plug.getId().toLowerCase(),
+                        new NAPlugAdapter(plug, thermostatDataBody.getUser().getAdministrative()));
+            }
+        }
+        return devices;
+    }
+
+    /**
+     * Returns the data of a device from the last fetch
+     *
+     * @return the device, or null if it was not contained in the last fetch
+     */
+    public NADeviceAdapter<?> getDevice(String equipmentId) {
+        return devices.get(equipmentId);
     }
 
     // We'll use TrustingOkHttpClient because Netatmo certificate is a StartTTLS
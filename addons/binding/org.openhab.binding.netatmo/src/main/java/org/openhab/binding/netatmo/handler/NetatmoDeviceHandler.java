@@ -10,18 +10,15 @@ package org.openhab.binding.netatmo.handler;
 
 import static org.openhab.binding.netatmo.NetatmoBindingConstants.*;
 
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
 
 import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.library.types.PointType;
 import org.eclipse.smarthome.core.thing.Thing;
 import org.eclipse.smarthome.core.thing.ThingStatus;
 import org.eclipse.smarthome.core.thing.ThingStatusDetail;
-import org.eclipse.smarthome.core.thing.binding.ThingHandler;
 import org.eclipse.smarthome.core.types.State;
 import org.openhab.binding.netatmo.config.NetatmoDeviceConfiguration;
-import org.openhab.binding.netatmo.config.NetatmoModuleConfiguration;
 import org.openhab.binding.netatmo.internal.ChannelTypeUtils;
 import org.openhab.binding.netatmo.internal.NADeviceAdapter;
 import org.openhab.binding.netatmo.internal.NAModuleAdapter;
@@ -34,6 +31,8 @@ import io.swagger.client.model.NAPlace;
  * {@link NetatmoDeviceHandler} is the handler for a given
  * device accessed through the Netatmo Bridge
  *
+ * The readings are fetched by the bridge for all devices at once.
+ *
  * @author Gaël L'hopital - Initial contribution OH2 version
  *
  */
@@ -42,7 +41,6 @@ public abstract class NetatmoDeviceHandler<X extends NetatmoDeviceConfiguration>
 
     protected NADeviceAdapter<?> device;
     private static Logger logger = LoggerFactory.getLogger(NetatmoDeviceHandler.class);
-    private ScheduledFuture<?> refreshJob;
 
     public NetatmoDeviceHandler(Thing thing, Class<X> configurationClass) {
         super(thing, configurationClass);
@@ -57,13 +55,7 @@ public abstract class NetatmoDeviceHandler<X extends NetatmoDeviceConfiguration>
             if (getBridge().getStatus() == ThingStatus.ONLINE) {
                 logger.debug("setting device '{}' online", configuration.getEquipmentId());
                 updateStatus(ThingStatus.ONLINE);
-                logger.debug("scheduling update channel thread to run every {} ms", configuration.refreshInterval);
-                refreshJob = scheduler.scheduleWithFixedDelay(new Runnable() {
-                    @Override
-                    public void run() {
-                        updateChannels(configuration.getEquipmentId());
-                    }
-                }, 1, configuration.refreshInterval, TimeUnit.MILLISECONDS);
+                getBridgeHandler().requestRefresh(false);
             } else {
                 logger.debug("setting device '{}' offline (bridge or thing offline)", configuration.getEquipmentId());
                 updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.OFFLINE.BRIDGE_OFFLINE);
@@ -74,15 +66,11 @@ public abstract class NetatmoDeviceHandler<X extends NetatmoDeviceConfiguration>
         }
     }
 
-    @Override
-    public void dispose() {
-        logger.debug("Running dispose()");
-        if (refreshJob != null && !refreshJob.isCancelled()) {
-            refreshJob.cancel(true);
-            refreshJob = null;
-        }
-    }
-
+    /**
+     * Returns the readings of this device from the last fetch of the bridge
+     *
+     * @return the readings, or null if they are not available
+     */
     abstract protected NADeviceAdapter<?> updateReadings(String equipmentId);
 
     @Override
@@ -91,16 +79,42 @@ public abstract class NetatmoDeviceHandler<X extends NetatmoDeviceConfiguration>
         try {
             NADeviceAdapter<?> tmpDevice = updateReadings(equipmentId);
             if (tmpDevice != null) {
-                logger.debug("Successfully updated device readings! Now updating channels");
                 this.device = tmpDevice;
                 super.updateChannels(equipmentId);
-                updateChildModules(equipmentId);
             }
         } catch (Exception e) {
             logger.error("Exception when trying to update channels: {}", e.getMessage());
         }
     }
 
+    /**
+     * Called by the bridge after it fetched new data. Devices and their modules are only
+     * updated if the device stored new measurements since the last update.
+     *
+     * @param moduleHandlers the handlers of all modules, by their equipment id
+     * @param force if true, the device and its modules are updated in any case
+     */
+    void updateDevice(Map<String, NetatmoModuleHandler<?>> moduleHandlers, boolean force) {
+        String equipmentId = configuration.getEquipmentId();
+        try {
+            NADeviceAdapter<?> tmpDevice = updateReadings(equipmentId);
+            if (tmpDevice == null) {
+                return;
+            }
+            if (!force && device != null && tmpDevice.getLastStatusStore() != null
+                    && tmpDevice.getLastStatusStore().equals(device.getLastStatusStore())) {
+                logger.debug("Readings of device {} have not changed", equipmentId);
+                return;
+            }
+            logger.debug("Successfully updated device readings! Now updating channels");
+            this.device = tmpDevice;
+            super.updateChannels(equipmentId);
+            updateChildModules(equipmentId, moduleHandlers);
+        } catch (Exception e) {
+            logger.error("Exception when trying to update channels: {}", e.getMessage());
+        }
+    }
+
     @Override
     protected State getNAThingProperty(String channelId) {
         switch (channelId) {
@@ -124,21 +138,14 @@ public abstract class NetatmoDeviceHandler<X extends NetatmoDeviceConfiguration>
         }
     }
 
-    private void updateChildModules(String equipmentId) {
+    private void updateChildModules(String equipmentId, Map<String, NetatmoModuleHandler<?>> moduleHandlers) {
         logger.debug("Updating child modules of {}", equipmentId);
-        for (Thing handler : getBridge().getThings()) {
-            ThingHandler thingHandler = handler.getHandler();
-            if (thingHandler instanceof NetatmoModuleHandler) {
-                @SuppressWarnings("unchecked")
-                NetatmoModuleHandler<NetatmoModuleConfiguration> moduleHandler = (NetatmoModuleHandler<NetatmoModuleConfiguration>) thingHandler;
-                NetatmoModuleConfiguration moduleConfiguration = moduleHandler.configuration;
-                String parentId = moduleConfiguration.getParentId();
-                if (equipmentId.equalsIgnoreCase(parentId)) {
-                    String childId = moduleHandler.configuration.getEquipmentId();
-                    NAModuleAdapter module = device.getModules().get(childId);
-                    logger.debug("Updating child module {}", childId);
-                    moduleHandler.updateChannels(module);
-                }
+        for (Map.Entry<String, NAModuleAdapter> entry : device.getModules().entrySet()) {
+            String childId = entry.getKey().toLowerCase();
+            NetatmoModuleHandler<?> moduleHandler = moduleHandlers.get(childId);
+            if (moduleHandler != null && equipmentId.equalsIgnoreCase(moduleHandler.configuration.getParentId())) {
+                logger.debug("Updating child module {}", childId);
+                moduleHandler.updateChannels(entry.getValue());
             }
         }
     }
@@ -12,10 +12,7 @@ import static org.openhab.binding.netatmo.NetatmoBindingConstants.*;
 
 import org.eclipse.smarthome.core.library.types.OnOffType;
 import org.eclipse.smarthome.core.thing.Thing;
-import org.eclipse.smarthome.core.thing.binding.ThingHandler;
-import org.eclipse.smarthome.core.types.RefreshType;
 import org.eclipse.smarthome.core.types.State;
-import org.openhab.binding.netatmo.config.NetatmoDeviceConfiguration;
 import org.openhab.binding.netatmo.config.NetatmoModuleConfiguration;
 import org.openhab.binding.netatmo.internal.ChannelTypeUtils;
 import org.openhab.binding.netatmo.internal.NAModuleAdapter;
@@ -93,18 +90,8 @@ public abstract class NetatmoModuleHandler<X extends NetatmoModuleConfiguration>
 
     protected void requestParentRefresh() {
         logger.debug("Updating parent modules of {}", configuration.getEquipmentId());
-        for (Thing thing : getBridge().getThings()) {
-            ThingHandler thingHandler = thing.getHandler();
-            if (thingHandler instanceof NetatmoDeviceHandler) {
-                @SuppressWarnings("unchecked")
-                NetatmoDeviceHandler<NetatmoDeviceConfiguration> deviceHandler = (NetatmoDeviceHandler<NetatmoDeviceConfiguration>) thingHandler;
-                NetatmoDeviceConfiguration deviceConfiguration = deviceHandler.configuration;
-                if (deviceConfiguration.getEquipmentId().equalsIgnoreCase(configuration.getParentId())) {
-                    // I'm your father Luke
-                    thingHandler.handleCommand(null, RefreshType.REFRESH);
-                }
-            }
-        }
+        // the data of the parent is fetched together with all other devices
+        getBridgeHandler().requestRefresh(true);
     }
 
 }
@@ -14,8 +14,6 @@ import org.openhab.binding.netatmo.handler.NetatmoDeviceHandler;
 import org.openhab.binding.netatmo.internal.NADeviceAdapter;
 import org.openhab.binding.netatmo.internal.NAPlugAdapter;
 
-import io.swagger.client.model.NAThermostatDataBody;
-
 /**
  * {@link NAPlugHandler} is the class used to handle the plug
  * device of a thermostat set
@@ -30,9 +28,9 @@ public class NAPlugHandler extends NetatmoDeviceHandler<NetatmoDeviceConfigurati
 
     @Override
     protected NADeviceAdapter<?> updateReadings(String equipmentId) {
-        NAThermostatDataBody thermostatDataBody = getBridgeHandler().getThermostatsDataBody(equipmentId);
-        if (thermostatDataBody != null) {
-            return new NAPlugAdapter(thermostatDataBody);
+        NADeviceAdapter<?> plugAdapter = getBridgeHandler().getDevice(equipmentId);
+        if (plugAdapter instanceof NAPlugAdapter) {
+            return plugAdapter;
         } else {
             return null;
         }
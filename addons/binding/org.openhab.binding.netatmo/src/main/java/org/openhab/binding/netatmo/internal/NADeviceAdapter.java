@@ -30,9 +30,16 @@ public abstract class NADeviceAdapter<DeviceClass> {
     protected DeviceClass device;
 
     public NADeviceAdapter(DeviceClass device) {
+        this(device, null);
+    }
+
+    /**
+     * Used for one of the devices of a data body, which holds the user settings for all of its devices
+     */
+    public NADeviceAdapter(DeviceClass device, NAUserAdministrative userAdministrative) {
         if (device != null) {
             this.device = device;
-            this.userAdministrative = null;
+            this.userAdministrative = userAdministrative;
         } else {
             throw new IllegalArgumentException("device can not be null");
         }
@@ -291,14 +291,7 @@ public class OnkyoHandler extends UpnpAudioSinkHandler implements OnkyoEventList
         updateStatus(ThingStatus.ONLINE);
 
         try {
-            EiscpCommand receivedCommand = null;
-            for (EiscpCommand candidate : EiscpCommand.values()) {
-                String deviceCmd = candidate.getCommand();
-                if (data.startsWith(deviceCmd)) {
-                    receivedCommand = candidate;
-                    break;
-                }
-            }
+            EiscpCommand receivedCommand = EiscpCommand.getCommandByMessage(data);
 
             if (receivedCommand != null) {
                 switch (receivedCommand.getCommandRef()) {
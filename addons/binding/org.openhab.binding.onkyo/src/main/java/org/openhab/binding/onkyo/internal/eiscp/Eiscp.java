@@ -8,8 +8,8 @@
  */
 package org.openhab.binding.onkyo.internal.eiscp;
 
-import java.io.DataInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectOutputStream;
 import java.net.InetSocketAddress;
 import java.net.Socket;
@@ -68,7 +68,8 @@ public class Eiscp {
     private Socket eiscpSocket = null;
     private DataListener dataListener = null;
     private ObjectOutputStream outStream = null;
-    private DataInputStream inStream = null;
+    private InputStream inStream = null;
+    private EiscpFramer framer = null;
     private boolean connected = false;
     private List<OnkyoEventListener> _listeners = new ArrayList<OnkyoEventListener>();
     private int retryCount = 1;
@@ -142,7 +143,8 @@ public class Eiscp {
 
                 // Get Input and Output streams
                 outStream = new ObjectOutputStream(eiscpSocket.getOutputStream());
-                inStream = new DataInputStream(eiscpSocket.getInputStream());
+                inStream = eiscpSocket.getInputStream();
+                framer = new EiscpFramer(inStream);
 
                 eiscpSocket.setSoTimeout(SOCKET_TIMEOUT);
                 outStream.flush();
@@ -345,127 +347,14 @@ public class Eiscp {
 
             while (true) {
 
-                // 1st 4 chars are the leadIn
-
-                if (inStream.readByte() != 'I') {
-                    continue;
-                }
-                if (inStream.readByte() != 'S') {
-                    continue;
-                }
-                if (inStream.readByte() != 'C') {
-                    continue;
-                }
-                if (inStream.readByte() != 'P') {
-                    continue;
-                }
-
-                // header size
-                final int headerSize = (inStream.readByte() & 0xFF) << 24 | (inStream.readByte() & 0xFF) << 16
-                        | (inStream.readByte() & 0xFF) << 8 | (inStream.readByte() & 0xFF);
-
-                logger.trace("Header size: {}", headerSize);
-
-                if (headerSize != 16) {
-                    throw new EiscpException("Unsupported header size: " + headerSize);
-                }
-
-                // header size
-                final int dataSize = (inStream.readByte() & 0xFF) << 24 | (inStream.readByte() & 0xFF) << 16
-                        | (inStream.readByte() & 0xFF) << 8 | (inStream.readByte() & 0xFF);
-
-                logger.trace("Data size: {}", dataSize);
-
-                // version
-                final byte versionChar = inStream.readByte();
-                if (versionChar != 1) {
-                    throw new EiscpException("Unsupported version " + String.valueOf(versionChar));
-                }
-
-                // skip 3 reserved bytes
-                inStream.readByte();
-                inStream.readByte();
-                inStream.readByte();
-
-                byte[] data = new byte[dataSize];
-                int bytesReceived = 0;
-
-                try {
-                    while (bytesReceived < dataSize) {
-                        bytesReceived = bytesReceived + inStream.read(data, bytesReceived, data.length - bytesReceived);
-                        if (logger.isTraceEnabled()) {
-                            logger.trace("Received {} bytes: {}", bytesReceived,
-                                    DatatypeConverter.printHexBinary(data));
-                        }
-                    }
-                } catch (Throwable t) {
-                    if (bytesReceived != dataSize) {
-                        logger.debug("Received: '{}'", new String(data, "UTF-8"));
-                        throw new EiscpException(
-                                "Data missing, expected + " + dataSize + " received " + bytesReceived + " bytes");
-                    } else {
-                        throw t;
-                    }
-                }
-
-                // start char
-                final byte startChar = data[0];
-
-                if (startChar != '!') {
-                    throw new EiscpException("Illegal start char " + startChar);
-                }
-
-                // unit type
-                @SuppressWarnings("unused")
-                final byte unitType = data[1];
-
-                // data should be end to "[EOF]" or "[EOF][CR]" or
-                // "[EOF][CR][LF]" characters depend on model
-                // [EOF] End of File ASCII Code 0x1A
-                // [CR] Carriage Return ASCII Code 0x0D (\r)
-                // [LF] Line Feed ASCII Code 0x0A (\n)
-
-                int endBytes = 0;
-
-                if (data[dataSize - 4] == (byte) 0x1A && data[dataSize - 3] == '\r' && data[dataSize - 2] == '\n'
-                        && data[dataSize - 1] == 0x00) {
-
-                    // skip "[EOF][CR][LF][NULL]"
-                    endBytes = 4;
-
-                } else
-                    if (data[dataSize - 3] == (byte) 0x1A && data[dataSize - 2] == '\r' && data[dataSize - 1] == '\n') {
-
-                    // skip "[EOF][CR][LF]"
-                    endBytes = 3;
-
-                } else if (data[dataSize - 2] == (byte) 0x1A && data[dataSize - 1] == '\r') {
-
-                    // "[EOF][CR]"
-                    endBytes = 2;
-
-                } else if (data[dataSize - 1] == (byte) 0x1A) {
-
-                    // "[EOF]"
-                    endBytes = 1;
-
-                } else {
-                    throw new EiscpException("Illegal end of message");
-                }
-
-                int bytesToCopy = dataSize - 2 - endBytes;
-
-                byte[] message = new byte[bytesToCopy];
-
-                // skip 2 first bytes and copy all bytes before end bytes
-                System.arraycopy(data, 2, message, 0, bytesToCopy);
+                String message = framer.readMessage();
 
                 // send message to event listeners
                 try {
                     Iterator<OnkyoEventListener> iterator = _listeners.iterator();
 
                     while (iterator.hasNext()) {
-                        iterator.next().statusUpdateReceived(event, receiverIP, new String(message));
+                        iterator.next().statusUpdateReceived(event, receiverIP, message);
                     }
 
                 } catch (Exception e) {
@@ -8,6 +8,11 @@
  */
 package org.openhab.binding.onkyo.internal.eiscp;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
 /**
  * Maps a Readable string to a corresponding {@link EiscpCommandRef}.
  *
@@ -274,10 +279,9 @@ public enum EiscpCommand {
      * @return the commandName that is associated with the passed command.
      */
     public static EiscpCommand getCommandByCommandStr(String command) {
-        for (EiscpCommand candidate : values()) {
-            if (candidate.getCommand().equals(command)) {
-                return candidate;
-            }
+        EiscpCommand candidate = BY_COMMAND.get(command);
+        if (candidate != null) {
+            return candidate;
         }
         throw new IllegalStateException("There is no matching commandName for command '" + command + "'");
     }
@@ -287,12 +291,52 @@ public enum EiscpCommand {
      * @return the commandName that is associated with the passed eISCP command.
      */
     public static EiscpCommand getCommandByCommandRef(int commandRef) {
+        EiscpCommand candidate = BY_COMMAND_REF.get(commandRef);
+        if (candidate != null) {
+            return candidate;
+        }
+        throw new IllegalStateException("There is no matching commandName for commandRef '" + commandRef + "'");
+    }
+
+    /**
+     * @param message a message received from the receiver (example 'MVL1A').
+     * @return the first declared commandName whose command the message starts with, or null if there is none.
+     */
+    public static EiscpCommand getCommandByMessage(String message) {
+        EiscpCommand result = null;
+        for (int length : COMMAND_LENGTHS) {
+            if (length > message.length()) {
+                break;
+            }
+            EiscpCommand candidate = BY_COMMAND.get(message.substring(0, length));
+            if (candidate != null && (result == null || candidate.ordinal() < result.ordinal())) {
+                result = candidate;
+            }
+        }
+        return result;
+    }
+
+    // indexes for the lookups, holding the first declared commandName like a search over values() would
+    private static final Map<String, EiscpCommand> BY_COMMAND = new HashMap<String, EiscpCommand>();
+    private static final Map<Integer, EiscpCommand> BY_COMMAND_REF = new HashMap<Integer, EiscpCommand>();
+    private static final int[] COMMAND_LENGTHS;
+
+    static {
+        SortedSet<Integer> lengths = new TreeSet<Integer>();
         for (EiscpCommand candidate : values()) {
-            if (candidate.getCommandRef().getCommand() == commandRef) {
-                return candidate;
+            if (!BY_COMMAND.containsKey(candidate.getCommand())) {
+                BY_COMMAND.put(candidate.getCommand(), candidate);
+            }
+            if (!BY_COMMAND_REF.containsKey(candidate.getCommandRef().getCommand())) {
+                BY_COMMAND_REF.put(candidate.getCommandRef().getCommand(), candidate);
             }
+            lengths.add(candidate.getCommand().length());
+        }
+        COMMAND_LENGTHS = new int[lengths.size()];
+        int i = 0;
+        for (int length : lengths) {
+            COMMAND_LENGTHS[i++] = length;
         }
-        throw new IllegalStateException("There is no matching commandName for commandRef '" + commandRef + "'");
     }
 
 }
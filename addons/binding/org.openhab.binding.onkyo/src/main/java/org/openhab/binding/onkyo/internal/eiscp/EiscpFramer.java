@@ -0,0 +1,188 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.onkyo.internal.eiscp;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.xml.bind.DatatypeConverter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Splits the data received from an Onkyo/Integra device into eISCP packets.
+ *
+ * The data is read in large blocks into a reusable buffer, in which the packets
+ * are located and validated in place. A packet may arrive in several blocks, and
+ * one block may contain several packets.
+ *
+ * @author agent - Initial contribution
+ */
+class EiscpFramer {
+
+    private static final Logger logger = LoggerFactory.getLogger(EiscpFramer.class);
+
+    /** Size of the eISCP header, including the lead-in **/
+    private static final int HEADER_SIZE = 16;
+
+    /** Largest accepted data size, album art is sent in packets of a few kilobytes **/
+    private static final int MAX_DATA_SIZE = 1024 * 1024;
+
+    private final InputStream inStream;
+
+    private byte[] buffer = new byte[4096];
+    private int position = 0;
+    private int limit = 0;
+
+    EiscpFramer(InputStream inStream) {
+        this.inStream = inStream;
+    }
+
+    /**
+     * Waits for the next packet and returns its message, without the start
+     * character, unit type and end characters.
+     *
+     * @return the message, for example 'PWR01'
+     * @throws EiscpException if an invalid packet was received, which is skipped
+     * @throws IOException if reading from the device fails
+     */
+    String readMessage() throws IOException, EiscpException {
+        while (true) {
+            // 1st 4 chars are the leadIn
+            int leadIn = findLeadIn();
+            if (leadIn < 0) {
+                // keep the last bytes, they could be the beginning of a lead-in
+                position = Math.max(position, limit - 3);
+                fill(4);
+                continue;
+            }
+            position = leadIn;
+
+            if (limit - position < HEADER_SIZE) {
+                fill(HEADER_SIZE);
+                continue;
+            }
+
+            final int headerSize = readInt(position + 4);
+            logger.trace("Header size: {}", headerSize);
+            if (headerSize != HEADER_SIZE) {
+                position += 4;
+                throw new EiscpException("Unsupported header size: " + headerSize);
+            }
+
+            final int dataSize = readInt(position + 8);
+            logger.trace("Data size: {}", dataSize);
+            if (dataSize < 3 || dataSize > MAX_DATA_SIZE) {
+                position += 4;
+                throw new EiscpException("Unsupported data size: " + dataSize);
+            }
+
+            // version
+            final byte versionChar = buffer[position + 12];
+            if (versionChar != 1) {
+                position += 4;
+                throw new EiscpException("Unsupported version " + String.valueOf(versionChar));
+            }
+
+            if (limit - position < HEADER_SIZE + dataSize) {
+                fill(HEADER_SIZE + dataSize);
+                continue;
+            }
+
+            // the packet is complete, consume it
+            final int data = position + HEADER_SIZE;
+            position = data + dataSize;
+
+            if (logger.isTraceEnabled()) {
+                byte[] packet = new byte[dataSize];
+                System.arraycopy(buffer, data, packet, 0, dataSize);
+                logger.trace("Received {} bytes: {}", dataSize, DatatypeConverter.printHexBinary(packet));
+            }
+
+            return decodeMessage(data, dataSize);
+        }
+    }
+
+    private String decodeMessage(int data, int dataSize) throws EiscpException {
+        // start char
+        final byte startChar = buffer[data];
+
+        if (startChar != '!') {
+            throw new EiscpException("Illegal start char " + startChar);
+        }
+
+        // data should be end to "[EOF]" or "[EOF][CR]" or
+        // "[EOF][CR][LF]" characters depend on model
+        // [EOF] End of File ASCII Code 0x1A
+        // [CR] Carriage Return ASCII Code 0x0D (\r)
+        // [LF] Line Feed ASCII Code 0x0A (\n)
+
+        final int end = data + dataSize;
+        int endBytes = 0;
+
+        if (dataSize >= 4 && buffer[end - 4] == (byte) 0x1A && buffer[end - 3] == '\r' && buffer[end - 2] == '\n'
+                && buffer[end - 1] == 0x00) {
+            // skip "[EOF][CR][LF][NULL]"
+            endBytes = 4;
+        } else if (buffer[end - 3] == (byte) 0x1A && buffer[end - 2] == '\r' && buffer[end - 1] == '\n') {
+            // skip "[EOF][CR][LF]"
+            endBytes = 3;
+        } else if (buffer[end - 2] == (byte) 0x1A && buffer[end - 1] == '\r') {
+            // "[EOF][CR]"
+            endBytes = 2;
+        } else if (buffer[end - 1] == (byte) 0x1A) {
+            // "[EOF]"
+            endBytes = 1;
+        } else {
+            throw new EiscpException("Illegal end of message");
+        }
+
+        // skip start char and unit type, and all end bytes
+        return new String(buffer, data + 2, Math.max(0, dataSize - 2 - endBytes));
+    }
+
+    private int findLeadIn() {
+        for (int i = position; i + 3 < limit; i++) {
+            if (buffer[i] == 'I' && buffer[i + 1] == 'S' && buffer[i + 2] == 'C' && buffer[i + 3] == 'P') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int readInt(int offset) {
+        return (buffer[offset] & 0xFF) << 24 | (buffer[offset + 1] & 0xFF) << 16 | (buffer[offset + 2] & 0xFF) << 8
+                | (buffer[offset + 3] & 0xFF);
+    }
+
+    /**
+     * Reads more data, so that at least the given number of bytes are available from the current position.
+     */
+    private void fill(int required) throws IOException {
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+        }
+        if (required > buffer.length) {
+            byte[] larger = new byte[Math.max(required, buffer.length * 2)];
+            System.arraycopy(buffer, 0, larger, 0, limit);
+            buffer = larger;
+        }
+        while (limit < required) {
+            int read = inStream.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                throw new EOFException("End of stream from receiver");
+            }
+            limit += read;
+        }
+    }
+}
@@ -183,8 +183,8 @@ public class PulseaudioHandler extends BaseThingHandler implements
 			if (channelUID.getId().equals(
 					PulseaudioBindingConstants.VOLUME_CHANNEL)) {
 				if (command instanceof IncreaseDecreaseType) {
-					// refresh to get the current volume level
-					bridge.getClient().update();
+					// refresh the items of this type to get the current volume level
+					bridge.getClient().update(device);
 					device = bridge.getDevice(name);
 					int volume = device.getVolume();
 					if (command.equals(IncreaseDecreaseType.INCREASE))
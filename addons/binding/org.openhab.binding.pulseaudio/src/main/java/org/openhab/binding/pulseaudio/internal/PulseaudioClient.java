@@ -8,15 +8,23 @@
  */
 package org.openhab.binding.pulseaudio.internal;
 
+import java.io.BufferedReader;
+import java.io.EOFException;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.PrintStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.net.Socket;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
 import java.net.UnknownHostException;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 import org.apache.commons.lang.StringUtils;
 import org.openhab.binding.pulseaudio.internal.cli.Parser;
@@ -32,6 +40,10 @@ import org.slf4j.LoggerFactory;
  * 
  * On the pulseaudio server the module-cli-protocol-tcp has to be loaded.
  * 
+ * The connection is kept open. Every request is followed by an unknown marker command, the
+ * error message for the marker ends the response. So several requests can be sent at once,
+ * and their responses are read without waiting for a timeout.
+ * 
  * @author Tobias Bräutigam
  * @since 1.2.0
  */
@@ -39,12 +51,86 @@ public class PulseaudioClient {
 	
 	private static final Logger logger = LoggerFactory.getLogger(PulseaudioClient.class);
 
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	/**
+	 * the command sent after each request, the pulseaudio server does not know it
+	 */
+	private static final String END_OF_RESPONSE_MARKER = "openhab-end-of-response";
+	
+	/**
+	 * the answer of the pulseaudio server to the marker command, it ends a response
+	 */
+	private static final String END_OF_RESPONSE = "Unknown command: " + END_OF_RESPONSE_MARKER;
+	
+	/**
+	 * the prompt older pulseaudio versions (<5.0) send before each response
+	 */
+	private static final String PROMPT = ">>> ";
+	
+	/**
+	 * the beginning of the welcome message sent after connecting
+	 */
+	private static final String WELCOME = "Welcome to PulseAudio";
+	
+	/**
+	 * read timeout, only reached if the server does not answer at all
+	 */
+	private static final int READ_TIMEOUT = 5000;
+
 	private String host;
 	private int port;
 	private Socket client;
+	private BufferedReader reader;
+	private OutputStream writer;
+	/**
+	 * true as soon as a line of a response has been read on the current attempt
+	 */
+	private boolean responseStarted;
 
-	private List<AbstractAudioDeviceConfig> items;
-	private List<Module> modules;
+	private volatile Map<Integer, Module> modules = Collections.emptyMap();
+	private volatile ItemIndex<Sink> sinks = new ItemIndex<Sink>();
+	private volatile ItemIndex<Source> sources = new ItemIndex<Source>();
+	private volatile ItemIndex<SinkInput> sinkInputs = new ItemIndex<SinkInput>();
+	private volatile ItemIndex<SourceOutput> sourceOutputs = new ItemIndex<SourceOutput>();
+	private volatile List<AbstractAudioDeviceConfig> items = Collections.emptyList();
+	
+	/**
+	 * the items of one type, indexed by their lower case name and by their id
+	 */
+	private static class ItemIndex<T extends AbstractAudioDeviceConfig> {
+		private final List<T> items;
+		private final Map<String, T> byName = new HashMap<String, T>();
+		private final Map<Integer, T> byId = new HashMap<Integer, T>();
+		
+		private ItemIndex() {
+			this(Collections.<T> emptyList());
+		}
+		
+		private ItemIndex(Collection<T> items) {
+			this.items = new ArrayList<T>(items);
+			for (T item : items) {
+				// the first item with a name or id wins, as for the former linear lookup
+				if (item.getPaName() != null) {
+					String name = item.getPaName().toLowerCase(Locale.ENGLISH);
+					if (!byName.containsKey(name)) {
+						byName.put(name, item);
+					}
+				}
+				if (!byId.containsKey(item.getId())) {
+					byId.put(item.getId(), item);
+				}
+			}
+		}
+		
+		private T get(String name) {
+			return name == null ? null : byName.get(name.toLowerCase(Locale.ENGLISH));
+		}
+		
+		private T get(int id) {
+			return byId.get(id);
+		}
+	}
 	
 	/**
 	 * corresponding name to execute actions on sink items 
@@ -115,52 +201,74 @@ public class PulseaudioClient {
 		this.host = host;
 		this.port = port;
 		
-		items = new ArrayList<AbstractAudioDeviceConfig>();
-		modules = new ArrayList<Module>();
-		
 		connect();
 		update();
 	}
 	
 	public boolean isConnected() {
-		return client.isConnected();
+		return client != null && client.isConnected();
 	}
 
 	/**
 	 * updates the item states and their relationships
+	 * 
+	 * All lists are requested at once, and parsed in the order of their dependencies.
 	 */
-	public void update() {
-		modules.clear();
-		modules.addAll(Parser.parseModules(listModules()));
+	public synchronized void update() {
+		long start = System.currentTimeMillis();
+		List<String> responses = _sendRawRequests(CMD_LIST_MODULES, CMD_LIST_SINKS, CMD_LIST_SOURCES,
+				CMD_LIST_SINK_INPUTS, CMD_LIST_SOURCE_OUTPUTS);
 		
-		items.clear();
-		items.addAll(Parser.parseSinks(listSinks(),this));
-		items.addAll(Parser.parseSources(listSources(),this));
-		items.addAll(Parser.parseSinkInputs(listSinkInputs(),this));
-		items.addAll(Parser.parseSourceOutputs(listSourceOutputs(),this));
+		updateModules(responses.get(0));
+		sinks = new ItemIndex<Sink>(Parser.parseSinks(responses.get(1),this));
+		sources = new ItemIndex<Source>(Parser.parseSources(responses.get(2),this));
+		sinkInputs = new ItemIndex<SinkInput>(Parser.parseSinkInputs(responses.get(3),this));
+		sourceOutputs = new ItemIndex<SourceOutput>(Parser.parseSourceOutputs(responses.get(4),this));
+		updateItems();
 		
-		logger.debug("Pulseaudio server "+host+": "+modules.size()+" modules and "+items.size()+" items updated");
+		logger.debug("Pulseaudio server {}: {} modules and {} items updated in {} ms", host, modules.size(),
+				items.size(), System.currentTimeMillis() - start);
 	}
 	
-	
-	private String listModules() {
-		return this._sendRawRequest(CMD_LIST_MODULES);
-	}
-
-	private String listSinks() {
-		return this._sendRawRequest(CMD_LIST_SINKS);
+	/**
+	 * updates the states of all items of the same type as the given <code>item</code>,
+	 * e.g. all sinks if a sink is given
+	 * 
+	 * @param item an item of the type to update
+	 */
+	public synchronized void update(AbstractAudioDeviceConfig item) {
+		if (item instanceof Sink) {
+			sinks = new ItemIndex<Sink>(Parser.parseSinks(_sendRawRequest(CMD_LIST_SINKS),this));
+		} else if (item instanceof Source) {
+			sources = new ItemIndex<Source>(Parser.parseSources(_sendRawRequest(CMD_LIST_SOURCES),this));
+		} else if (item instanceof SinkInput) {
+			sinkInputs = new ItemIndex<SinkInput>(Parser.parseSinkInputs(_sendRawRequest(CMD_LIST_SINK_INPUTS),this));
+		} else if (item instanceof SourceOutput) {
+			sourceOutputs = new ItemIndex<SourceOutput>(
+					Parser.parseSourceOutputs(_sendRawRequest(CMD_LIST_SOURCE_OUTPUTS),this));
+		} else {
+			return;
+		}
+		updateItems();
 	}
 	
-	private String listSources() {
-		return this._sendRawRequest(CMD_LIST_SOURCES);
-	}
-
-	private String listSinkInputs() {
-		return this._sendRawRequest(CMD_LIST_SINK_INPUTS);
+	private void updateModules(String raw) {
+		Map<Integer, Module> modules = new HashMap<Integer, Module>();
+		for (Module module : Parser.parseModules(raw)) {
+			if (!modules.containsKey(module.getId())) {
+				modules.put(module.getId(), module);
+			}
+		}
+		this.modules = modules;
 	}
 	
-	private String listSourceOutputs() {
-		return this._sendRawRequest(CMD_LIST_SOURCE_OUTPUTS);
+	private void updateItems() {
+		List<AbstractAudioDeviceConfig> items = new ArrayList<AbstractAudioDeviceConfig>();
+		items.addAll(sinks.items);
+		items.addAll(sources.items);
+		items.addAll(sinkInputs.items);
+		items.addAll(sourceOutputs.items);
+		this.items = Collections.unmodifiableList(items);
 	}
 	
 	/**
@@ -169,10 +277,7 @@ public class PulseaudioClient {
 	 * @return the corresponding {@link Module} to the given <code>id</code>
 	 */
 	public Module getModule(int id) {
-		for (Module module : modules) {
-			if (module.getId()==id) return module;
-		}
-		return null;
+		return modules.get(id);
 	}
 	
 	/**
@@ -191,101 +296,78 @@ public class PulseaudioClient {
 	 * @return the corresponding {@link Sink} to the given <code>name</code>
 	 */
 	public Sink getSink(String name) {
-		for(AbstractAudioDeviceConfig item : items) {
-			if (item.getPaName().equalsIgnoreCase(name) && item instanceof Sink)
-				return (Sink)item;
-		}
-		return null;
+		return sinks.get(name);
 	}
 	/**
 	 * retrieves a {@link Sink} by its id
 	 * @return the corresponding {@link Sink} to the given <code>id</code>
 	 */
 	public Sink getSink(int id) {
-		for(AbstractAudioDeviceConfig item : items) {
-			if (item.getId()==id && item instanceof Sink)
-				return (Sink)item;
-		}
-		return null;
+		return sinks.get(id);
 	}
 	/**
 	 * retrieves a {@link SinkInput} by its name
 	 * @return the corresponding {@link SinkInput} to the given <code>name</code>
 	 */
 	public SinkInput getSinkInput(String name) {
-		for(AbstractAudioDeviceConfig item : items) {
-			if (item.getPaName().equalsIgnoreCase(name) && item instanceof SinkInput)
-				return (SinkInput) item;
-		}
-		return null;
+		return sinkInputs.get(name);
 	}
 	/**
 	 * retrieves a {@link SinkInput} by its id
 	 * @return the corresponding {@link SinkInput} to the given <code>id</code>
 	 */
 	public SinkInput getSinkInput(int id) {
-		for(AbstractAudioDeviceConfig item : items) {
-			if (item.getId()==id && item instanceof SinkInput)
-				return (SinkInput) item;
-		}
-		return null;
+		return sinkInputs.get(id);
 	}
 	/**
 	 * retrieves a {@link Source} by its name
 	 * @return the corresponding {@link Source} to the given <code>name</code>
 	 */
 	public Source getSource(String name) {
-		for(AbstractAudioDeviceConfig item : items) {
-			if (item.getPaName().equalsIgnoreCase(name) && item instanceof Source)
-				return (Source) item;
-		}
-		return null;
+		return sources.get(name);
 	}
 	/**
 	 * retrieves a {@link Source} by its id
 	 * @return the corresponding {@link Source} to the given <code>id</code>
 	 */
 	public Source getSource(int id) {
-		for(AbstractAudioDeviceConfig item : items) {
-			if (item.getId()==id && item instanceof Source)
-				return (Source) item;
-		}
-		return null;
+		return sources.get(id);
 	}
 	/**
 	 * retrieves a {@link SourceOutput} by its name
 	 * @return the corresponding {@link SourceOutput} to the given <code>name</code>
 	 */
 	public SourceOutput getSourceOutput(String name) {
-		for(AbstractAudioDeviceConfig item : items) {
-			if (item.getPaName().equalsIgnoreCase(name) && item instanceof SourceOutput)
-				return (SourceOutput) item;
-		}
-		return null;
+		return sourceOutputs.get(name);
 	}
 	/**
 	 * retrieves a {@link SourceOutput} by its id
 	 * @return the corresponding {@link SourceOutput} to the given <code>id</code>
 	 */
 	public SourceOutput getSourceOutput(int id) {
-		for(AbstractAudioDeviceConfig item : items) {
-			if (item.getId()==id && item instanceof SourceOutput)
-				return (SourceOutput) item;
-		}
-		return null;
+		return sourceOutputs.get(id);
 	}
 	/**
 	 * retrieves a {@link AbstractAudioDeviceConfig} by its name
 	 * @return the corresponding {@link AbstractAudioDeviceConfig} to the given <code>name</code>
 	 */
 	public AbstractAudioDeviceConfig getGenericAudioItem(String name) {
-		for(AbstractAudioDeviceConfig item : items) {
-			if (item.getPaName().equalsIgnoreCase(name))
-				return item;
+		AbstractAudioDeviceConfig item = sinks.get(name);
+		if (item == null) {
+			item = sources.get(name);
 		}
-		return null;
+		if (item == null) {
+			item = sinkInputs.get(name);
+		}
+		if (item == null) {
+			item = sourceOutputs.get(name);
+		}
+		return item;
 	}
 	
+	/**
+	 * @return all items, the list is not modified by later updates
+	 */
 	public List<AbstractAudioDeviceConfig> getItems() {
 		return items;
 	}
@@ -421,8 +503,8 @@ public class PulseaudioClient {
 		} else {
 			_sendRawCommand("suspend-source "+source.getId()+" 0");
 			// unsuspending the source could result in different states (RUNNING,IDLE,...)
-			// update to get the new state
-			update();
+			// update the sources to get the new state
+			update(source);
 		}
 	}
 	
@@ -439,8 +521,8 @@ public class PulseaudioClient {
 		} else {
 			_sendRawCommand("suspend-sink "+sink.getId()+" 0");
 			// unsuspending the sink could result in different states (RUNNING,IDLE,...)
-			// update to get the new state
-			update();
+			// update the sinks to get the new state
+			update(sink);
 		}
 	}
 	
@@ -463,60 +545,113 @@ public class PulseaudioClient {
 	}
 	
 	private void _sendRawCommand(String command) {
-		checkConnection();
-		try {
-			PrintStream out = new PrintStream(client.getOutputStream(), true);
-			logger.trace("sending command {} to pa-server {}",command,host);
-			out.print(command + "\r\n");
-			out.close();
-			client.close();
-		} catch (IOException e) {
-			logger.error(e.getLocalizedMessage(), e);
+		String response = _sendRawRequest(command);
+		if (response.length() > 0) {
+			logger.warn("pa-server {} answered '{}' to command {}", host, response, command);
 		}
 	}
 
 	private String _sendRawRequest(String command) {
-		logger.trace("_sendRawRequest("+command+")");
-		checkConnection();
-		String result = "";
-		try {
-			PrintStream out = new PrintStream(client.getOutputStream(), true);
-			out.print(command + "\r\n");
-
-			InputStream instr = client.getInputStream();
+		return _sendRawRequests(command).get(0);
+	}
 
+	/**
+	 * sends all requests at once and reads their responses
+	 * 
+	 * @return the responses, in the order of the requests; empty if the server could not be reached
+	 */
+	private synchronized List<String> _sendRawRequests(String... commands) {
+		logger.trace("_sendRawRequests({})", StringUtils.join(commands, ", "));
+		StringBuilder request = new StringBuilder();
+		for (String command : commands) {
+			request.append(command).append("\r\n").append(END_OF_RESPONSE_MARKER).append("\r\n");
+		}
+		byte[] data = request.toString().getBytes(UTF_8);
+		
+		List<String> responses = new ArrayList<String>(commands.length);
+		// the server may have closed an idle connection, so try once more on a new one,
+		// but only as long as the requests can't have been executed
+		boolean retry = true;
+		for (int attempt = 0; attempt < 2 && retry; attempt++) {
+			retry = false;
+			checkConnection();
+			if (writer == null) {
+				break;
+			}
 			try {
-				byte[] buff = new byte[1024];
-				int ret_read = 0;
-				int lc = 0;
-				do {
-					ret_read = instr.read(buff);
-					lc++;
-					if (ret_read > 0) {
-						String line = new String(buff, 0, ret_read);
-						//System.out.println("'"+line+"'");
-						if (line.endsWith(">>> ") && lc>1) {
-							result += line.substring(0,line.length()-4);
-							break;
-						}
-						result += line.trim();
-					}
-				} while (ret_read > 0);
+				writer.write(data);
+				writer.flush();
+			} catch (IOException e) {
+				logger.debug("Sending to pa-server {} failed: {}", host, e.getMessage());
+				disconnect();
+				retry = true;
+				continue;
+			}
+			responseStarted = false;
+			try {
+				for (int i = 0; i < commands.length; i++) {
+					responses.add(readResponse());
+				}
 			} catch (SocketTimeoutException e) {
-				// Timeout -> as newer PA versions (>=5.0) do not send the >>> we have no chance
-				// to detect the end of the answer, except by this timeout
+				// the server got the requests and may still execute them, so they are not sent again
+				logger.debug("Timeout while reading from pa-server {}", host);
+				responses.clear();
+				disconnect();
 			} catch (IOException e) {
-				System.err.println("Exception while reading socket:"
-						+ e.getMessage());
+				logger.debug("Connection to pa-server {} failed: {}", host, e.getMessage());
+				responses.clear();
+				// the state of the stream is unknown, so start over
+				disconnect();
+				// a connection closed before anything was answered hasn't executed the requests
+				retry = !responseStarted;
+			}
+		}
+		if (responses.isEmpty()) {
+			logger.warn("No response from pa-server {} to {}", host, StringUtils.join(commands, ", "));
+		}
+		while (responses.size() < commands.length) {
+			responses.add("");
+		}
+		return responses;
+	}
+	
+	/**
+	 * reads the lines of a response up to the answer to the marker command
+	 */
+	private String readResponse() throws IOException {
+		StringBuilder response = new StringBuilder();
+		String line;
+		while ((line = reader.readLine()) != null) {
+			int marker = line.indexOf(END_OF_RESPONSE);
+			if (marker >= 0) {
+				responseStarted = true;
+				appendLine(response, line.substring(0, marker));
+				return response.toString().trim();
+			}
+			// neither the welcome line of a new connection nor the prompt left over
+			// from the previous response are an answer to the requests
+			if (!line.startsWith(WELCOME) && appendLine(response, line)) {
+				responseStarted = true;
 			}
-			instr.close();
-			out.close();
-			client.close();
-			return result;
-		} catch (IOException e) {
-			logger.error(e.getLocalizedMessage(), e);
 		}
-		return result;
+		throw new EOFException("Connection closed by pa-server " + host);
+	}
+	
+	/**
+	 * appends a line without its leading prompts
+	 * 
+	 * @return true if anything besides prompts was appended
+	 */
+	private boolean appendLine(StringBuilder response, String line) {
+		int start = 0;
+		while (line.startsWith(PROMPT, start)) {
+			start += PROMPT.length();
+		}
+		if (start < line.length()) {
+			response.append(line, start, line.length()).append('\n');
+			return true;
+		}
+		return false;
 	}
 
 	private void checkConnection() {
@@ -530,16 +665,21 @@ public class PulseaudioClient {
 	}
 
 	/**
-	 * Connects to the pulseaudio server (timeout 500ms)
+	 * Connects to the pulseaudio server
 	 */
 	private void connect() throws IOException {
 		try{
 			client = new Socket(host, port);
-			client.setSoTimeout(500);
+			client.setSoTimeout(READ_TIMEOUT);
+			client.setTcpNoDelay(true);
+			reader = new BufferedReader(new InputStreamReader(client.getInputStream(), UTF_8));
+			writer = client.getOutputStream();
 		} catch (UnknownHostException e) {
 			logger.error("unknown socket host "+host);
+			disconnect();
 		} catch (SocketException e) {
 			logger.error(e.getLocalizedMessage(),e);
+			disconnect();
 		}
 	}
 	
@@ -554,6 +694,9 @@ public class PulseaudioClient {
 				logger.error(e.getLocalizedMessage(), e);
 			}
 		}
+		client = null;
+		reader = null;
+		writer = null;
 	}
 	
 }
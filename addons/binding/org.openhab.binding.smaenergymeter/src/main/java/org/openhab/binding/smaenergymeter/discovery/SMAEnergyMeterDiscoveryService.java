@@ -11,6 +11,7 @@ package org.openhab.binding.smaenergymeter.discovery;
 import static org.openhab.binding.smaenergymeter.SMAEnergyMeterBindingConstants.*;
 
 import java.io.IOException;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -23,6 +24,7 @@ import org.eclipse.smarthome.core.thing.Thing;
 import org.eclipse.smarthome.core.thing.ThingTypeUID;
 import org.eclipse.smarthome.core.thing.ThingUID;
 import org.openhab.binding.smaenergymeter.handler.EnergyMeter;
+import org.openhab.binding.smaenergymeter.handler.EnergyMeterReceiver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,6 +38,9 @@ public class SMAEnergyMeterDiscoveryService extends AbstractDiscoveryService {
 
     private final static Logger logger = LoggerFactory.getLogger(SMAEnergyMeterDiscoveryService.class);
 
+    // Time to wait for telegrams, in milliseconds
+    private final static long DISCOVERY_TIMEOUT = 5000;
+
     public SMAEnergyMeterDiscoveryService() {
         super(SUPPORTED_THING_TYPES_UIDS, 15, true);
     }
@@ -65,21 +70,35 @@ public class SMAEnergyMeterDiscoveryService extends AbstractDiscoveryService {
     private synchronized void discover() {
         logger.debug("Try to discover a SMA Energy Meter device");
 
-        EnergyMeter energyMeter = new EnergyMeter(EnergyMeter.DEFAULT_MCAST_GRP, EnergyMeter.DEFAULT_MCAST_PORT);
+        Collection<EnergyMeter> energyMeters;
+        EnergyMeterReceiver receiver;
         try {
-            energyMeter.update();
+            receiver = EnergyMeterReceiver.acquire(EnergyMeter.DEFAULT_MCAST_GRP, EnergyMeter.DEFAULT_MCAST_PORT);
         } catch (IOException e) {
             logger.debug("No SMA Energy Meter found.");
             logger.debug("Diagnostic: ", e);
             return;
         }
+        try {
+            energyMeters = receiver.waitForMeters(DISCOVERY_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } finally {
+            receiver.release();
+        }
+
+        if (energyMeters.isEmpty()) {
+            logger.debug("No SMA Energy Meter found.");
+            return;
+        }
 
-        logger.debug("Adding a new SMA Engergy Meter with S/N '{}' to inbox", energyMeter.getSerialNumber());
-        Map<String, Object> properties = new HashMap<>();
-        properties.put(Thing.PROPERTY_VENDOR, "SMA");
-        properties.put(Thing.PROPERTY_SERIAL_NUMBER, energyMeter.getSerialNumber());
-        ThingUID uid = new ThingUID(THING_TYPE_ENERGY_METER, energyMeter.getSerialNumber());
-        if (uid != null) {
+        for (EnergyMeter energyMeter : energyMeters) {
+            logger.debug("Adding a new SMA Engergy Meter with S/N '{}' to inbox", energyMeter.getSerialNumber());
+            Map<String, Object> properties = new HashMap<>();
+            properties.put(Thing.PROPERTY_VENDOR, "SMA");
+            properties.put(Thing.PROPERTY_SERIAL_NUMBER, energyMeter.getSerialNumber());
+            ThingUID uid = new ThingUID(THING_TYPE_ENERGY_METER, energyMeter.getSerialNumber());
             DiscoveryResult result = DiscoveryResultBuilder.create(uid).withProperties(properties)
                     .withLabel("SMA Energy Meter").build();
             thingDiscovered(result);
@@ -8,28 +8,22 @@
  */
 package org.openhab.binding.smaenergymeter.handler;
 
-import java.io.IOException;
-import java.net.DatagramPacket;
-import java.net.InetAddress;
-import java.net.MulticastSocket;
-import java.nio.ByteBuffer;
-import java.util.Arrays;
 import java.util.Date;
 
 import org.eclipse.smarthome.core.library.types.DecimalType;
 
 /**
- * The {@link EnergyMeter} class is responsible for communication with the SMA device
- * and extracting the data fields out of the received telegrams.
+ * The {@link EnergyMeter} class holds the latest values received from one SMA device
+ * and extracts the data fields out of its telegrams. Telegrams are received by an
+ * {@link EnergyMeterReceiver}.
+ *
+ * Besides the latest values, the average power since the last call of {@link #resetAverage()} is kept.
  *
  * @author Osman Basha - Initial contribution
  */
 public class EnergyMeter {
 
-    private String multicastGroup;
-    private int port;
-
-    private String serialNumber;
+    private final String serialNumber;
     private Date lastUpdate;
 
     private final FieldDTO powerIn;
@@ -37,12 +31,25 @@ public class EnergyMeter {
     private final FieldDTO powerOut;
     private final FieldDTO energyOut;
 
+    private double powerInSum;
+    private double powerOutSum;
+    private int samples;
+
     public static final String DEFAULT_MCAST_GRP = "239.12.255.254";
     public static final int DEFAULT_MCAST_PORT = 9522;
 
-    public EnergyMeter(String multicastGroup, int port) {
-        this.multicastGroup = multicastGroup;
-        this.port = port;
+    /**
+     * Offset of the serial number in a telegram
+     */
+    private static final int SERIAL_NUMBER_ADDRESS = 0x14;
+
+    /**
+     * Minimum length of a telegram holding all fields
+     */
+    static final int MIN_TELEGRAM_LENGTH = 0x44;
+
+    public EnergyMeter(String serialNumber) {
+        this.serialNumber = serialNumber;
 
         powerIn = new FieldDTO(0x20, 4, 10);
         energyIn = new FieldDTO(0x28, 8, 3600000);
@@ -50,57 +57,81 @@ public class EnergyMeter {
         energyOut = new FieldDTO(0x3C, 8, 3600000);
     }
 
-    public void update() throws IOException {
-        byte[] bytes = new byte[600];
-        try (MulticastSocket socket = new MulticastSocket(port)) {
-            socket.setSoTimeout(5000);
-            InetAddress address = InetAddress.getByName(multicastGroup);
-            socket.joinGroup(address);
-
-            DatagramPacket msgPacket = new DatagramPacket(bytes, bytes.length);
-            socket.receive(msgPacket);
-
-            String sma = new String(Arrays.copyOfRange(bytes, 0x00, 0x03));
-            if (!sma.equals("SMA")) {
-                throw new IOException("Not a SMA telegram." + sma);
-            }
-
-            ByteBuffer buffer = ByteBuffer.wrap(Arrays.copyOfRange(bytes, 0x14, 0x18));
-            serialNumber = String.valueOf(buffer.getInt());
-
-            powerIn.updateValue(bytes);
-            energyIn.updateValue(bytes);
-            powerOut.updateValue(bytes);
-            energyOut.updateValue(bytes);
-
-            lastUpdate = new Date(System.currentTimeMillis());
-        } catch (Exception e) {
-            throw new IOException(e);
+    /**
+     * Returns the serial number of the device which sent the telegram
+     *
+     * @param bytes the received telegram
+     * @param length the length of the received telegram
+     * @return the serial number, or null if this is not a complete SMA telegram
+     */
+    static String getSerialNumber(byte[] bytes, int length) {
+        if (length < MIN_TELEGRAM_LENGTH || bytes[0] != 'S' || bytes[1] != 'M' || bytes[2] != 'A') {
+            return null;
         }
+        return String.valueOf(FieldDTO.readInt(bytes, SERIAL_NUMBER_ADDRESS));
+    }
+
+    /**
+     * Decodes the fields of a telegram of this device
+     *
+     * @param bytes the received telegram, of at least {@link #MIN_TELEGRAM_LENGTH} bytes
+     */
+    synchronized void update(byte[] bytes) {
+        powerIn.updateValue(bytes);
+        energyIn.updateValue(bytes);
+        powerOut.updateValue(bytes);
+        energyOut.updateValue(bytes);
+
+        powerInSum += powerIn.getValue();
+        powerOutSum += powerOut.getValue();
+        samples++;
+
+        lastUpdate = new Date(System.currentTimeMillis());
     }
 
     public String getSerialNumber() {
         return serialNumber;
     }
 
-    public Date getLastUpdate() {
+    public synchronized Date getLastUpdate() {
         return lastUpdate;
     }
 
-    public DecimalType getPowerIn() {
+    public synchronized DecimalType getPowerIn() {
         return new DecimalType(powerIn.getValue());
     }
 
-    public DecimalType getPowerOut() {
+    public synchronized DecimalType getPowerOut() {
         return new DecimalType(powerOut.getValue());
     }
 
-    public DecimalType getEnergyIn() {
+    public synchronized DecimalType getEnergyIn() {
         return new DecimalType(energyIn.getValue());
     }
 
-    public DecimalType getEnergyOut() {
+    public synchronized DecimalType getEnergyOut() {
         return new DecimalType(energyOut.getValue());
     }
 
+    /**
+     * Returns the average purchased power since the last reset, or the latest value if no telegram was received since
+     */
+    public synchronized DecimalType getAveragePowerIn() {
+        return samples == 0 ? getPowerIn() : new DecimalType((float) (powerInSum / samples));
+    }
+
+    /**
+     * Returns the average grid feed-in power since the last reset, or the latest value if no telegram was received
+     * since
+     */
+    public synchronized DecimalType getAveragePowerOut() {
+        return samples == 0 ? getPowerOut() : new DecimalType((float) (powerOutSum / samples));
+    }
+
+    public synchronized void resetAverage() {
+        powerInSum = 0;
+        powerOutSum = 0;
+        samples = 0;
+    }
+
 }
@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.smaenergymeter.handler;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.MulticastSocket;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link EnergyMeterReceiver} class keeps a multicast group joined and continuously
+ * decodes the telegrams sent to it. The latest values are kept per serial number, so
+ * several devices sending to the same group are served by one socket.
+ *
+ * There is one receiver per multicast group and port, shared by all its users.
+ *
+ * @author agent - Initial contribution
+ */
+public class EnergyMeterReceiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(EnergyMeterReceiver.class);
+
+    private static final Map<String, EnergyMeterReceiver> receivers = new HashMap<>();
+
+    private final String key;
+    private final String multicastGroup;
+    private final int port;
+    private int users;
+
+    private MulticastSocket socket;
+
+    private final ConcurrentMap<String, EnergyMeter> meters = new ConcurrentHashMap<>();
+
+    private EnergyMeterReceiver(String key, String multicastGroup, int port) {
+        this.key = key;
+        this.multicastGroup = multicastGroup;
+        this.port = port;
+    }
+
+    /**
+     * Returns the receiver for the given multicast group and port, which is started if it is not yet in use.
+     * Every call must be matched by a call of {@link #release()}.
+     *
+     * @throws IOException if the multicast group cannot be joined
+     */
+    public static EnergyMeterReceiver acquire(String multicastGroup, int port) throws IOException {
+        String key = multicastGroup + ":" + port;
+        synchronized (receivers) {
+            EnergyMeterReceiver receiver = receivers.get(key);
+            if (receiver == null) {
+                receiver = new EnergyMeterReceiver(key, multicastGroup, port);
+                receiver.start();
+                receivers.put(key, receiver);
+            }
+            receiver.users++;
+            return receiver;
+        }
+    }
+
+    /**
+     * Releases the receiver, which is stopped once it is no longer used.
+     */
+    public void release() {
+        synchronized (receivers) {
+            if (--users == 0) {
+                receivers.remove(key);
+                stop();
+            }
+        }
+    }
+
+    /**
+     * Returns the device with the given serial number, or null if no telegram has been received from it
+     */
+    public EnergyMeter getMeter(String serialNumber) {
+        return meters.get(serialNumber);
+    }
+
+    /**
+     * Returns all devices from which telegrams have been received
+     */
+    public Collection<EnergyMeter> getMeters() {
+        return new ArrayList<>(meters.values());
+    }
+
+    /**
+     * Listens for the given time, so that every device sending to the multicast group is heard
+     *
+     * @param timeout the time to listen in milliseconds
+     * @return all devices from which telegrams have been received, empty if none was received in time
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public Collection<EnergyMeter> waitForMeters(long timeout) throws InterruptedException {
+        Thread.sleep(timeout);
+        return getMeters();
+    }
+
+    private void start() throws IOException {
+        socket = new MulticastSocket(port);
+        try {
+            socket.joinGroup(InetAddress.getByName(multicastGroup));
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+
+        Thread receiverThread = new Thread("SMA Energy Meter receiver " + key) {
+            @Override
+            public void run() {
+                receive(socket);
+            }
+        };
+        receiverThread.setDaemon(true);
+        receiverThread.start();
+        logger.debug("Joined multicast group {}", key);
+    }
+
+    private void stop() {
+        // closing the socket ends the receiver thread
+        socket.close();
+        logger.debug("Left multicast group {}", key);
+    }
+
+    private void receive(MulticastSocket socket) {
+        byte[] bytes = new byte[600];
+        DatagramPacket packet = new DatagramPacket(bytes, bytes.length);
+
+        while (!socket.isClosed()) {
+            try {
+                packet.setLength(bytes.length);
+                socket.receive(packet);
+
+                String serialNumber = EnergyMeter.getSerialNumber(bytes, packet.getLength());
+                if (serialNumber == null) {
+                    logger.trace("Ignoring a telegram of {} bytes which is not a SMA telegram", packet.getLength());
+                    continue;
+                }
+
+                EnergyMeter meter = meters.get(serialNumber);
+                if (meter == null) {
+                    meter = new EnergyMeter(serialNumber);
+                    meter.update(bytes);
+                    meters.put(serialNumber, meter);
+                    logger.debug("Receiving telegrams of SMA Energy Meter with S/N '{}' on {}", serialNumber, key);
+                } else {
+                    meter.update(bytes);
+                }
+            } catch (IOException e) {
+                if (!socket.isClosed()) {
+                    logger.warn("Error receiving from multicast group {}: {}", key, e.getMessage());
+                    try {
+                        Thread.sleep(1000);
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+}
@@ -8,9 +8,6 @@
  */
 package org.openhab.binding.smaenergymeter.handler;
 
-import java.nio.ByteBuffer;
-import java.util.Arrays;
-
 /**
  * The {@link FieldDTO} class holds the data for a single field (i.e. the power purchased).
  *
@@ -36,22 +33,26 @@ public class FieldDTO {
         return value;
     }
 
+    /**
+     * Decodes the value of this field from a telegram, in place
+     *
+     * @param bytes the received telegram
+     */
     public void updateValue(byte[] bytes) {
         if (length == 4) {
-            value = (float) bytesToUInt16(Arrays.copyOfRange(bytes, address, address + 4)) / divisor;
+            value = (float) readInt(bytes, address) / divisor;
         } else {
-            value = (float) bytesToUInt32(Arrays.copyOfRange(bytes, address, address + 8)) / divisor;
+            value = (float) (((long) readInt(bytes, address) << 32) | (readInt(bytes, address + 4) & 0xFFFFFFFFL))
+                    / divisor;
         }
     }
 
-    private int bytesToUInt16(byte[] bytes) {
-        ByteBuffer buffer = ByteBuffer.wrap(bytes);
-        return buffer.getInt();
-    }
-
-    private long bytesToUInt32(byte[] bytes) {
-        ByteBuffer buffer = ByteBuffer.wrap(bytes);
-        return buffer.getLong();
+    /**
+     * Reads a big-endian 32 bit integer at the given offset of a telegram
+     */
+    static int readInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF) << 24 | (bytes[offset + 1] & 0xFF) << 16 | (bytes[offset + 2] & 0xFF) << 8
+                | (bytes[offset + 3] & 0xFF);
     }
 
 }
@@ -11,6 +11,7 @@ package org.openhab.binding.smaenergymeter.handler;
 import static org.openhab.binding.smaenergymeter.SMAEnergyMeterBindingConstants.*;
 
 import java.io.IOException;
+import java.util.Collection;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
@@ -33,8 +34,15 @@ import org.slf4j.LoggerFactory;
  */
 public class SMAEnergyMeterHandler extends BaseThingHandler {
 
+    /**
+     * Time after which the device is considered offline if no telegram was received, it sends one every second
+     */
+    private static final long TELEGRAM_TIMEOUT = 5000;
+
     private Logger logger = LoggerFactory.getLogger(SMAEnergyMeterHandler.class);
-    private EnergyMeter energyMeter;
+    private EnergyMeterReceiver receiver;
+    private String serialNumber;
+    private boolean averaging;
     private ScheduledFuture<?> pollingJob;
 
     public SMAEnergyMeterHandler(Thing thing) {
@@ -58,28 +66,29 @@ public class SMAEnergyMeterHandler extends BaseThingHandler {
         EnergyMeterConfig config = getConfigAs(EnergyMeterConfig.class);
 
         int port = (config.getPort() == null) ? EnergyMeter.DEFAULT_MCAST_PORT : config.getPort();
-        energyMeter = new EnergyMeter(config.getMcastGroup(), port);
         try {
-            energyMeter.update();
-
-            updateProperty(Thing.PROPERTY_VENDOR, "SMA");
-            updateProperty(Thing.PROPERTY_SERIAL_NUMBER, energyMeter.getSerialNumber());
-            logger.debug("Found a SMA Energy Meter with S/N '{}'", energyMeter.getSerialNumber());
+            receiver = EnergyMeterReceiver.acquire(config.getMcastGroup(), port);
         } catch (IOException e) {
             updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.OFFLINE.CONFIGURATION_ERROR, e.getMessage());
             return;
         }
 
+        // Without a serial number, the first device sending to the multicast group is used
+        serialNumber = getThing().getProperties().get(Thing.PROPERTY_SERIAL_NUMBER);
+        averaging = (config.getAveraging() != null) && config.getAveraging();
+
+        // The status is known once the first telegram has been checked
+        updateStatus(ThingStatus.UNKNOWN);
+
         int pollingPeriod = (config.getPollingPeriod() == null) ? 30 : config.getPollingPeriod();
+        // The device sends a telegram every second, so the first one should have been received after 2 seconds
         pollingJob = scheduler.scheduleWithFixedDelay(new Runnable() {
             @Override
             public void run() {
                 updateData();
             }
-        }, 0, pollingPeriod, TimeUnit.SECONDS);
+        }, 2, pollingPeriod, TimeUnit.SECONDS);
         logger.debug("Polling job scheduled to run every {} sec. for '{}'", pollingPeriod, getThing().getUID());
-
-        updateStatus(ThingStatus.ONLINE);
     }
 
     @Override
@@ -90,26 +99,59 @@ public class SMAEnergyMeterHandler extends BaseThingHandler {
             pollingJob.cancel(true);
             pollingJob = null;
         }
-        energyMeter = null;
+        if (receiver != null) {
+            receiver.release();
+            receiver = null;
+        }
     }
 
     private synchronized void updateData() {
         logger.debug("Update SMAEnergyMeter data '{}'", getThing().getUID());
 
-        try {
-            energyMeter.update();
+        if (receiver == null) {
+            return;
+        }
+
+        EnergyMeter energyMeter = findEnergyMeter();
+        if (energyMeter == null || energyMeter.getLastUpdate() == null
+                || System.currentTimeMillis() - energyMeter.getLastUpdate().getTime() > TELEGRAM_TIMEOUT) {
+            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.OFFLINE.COMMUNICATION_ERROR,
+                    "No telegram received from the SMA Energy Meter");
+            return;
+        }
 
+        if (averaging) {
+            updateState(CHANNEL_POWER_IN, energyMeter.getAveragePowerIn());
+            updateState(CHANNEL_POWER_OUT, energyMeter.getAveragePowerOut());
+        } else {
             updateState(CHANNEL_POWER_IN, energyMeter.getPowerIn());
             updateState(CHANNEL_POWER_OUT, energyMeter.getPowerOut());
-            updateState(CHANNEL_ENERGY_IN, energyMeter.getEnergyIn());
-            updateState(CHANNEL_ENERGY_OUT, energyMeter.getEnergyOut());
+        }
+        energyMeter.resetAverage();
+        updateState(CHANNEL_ENERGY_IN, energyMeter.getEnergyIn());
+        updateState(CHANNEL_ENERGY_OUT, energyMeter.getEnergyOut());
 
-            if (getThing().getStatus().equals(ThingStatus.OFFLINE)) {
-                updateStatus(ThingStatus.ONLINE);
-            }
-        } catch (IOException e) {
-            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.OFFLINE.COMMUNICATION_ERROR, e.getMessage());
+        if (!getThing().getStatus().equals(ThingStatus.ONLINE)) {
+            updateStatus(ThingStatus.ONLINE);
         }
     }
 
+    private EnergyMeter findEnergyMeter() {
+        if (serialNumber != null) {
+            return receiver.getMeter(serialNumber);
+        }
+
+        Collection<EnergyMeter> energyMeters = receiver.getMeters();
+        if (energyMeters.isEmpty()) {
+            return null;
+        }
+
+        EnergyMeter energyMeter = energyMeters.iterator().next();
+        serialNumber = energyMeter.getSerialNumber();
+        updateProperty(Thing.PROPERTY_VENDOR, "SMA");
+        updateProperty(Thing.PROPERTY_SERIAL_NUMBER, serialNumber);
+        logger.debug("Found a SMA Energy Meter with S/N '{}'", serialNumber);
+        return energyMeter;
+    }
+
 }
@@ -117,9 +117,20 @@ public class SqueezeBoxPlayerHandler extends BaseThingHandler implements Squeeze
 
     private void updateBridgeStatus() {
         ThingStatus bridgeStatus = getBridge().getStatus();
-        if (bridgeStatus == ThingStatus.ONLINE && getThing().getStatus() != ThingStatus.ONLINE) {
-            updateStatus(ThingStatus.ONLINE, ThingStatusDetail.NONE);
-            squeezeBoxServerHandler = (SqueezeBoxServerHandler) getBridge().getHandler();
+        if (bridgeStatus == ThingStatus.ONLINE) {
+            // the bridge handler may have been replaced while we stayed online,
+            // so always register with the current one
+            SqueezeBoxServerHandler serverHandler = (SqueezeBoxServerHandler) getBridge().getHandler();
+            if (squeezeBoxServerHandler != null && squeezeBoxServerHandler != serverHandler) {
+                squeezeBoxServerHandler.unregisterPlayerHandler(this);
+            }
+            squeezeBoxServerHandler = serverHandler;
+            if (squeezeBoxServerHandler != null) {
+                squeezeBoxServerHandler.registerPlayerHandler(this);
+            }
+            if (getThing().getStatus() != ThingStatus.ONLINE) {
+                updateStatus(ThingStatus.ONLINE, ThingStatusDetail.NONE);
+            }
         } else if (bridgeStatus == ThingStatus.OFFLINE) {
             updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.BRIDGE_OFFLINE);
         }
@@ -134,6 +145,7 @@ public class SqueezeBoxPlayerHandler extends BaseThingHandler implements Squeeze
         }
 
         if (squeezeBoxServerHandler != null) {
+            squeezeBoxServerHandler.unregisterPlayerHandler(this);
             squeezeBoxServerHandler.removePlayerCache(mac);
         }
         logger.debug("player thing {} disposed.", getThing().getUID());
@@ -18,12 +18,16 @@ import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
 import java.net.Socket;
 import java.net.URLDecoder;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
@@ -64,15 +68,31 @@ public class SqueezeBoxServerHandler extends BaseBridgeHandler {
     private static final int VOLUME_CHANGE_SIZE = 5;
     private static final String NEW_LINE = System.getProperty("line.separator");
 
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    // maximum number of commands waiting to be sent to the server
+    private static final int COMMAND_QUEUE_SIZE = 100;
+
+    // minimum time in milliseconds between two playing time updates of a player
+    private static final long TIME_UPDATE_INTERVAL = 1000;
+
     private List<SqueezeBoxPlayerEventListener> squeezeBoxPlayerListeners = Collections
             .synchronizedList(new ArrayList<SqueezeBoxPlayerEventListener>());
     private Map<String, SqueezeBoxPlayer> players = Collections
             .synchronizedMap(new HashMap<String, SqueezeBoxPlayer>());
-    // client socket and listener thread
+    // player handlers by mac address
+    private Map<String, SqueezeBoxPlayerHandler> playerHandlers = new ConcurrentHashMap<String, SqueezeBoxPlayerHandler>();
+    // client socket, listener and writer thread
     private Socket clientSocket;
     private SqueezeServerListener listener;
+    private SqueezeServerWriter writer;
+    private BlockingQueue<String> commandQueue = new LinkedBlockingQueue<String>(COMMAND_QUEUE_SIZE);
     private ScheduledFuture<?> reconnectFuture;
 
+    // playing time updates which are held back, and the time of the last update by mac address
+    private Map<String, Integer> pendingTimes = new HashMap<String, Integer>();
+    private Map<String, Long> timeUpdates = new HashMap<String, Long>();
+
     private String host;
 
     private int cliport;
@@ -262,7 +282,8 @@ public class SqueezeBoxServerHandler extends BaseBridgeHandler {
     }
 
     /**
-     * Send a command to the Squeeze Server.
+     * Send a command to the Squeeze Server. The command is queued and written
+     * by the writer thread, together with all other commands queued by then.
      */
     private synchronized void sendCommand(String command) {
 
@@ -275,13 +296,8 @@ public class SqueezeBoxServerHandler extends BaseBridgeHandler {
             return;
         }
 
-        logger.debug("Sending command: {}", command);
-        try {
-            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(clientSocket.getOutputStream()));
-            writer.write(command + NEW_LINE);
-            writer.flush();
-        } catch (IOException e) {
-            logger.error("Error while sending command to Squeeze Server (" + command + ")", e);
+        if (!commandQueue.offer(command)) {
+            logger.warn("command queue to squeeze server is full, dropping command: {}", command);
         }
     }
 
@@ -310,6 +326,8 @@ public class SqueezeBoxServerHandler extends BaseBridgeHandler {
         }
 
         try {
+            writer = new SqueezeServerWriter(clientSocket);
+            writer.start();
             listener = new SqueezeServerListener();
             listener.start();
             logger.debug("listener connection started to server {}:{}", host, cliport);
@@ -330,6 +348,9 @@ public class SqueezeBoxServerHandler extends BaseBridgeHandler {
             if (listener != null) {
                 listener.terminate();
             }
+            if (writer != null) {
+                writer.terminate();
+            }
             if (clientSocket != null) {
                 clientSocket.close();
             }
@@ -339,11 +360,58 @@ public class SqueezeBoxServerHandler extends BaseBridgeHandler {
         } finally {
             clientSocket = null;
             listener = null;
+            writer = null;
+            commandQueue.clear();
         }
         players.clear();
         logger.trace("Squeeze Server connection stopped.");
     }
 
+    /**
+     * Writes the queued commands to the server over one long-lived writer,
+     * flushing once for all commands which are queued at the same time.
+     */
+    private class SqueezeServerWriter extends Thread {
+        private final Socket socket;
+        private volatile boolean terminate = false;
+
+        public SqueezeServerWriter(Socket socket) {
+            super("Squeeze Server Writer");
+            this.socket = socket;
+        }
+
+        public void terminate() {
+            logger.debug("setting squeeze server writer terminate flag");
+            this.terminate = true;
+            interrupt();
+        }
+
+        @Override
+        public void run() {
+            BufferedWriter writer = null;
+            String command = null;
+            try {
+                writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream()));
+                while (!terminate) {
+                    command = commandQueue.take();
+                    do {
+                        logger.debug("Sending command: {}", command);
+                        writer.write(command);
+                        writer.write(NEW_LINE);
+                    } while ((command = commandQueue.poll()) != null);
+                    writer.flush();
+                }
+            } catch (InterruptedException e) {
+                // terminated
+            } catch (IOException e) {
+                if (!terminate) {
+                    logger.error("Error while sending command to Squeeze Server (" + command + ")", e);
+                }
+            }
+            logger.debug("Squeeze Server writer exiting.");
+        }
+    }
+
     private class SqueezeServerListener extends Thread {
         private boolean terminate = false;
 
@@ -413,81 +481,138 @@ public class SqueezeBoxServerHandler extends BaseBridgeHandler {
             logger.debug("Squeeze Server listener exiting.");
         }
 
+        /**
+         * Decodes a URL encoded part of a message in a single pass. Parts
+         * without escapes, like most numeric values, are returned as they are.
+         */
         private String decode(String raw) {
-            try {
-                return URLDecoder.decode(raw, "UTF-8");
-            } catch (UnsupportedEncodingException e) {
-                logger.debug("Failed to decode '" + raw + "'", e);
-                return null;
+            if (raw.indexOf('%') < 0 && raw.indexOf('+') < 0) {
+                return raw;
+            }
+            byte[] bytes = new byte[raw.length()];
+            int length = 0;
+            for (int i = 0; i < raw.length(); i++) {
+                char c = raw.charAt(i);
+                if (c == '+') {
+                    bytes[length++] = ' ';
+                } else if (c == '%') {
+                    int high = i + 2 < raw.length() ? Character.digit(raw.charAt(i + 1), 16) : -1;
+                    int low = i + 2 < raw.length() ? Character.digit(raw.charAt(i + 2), 16) : -1;
+                    if (high < 0 || low < 0) {
+                        logger.debug("Failed to decode '{}'", raw);
+                        return null;
+                    }
+                    bytes[length++] = (byte) ((high << 4) + low);
+                    i += 2;
+                } else if (c < 0x80) {
+                    bytes[length++] = (byte) c;
+                } else {
+                    // not expected from the server, leave it to the URLDecoder
+                    try {
+                        return URLDecoder.decode(raw, "UTF-8");
+                    } catch (UnsupportedEncodingException | IllegalArgumentException e) {
+                        logger.debug("Failed to decode '" + raw + "'", e);
+                        return null;
+                    }
+                }
             }
+            return new String(bytes, 0, length, UTF_8);
         }
 
-        private void handlePlayersList(String message) {
-
-            // Split out players
-            String[] playersList = message.split("playerindex\\S*\\s");
-            for (String playerParams : playersList) {
+        /**
+         * Splits a message into its space separated parts
+         */
+        private String[] split(String message) {
+            int count = 1;
+            for (int i = message.indexOf(' '); i >= 0; i = message.indexOf(' ', i + 1)) {
+                count++;
+            }
+            String[] parts = new String[count];
+            int start = 0;
+            for (int i = 0; i < count - 1; i++) {
+                int end = message.indexOf(' ', start);
+                parts[i] = message.substring(start, end);
+                start = end + 1;
+            }
+            parts[count - 1] = message.substring(start);
+            return parts;
+        }
 
-                // For each player, split out parameters and decode parameter
-                String[] parameterList = playerParams.split("\\s");
-                for (int i = 0; i < parameterList.length; i++) {
-                    parameterList[i] = decode(parameterList[i]);
-                }
+        private void handlePlayersList(String message) {
 
-                // parse out the MAC address first
-                String macAddress = null;
-                for (String parameter : parameterList) {
-                    if (parameter.contains("playerid")) {
-                        macAddress = parameter.substring(parameter.indexOf(":") + 1);
-                        break;
+            // Split out players, the parameters of each player follow its playerindex
+            List<String> parameterList = new ArrayList<String>();
+            for (String part : split(message)) {
+                if (part.startsWith("playerindex")) {
+                    handlePlayerParameters(parameterList);
+                    parameterList.clear();
+                } else {
+                    String parameter = decode(part);
+                    if (parameter != null) {
+                        parameterList.add(parameter);
                     }
                 }
+            }
+            handlePlayerParameters(parameterList);
+        }
 
-                // if none found then ignore this set of params
-                if (macAddress == null) {
-                    continue;
+        private void handlePlayerParameters(List<String> parameterList) {
+            // parse out the MAC address first
+            String macAddress = null;
+            for (String parameter : parameterList) {
+                if (parameter.contains("playerid")) {
+                    macAddress = parameter.substring(parameter.indexOf(":") + 1);
+                    break;
                 }
+            }
 
-                final SqueezeBoxPlayer player = new SqueezeBoxPlayer();
-                player.setMacAddress(macAddress);
-                // populate the player state
-                for (String parameter : parameterList) {
-                    if (parameter.contains("ip")) {
-                        player.setIpAddr(parameter.substring(parameter.indexOf(":") + 1));
-                    } else if (parameter.contains("uuid")) {
-                        player.setUuid(parameter.substring(parameter.indexOf(":") + 1));
-                    } else if (parameter.contains("name")) {
-                        player.setName(parameter.substring(parameter.indexOf(":") + 1));
-                    } else if (parameter.contains("model")) {
-                        player.setModel(parameter.substring(parameter.indexOf(":") + 1));
-                    }
+            // if none found then ignore this set of params
+            if (macAddress == null) {
+                return;
+            }
+
+            final SqueezeBoxPlayer player = new SqueezeBoxPlayer();
+            player.setMacAddress(macAddress);
+            // populate the player state
+            for (String parameter : parameterList) {
+                if (parameter.contains("ip")) {
+                    player.setIpAddr(parameter.substring(parameter.indexOf(":") + 1));
+                } else if (parameter.contains("uuid")) {
+                    player.setUuid(parameter.substring(parameter.indexOf(":") + 1));
+                } else if (parameter.contains("name")) {
+                    player.setName(parameter.substring(parameter.indexOf(":") + 1));
+                } else if (parameter.contains("model")) {
+                    player.setModel(parameter.substring(parameter.indexOf(":") + 1));
                 }
+            }
 
-                // Save player if we haven't seen it yet
-                if (!players.containsKey(macAddress)) {
-                    players.put(macAddress, player);
+            // Save player if we haven't seen it yet
+            if (!players.containsKey(macAddress)) {
+                players.put(macAddress, player);
 
-                    updatePlayer(new PlayerUpdateEvent() {
-                        @Override
-                        public void updateListener(SqueezeBoxPlayerEventListener listener) {
-                            listener.playerAdded(player);
-                        }
-                    });
+                updatePlayer(macAddress, new PlayerUpdateEvent() {
+                    @Override
+                    public void updateListener(SqueezeBoxPlayerEventListener listener) {
+                        listener.playerAdded(player);
+                    }
+                });
 
-                    // tell the server we want to subscribe to player updates
-                    sendCommand(player.getMacAddress() + " status - 1 subscribe:10 tags:yagJlN");
-                }
+                // tell the server we want to subscribe to player updates
+                sendCommand(player.getMacAddress() + " status - 1 subscribe:10 tags:yagJlN");
             }
         }
 
         private void handlePlayerUpdate(String message) {
-            String[] messageParts = message.split("\\s");
+            String[] messageParts = split(message);
             if (messageParts.length < 2) {
                 logger.warn("Invalid message - expecting at least 2 parts. Ignoring.");
                 return;
             }
 
             final String mac = decode(messageParts[0]);
+            if (mac == null) {
+                return;
+            }
 
             // get the message type
             String messageType = messageParts[1];
@@ -500,7 +625,7 @@ public class SqueezeBoxServerHandler extends BaseBridgeHandler {
                 handlePrefsetMessage(mac, messageParts);
             } else if (messageType.equals("ir")) {
                 final String ircode = messageParts[2];
-                updatePlayer(new PlayerUpdateEvent() {
+                updatePlayer(mac, new PlayerUpdateEvent() {
                     @Override
                     public void updateListener(SqueezeBoxPlayerEventListener listener) {
                         listener.irCodeChangeEvent(mac, ircode);
@@ -522,172 +647,181 @@ public class SqueezeBoxServerHandler extends BaseBridgeHandler {
 
         private void handleStatusMessage(final String mac, String[] messageParts) {
             for (String messagePart : messageParts) {
-                // Parameter Power
-                if (messagePart.startsWith("power%3A")) {
-                    String value = messagePart.substring("power%3A".length());
-                    final boolean power = value.matches("1");
-                    updatePlayer(new PlayerUpdateEvent() {
-                        @Override
-                        public void updateListener(SqueezeBoxPlayerEventListener listener) {
-                            listener.powerChangeEvent(mac, power);
-                        }
-                    });
-                }
-                // Parameter Volume
-                else if (messagePart.startsWith("mixer%20volume%3A")) {
-                    String value = messagePart.substring("mixer%20volume%3A".length());
-                    final int volume = (int) Double.parseDouble(value);
-                    updatePlayer(new PlayerUpdateEvent() {
-                        @Override
-                        public void updateListener(SqueezeBoxPlayerEventListener listener) {
-                            listener.volumeChangeEvent(mac, volume);
-                            ;
-                        }
-                    });
-                }
-                // Parameter Mode
-                else if (messagePart.startsWith("mode%3A")) {
-                    final String mode = messagePart.substring("mode%3A".length());
-                    updatePlayer(new PlayerUpdateEvent() {
-                        @Override
-                        public void updateListener(SqueezeBoxPlayerEventListener listener) {
-                            listener.modeChangeEvent(mac, mode);
-                        }
-                    });
-                }
-                // Parameter Playing Time
-                else if (messagePart.startsWith("time%3A")) {
-                    String value = messagePart.substring("time%3A".length());
-                    final int time = (int) Double.parseDouble(value);
-                    updatePlayer(new PlayerUpdateEvent() {
-                        @Override
-                        public void updateListener(SqueezeBoxPlayerEventListener listener) {
-                            listener.currentPlayingTimeEvent(mac, time);
-                        }
-                    });
-                }
-                // Parameter Playing Playlist Index
-                else if (messagePart.startsWith("playlist_cur_index%3A")) {
-                    String value = messagePart.substring("playlist_cur_index%3A".length());
-                    // player.setCurrentPlaylistIndex((int)
-                    // Integer.parseInt(value));
-                    final int index = (int) Double.parseDouble(value);
-                    updatePlayer(new PlayerUpdateEvent() {
-                        @Override
-                        public void updateListener(SqueezeBoxPlayerEventListener listener) {
-                            listener.currentPlaylistIndexEvent(mac, index);
-                        }
-                    });
-                }
-                // Parameter Playlist Number Tracks
-                else if (messagePart.startsWith("playlist_tracks%3A")) {
-                    String value = messagePart.substring("playlist_tracks%3A".length());
-                    final int track = (int) Double.parseDouble(value);
-                    updatePlayer(new PlayerUpdateEvent() {
-                        @Override
-                        public void updateListener(SqueezeBoxPlayerEventListener listener) {
-                            listener.numberPlaylistTracksEvent(mac, track);
-                        }
-                    });
-                }
-                // Parameter Playlist Repeat Mode
-                else if (messagePart.startsWith("playlist%20repeat%3A")) {
-                    String value = messagePart.substring("playlist%20repeat%3A".length());
-                    final int repeat = (int) Double.parseDouble(value);
-                    updatePlayer(new PlayerUpdateEvent() {
-                        @Override
-                        public void updateListener(SqueezeBoxPlayerEventListener listener) {
-                            listener.currentPlaylistRepeatEvent(mac, repeat);
-                        }
-                    });
-                }
-                // Parameter Playlist Shuffle Mode
-                else if (messagePart.startsWith("playlist%20shuffle%3A")) {
-                    String value = messagePart.substring("playlist%20shuffle%3A".length());
-                    final int shuffle = (int) Double.parseDouble(value);
-                    updatePlayer(new PlayerUpdateEvent() {
-                        @Override
-                        public void updateListener(SqueezeBoxPlayerEventListener listener) {
-                            listener.currentPlaylistShuffleEvent(mac, shuffle);
-                        }
-                    });
-                }
-                // Parameter Title
-                else if (messagePart.startsWith("title%3A")) {
-                    final String value = messagePart.substring("title%3A".length());
-                    updatePlayer(new PlayerUpdateEvent() {
-                        @Override
-                        public void updateListener(SqueezeBoxPlayerEventListener listener) {
-                            listener.titleChangeEvent(mac, decode(value));
-                        }
-                    });
-
-                }
-                // Parameter Remote Title (radio)
-                else if (messagePart.startsWith("remote_title%3A")) {
-                    final String value = messagePart.substring("remote_title%3A".length());
-                    updatePlayer(new PlayerUpdateEvent() {
-                        @Override
-                        public void updateListener(SqueezeBoxPlayerEventListener listener) {
-                            listener.remoteTitleChangeEvent(mac, decode(value));
-                        }
-                    });
-                }
-                // Parameter Artist
-                else if (messagePart.startsWith("artist%3A")) {
-                    final String value = messagePart.substring("artist%3A".length());
-                    updatePlayer(new PlayerUpdateEvent() {
-                        @Override
-                        public void updateListener(SqueezeBoxPlayerEventListener listener) {
-                            listener.artistChangeEvent(mac, decode(value));
-                        }
-                    });
-                }
-                // Parameter Album
-                else if (messagePart.startsWith("album%3A")) {
-                    final String value = messagePart.substring("album%3A".length());
-                    updatePlayer(new PlayerUpdateEvent() {
-                        @Override
-                        public void updateListener(SqueezeBoxPlayerEventListener listener) {
-                            listener.albumChangeEvent(mac, decode(value));
-                        }
-                    });
-                }
-                // Parameter Genre
-                else if (messagePart.startsWith("genre%3A")) {
-                    final String value = messagePart.substring("genre%3A".length());
-                    updatePlayer(new PlayerUpdateEvent() {
-                        @Override
-                        public void updateListener(SqueezeBoxPlayerEventListener listener) {
-                            listener.genreChangeEvent(mac, decode(value));
-                        }
-                    });
-                }
-                // Parameter Year
-                else if (messagePart.startsWith("year%3A")) {
-                    final String value = messagePart.substring("year%3A".length());
-                    updatePlayer(new PlayerUpdateEvent() {
-                        @Override
-                        public void updateListener(SqueezeBoxPlayerEventListener listener) {
-                            listener.yearChangeEvent(mac, decode(value));
-                        }
-                    });
+                // the parameter name is everything up to the encoded colon
+                int separator = messagePart.indexOf("%3A");
+                if (separator < 0) {
+                    continue;
                 }
-                // Parameter Artwork
-                else if (messagePart.startsWith("artwork_track_id%3A")) {
-                    String url = messagePart.substring("artwork_track_id%3A".length());
-                    // NOTE: what is returned if not an artwork id? i.e. if a
-                    // space?
-                    if (!url.startsWith(" ")) {
-                        url = "http://" + host + ":" + webport + "/music/" + url + "/cover.jpg";
+                String value = messagePart.substring(separator + "%3A".length());
+
+                switch (messagePart.substring(0, separator)) {
+                    // Parameter Power
+                    case "power": {
+                        final boolean power = value.equals("1");
+                        updatePlayer(mac, new PlayerUpdateEvent() {
+                            @Override
+                            public void updateListener(SqueezeBoxPlayerEventListener listener) {
+                                listener.powerChangeEvent(mac, power);
+                            }
+                        });
+                        break;
                     }
-                    final String value = url;
-                    updatePlayer(new PlayerUpdateEvent() {
-                        @Override
-                        public void updateListener(SqueezeBoxPlayerEventListener listener) {
-                            listener.coverArtChangeEvent(mac, decode(value));
+                    // Parameter Volume
+                    case "mixer%20volume": {
+                        final int volume = (int) Double.parseDouble(value);
+                        updatePlayer(mac, new PlayerUpdateEvent() {
+                            @Override
+                            public void updateListener(SqueezeBoxPlayerEventListener listener) {
+                                listener.volumeChangeEvent(mac, volume);
+                            }
+                        });
+                        break;
+                    }
+                    // Parameter Mode
+                    case "mode": {
+                        final String mode = value;
+                        updatePlayer(mac, new PlayerUpdateEvent() {
+                            @Override
+                            public void updateListener(SqueezeBoxPlayerEventListener listener) {
+                                listener.modeChangeEvent(mac, mode);
+                            }
+                        });
+                        break;
+                    }
+                    // Parameter Playing Time
+                    case "time": {
+                        updatePlayingTime(mac, (int) Double.parseDouble(value));
+                        break;
+                    }
+                    // Parameter Playing Playlist Index
+                    case "playlist_cur_index": {
+                        final int index = (int) Double.parseDouble(value);
+                        updatePlayer(mac, new PlayerUpdateEvent() {
+                            @Override
+                            public void updateListener(SqueezeBoxPlayerEventListener listener) {
+                                listener.currentPlaylistIndexEvent(mac, index);
+                            }
+                        });
+                        break;
+                    }
+                    // Parameter Playlist Number Tracks
+                    case "playlist_tracks": {
+                        final int track = (int) Double.parseDouble(value);
+                        updatePlayer(mac, new PlayerUpdateEvent() {
+                            @Override
+                            public void updateListener(SqueezeBoxPlayerEventListener listener) {
+                                listener.numberPlaylistTracksEvent(mac, track);
+                            }
+                        });
+                        break;
+                    }
+                    // Parameter Playlist Repeat Mode
+                    case "playlist%20repeat": {
+                        final int repeat = (int) Double.parseDouble(value);
+                        updatePlayer(mac, new PlayerUpdateEvent() {
+                            @Override
+                            public void updateListener(SqueezeBoxPlayerEventListener listener) {
+                                listener.currentPlaylistRepeatEvent(mac, repeat);
+                            }
+                        });
+                        break;
+                    }
+                    // Parameter Playlist Shuffle Mode
+                    case "playlist%20shuffle": {
+                        final int shuffle = (int) Double.parseDouble(value);
+                        updatePlayer(mac, new PlayerUpdateEvent() {
+                            @Override
+                            public void updateListener(SqueezeBoxPlayerEventListener listener) {
+                                listener.currentPlaylistShuffleEvent(mac, shuffle);
+                            }
+                        });
+                        break;
+                    }
+                    // Parameter Title
+                    case "title": {
+                        final String title = decode(value);
+                        updatePlayer(mac, new PlayerUpdateEvent() {
+                            @Override
+                            public void updateListener(SqueezeBoxPlayerEventListener listener) {
+                                listener.titleChangeEvent(mac, title);
+                            }
+                        });
+                        break;
+                    }
+                    // Parameter Remote Title (radio)
+                    case "remote_title": {
+                        final String title = decode(value);
+                        updatePlayer(mac, new PlayerUpdateEvent() {
+                            @Override
+                            public void updateListener(SqueezeBoxPlayerEventListener listener) {
+                                listener.remoteTitleChangeEvent(mac, title);
+                            }
+                        });
+                        break;
+                    }
+                    // Parameter Artist
+                    case "artist": {
+                        final String artist = decode(value);
+                        updatePlayer(mac, new PlayerUpdateEvent() {
+                            @Override
+                            public void updateListener(SqueezeBoxPlayerEventListener listener) {
+                                listener.artistChangeEvent(mac, artist);
+                            }
+                        });
+                        break;
+                    }
+                    // Parameter Album
+                    case "album": {
+                        final String album = decode(value);
+                        updatePlayer(mac, new PlayerUpdateEvent() {
+                            @Override
+                            public void updateListener(SqueezeBoxPlayerEventListener listener) {
+                                listener.albumChangeEvent(mac, album);
+                            }
+                        });
+                        break;
+                    }
+                    // Parameter Genre
+                    case "genre": {
+                        final String genre = decode(value);
+                        updatePlayer(mac, new PlayerUpdateEvent() {
+                            @Override
+                            public void updateListener(SqueezeBoxPlayerEventListener listener) {
+                                listener.genreChangeEvent(mac, genre);
+                            }
+                        });
+                        break;
+                    }
+                    // Parameter Year
+                    case "year": {
+                        final String year = decode(value);
+                        updatePlayer(mac, new PlayerUpdateEvent() {
+                            @Override
+                            public void updateListener(SqueezeBoxPlayerEventListener listener) {
+                                listener.yearChangeEvent(mac, year);
+                            }
+                        });
+                        break;
+                    }
+                    // Parameter Artwork
+                    case "artwork_track_id": {
+                        String url = value;
+                        // NOTE: what is returned if not an artwork id? i.e. if a
+                        // space?
+                        if (!url.startsWith(" ")) {
+                            url = "http://" + host + ":" + webport + "/music/" + url + "/cover.jpg";
                         }
-                    });
+                        final String coverArtUrl = decode(url);
+                        updatePlayer(mac, new PlayerUpdateEvent() {
+                            @Override
+                            public void updateListener(SqueezeBoxPlayerEventListener listener) {
+                                listener.coverArtChangeEvent(mac, coverArtUrl);
+                            }
+                        });
+                        break;
+                    }
+                    default:
+                        break;
                 }
             }
         }
@@ -703,7 +837,7 @@ public class SqueezeBoxServerHandler extends BaseBridgeHandler {
                 mode = "stop";
             }
             final String value = mode;
-            updatePlayer(new PlayerUpdateEvent() {
+            updatePlayer(mac, new PlayerUpdateEvent() {
                 @Override
                 public void updateListener(SqueezeBoxPlayerEventListener listener) {
                     listener.modeChangeEvent(mac, value);
@@ -723,7 +857,7 @@ public class SqueezeBoxServerHandler extends BaseBridgeHandler {
 
                 if (function.equals("power")) {
                     final boolean power = value.equals("1");
-                    updatePlayer(new PlayerUpdateEvent() {
+                    updatePlayer(mac, new PlayerUpdateEvent() {
                         @Override
                         public void updateListener(SqueezeBoxPlayerEventListener listener) {
                             listener.powerChangeEvent(mac, power);
@@ -731,11 +865,10 @@ public class SqueezeBoxServerHandler extends BaseBridgeHandler {
                     });
                 } else if (function.equals("volume")) {
                     final int volume = (int) Double.parseDouble(value);
-                    updatePlayer(new PlayerUpdateEvent() {
+                    updatePlayer(mac, new PlayerUpdateEvent() {
                         @Override
                         public void updateListener(SqueezeBoxPlayerEventListener listener) {
                             listener.volumeChangeEvent(mac, volume);
-                            ;
                         }
                     });
                 }
@@ -755,29 +888,122 @@ public class SqueezeBoxServerHandler extends BaseBridgeHandler {
     }
 
     /**
-     * Update Listeners and child Squeeze Player Things
+     * Update Listeners and the child Squeeze Player Thing with the given mac
      *
+     * @param mac
      * @param event
      */
-    private void updatePlayer(PlayerUpdateEvent event) {
+    private void updatePlayer(String mac, PlayerUpdateEvent event) {
 
         // update listeners like disco services
         for (SqueezeBoxPlayerEventListener listener : squeezeBoxPlayerListeners) {
             event.updateListener(listener);
         }
-        // update our children
-        Bridge bridge = getThing();
+        // update our child, only the handler with this mac is interested
+        SqueezeBoxPlayerHandler handler = playerHandlers.get(mac);
+        if (handler == null) {
+            handler = findPlayerHandler(mac);
+        }
+        if (handler != null && !squeezeBoxPlayerListeners.contains(handler)) {
+            event.updateListener(handler);
+        }
+    }
 
-        if (bridge == null) {
-            return;
+    /**
+     * Looks up the handler of a player which isn't registered, e.g. because
+     * this server handler was created after the player went online, and
+     * registers it for the following events.
+     *
+     * @param mac
+     * @return player handler or null if no player thing has this mac
+     */
+    private SqueezeBoxPlayerHandler findPlayerHandler(String mac) {
+        for (Thing thing : getThing().getThings()) {
+            ThingHandler thingHandler = thing.getHandler();
+            if (thingHandler instanceof SqueezeBoxPlayerHandler
+                    && mac.equals(((SqueezeBoxPlayerHandler) thingHandler).getMac())) {
+                SqueezeBoxPlayerHandler playerHandler = (SqueezeBoxPlayerHandler) thingHandler;
+                registerPlayerHandler(playerHandler);
+                return playerHandler;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Updates the playing time of a player at most once per second. Updates
+     * which arrive in between are held back, and only the latest one is sent
+     * once the second has passed.
+     *
+     * @param mac
+     * @param time
+     */
+    private void updatePlayingTime(final String mac, int time) {
+        final long now = System.currentTimeMillis();
+        long delay = 0;
+        synchronized (pendingTimes) {
+            Long lastUpdate = timeUpdates.get(mac);
+            if (lastUpdate == null || now - lastUpdate >= TIME_UPDATE_INTERVAL) {
+                timeUpdates.put(mac, now);
+                pendingTimes.remove(mac);
+            } else {
+                boolean scheduled = pendingTimes.put(mac, time) != null;
+                if (scheduled) {
+                    return;
+                }
+                delay = lastUpdate + TIME_UPDATE_INTERVAL - now;
+            }
+        }
+
+        if (delay == 0) {
+            dispatchPlayingTime(mac, time);
+        } else {
+            scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    Integer pendingTime;
+                    synchronized (pendingTimes) {
+                        pendingTime = pendingTimes.remove(mac);
+                        if (pendingTime != null) {
+                            timeUpdates.put(mac, System.currentTimeMillis());
+                        }
+                    }
+                    if (pendingTime != null) {
+                        dispatchPlayingTime(mac, pendingTime);
+                    }
+                }
+            }, delay, TimeUnit.MILLISECONDS);
         }
+    }
 
-        List<Thing> things = bridge.getThings();
-        for (Thing thing : things) {
-            ThingHandler handler = thing.getHandler();
-            if (handler instanceof SqueezeBoxPlayerEventListener && !squeezeBoxPlayerListeners.contains(handler)) {
-                event.updateListener((SqueezeBoxPlayerEventListener) handler);
+    private void dispatchPlayingTime(final String mac, final int time) {
+        updatePlayer(mac, new PlayerUpdateEvent() {
+            @Override
+            public void updateListener(SqueezeBoxPlayerEventListener listener) {
+                listener.currentPlayingTimeEvent(mac, time);
             }
+        });
+    }
+
+    /**
+     * Registers a player handler for the events of the player with its mac
+     *
+     * @param playerHandler
+     */
+    public void registerPlayerHandler(SqueezeBoxPlayerHandler playerHandler) {
+        if (playerHandler.getMac() != null) {
+            playerHandlers.put(playerHandler.getMac(), playerHandler);
+        }
+    }
+
+    /**
+     * Unregisters a player handler
+     *
+     * @param playerHandler
+     */
+    public void unregisterPlayerHandler(SqueezeBoxPlayerHandler playerHandler) {
+        if (playerHandler.getMac() != null) {
+            playerHandlers.remove(playerHandler.getMac(), playerHandler);
         }
     }
 
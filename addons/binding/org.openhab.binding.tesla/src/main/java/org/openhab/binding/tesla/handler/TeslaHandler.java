@@ -10,13 +10,12 @@ package org.openhab.binding.tesla.handler;
 
 import static org.openhab.binding.tesla.TeslaBindingConstants.*;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 import java.net.SocketTimeoutException;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -54,6 +53,7 @@ import org.glassfish.jersey.client.ClientProperties;
 import org.openhab.binding.tesla.TeslaBindingConstants.EventKeys;
 import org.openhab.binding.tesla.internal.TeslaChannelSelectorProxy;
 import org.openhab.binding.tesla.internal.TeslaChannelSelectorProxy.TeslaChannelSelector;
+import org.openhab.binding.tesla.internal.TeslaEventFramer;
 import org.openhab.binding.tesla.internal.protocol.ChargeState;
 import org.openhab.binding.tesla.internal.protocol.ClimateState;
 import org.openhab.binding.tesla.internal.protocol.DriveState;
@@ -441,27 +441,40 @@ public class TeslaHandler extends BaseThingHandler {
 
     public void parseAndUpdate(String request, String payLoad, String result) {
 
-        JsonParser parser = new JsonParser();
         JsonObject jsonObject = null;
 
         try {
             if (request != null && result != null && result != "null") {
-                // first, update state objects
+                // first, reformat the response string to a JSON compliant
+                // object for some specific non-JSON compatible requests
+                switch (request) {
+                    case TESLA_MOBILE_ENABLED_STATE: {
+                        jsonObject = new JsonObject();
+                        jsonObject.addProperty(TESLA_MOBILE_ENABLED_STATE, result);
+                        break;
+                    }
+                    default: {
+                        jsonObject = parser.parse(result).getAsJsonObject();
+                        break;
+                    }
+                }
+
+                // secondly, update state objects from the already parsed tree
                 switch (request) {
                     case TESLA_DRIVE_STATE: {
-                        driveState = gson.fromJson(result, DriveState.class);
+                        driveState = gson.fromJson(jsonObject, DriveState.class);
                         break;
                     }
                     case TESLA_GUI_STATE: {
-                        guiState = gson.fromJson(result, GUIState.class);
+                        guiState = gson.fromJson(jsonObject, GUIState.class);
                         break;
                     }
                     case TESLA_VEHICLE_STATE: {
-                        vehicleState = gson.fromJson(result, VehicleState.class);
+                        vehicleState = gson.fromJson(jsonObject, VehicleState.class);
                         break;
                     }
                     case TESLA_CHARGE_STATE: {
-                        chargeState = gson.fromJson(result, ChargeState.class);
+                        chargeState = gson.fromJson(jsonObject, ChargeState.class);
                         if (chargeState.charging_state != null && chargeState.charging_state.equals("Charging")) {
                             updateState(CHANNEL_CHARGE, OnOffType.ON);
                         } else {
@@ -471,21 +484,7 @@ public class TeslaHandler extends BaseThingHandler {
                         break;
                     }
                     case TESLA_CLIMATE_STATE: {
-                        climateState = gson.fromJson(result, ClimateState.class);
-                        break;
-                    }
-                }
-
-                // secondly, reformat the response string to a JSON compliant
-                // object for some specific non-JSON compatible requests
-                switch (request) {
-                    case TESLA_MOBILE_ENABLED_STATE: {
-                        jsonObject = new JsonObject();
-                        jsonObject.addProperty(TESLA_MOBILE_ENABLED_STATE, result);
-                        break;
-                    }
-                    default: {
-                        jsonObject = parser.parse(result).getAsJsonObject();
+                        climateState = gson.fromJson(jsonObject, ClimateState.class);
                         break;
                     }
                 }
@@ -501,23 +500,31 @@ public class TeslaHandler extends BaseThingHandler {
                     logger.debug("The request ({}) execution was {}, and reported '{}'", new Object[] { request,
                             requestResult ? "successful" : "not successful", jsonObject.get("reason").getAsString() });
                 } else {
+                    // the properties are copied once, and only written back if a value has changed
+                    Map<String, String> properties = editProperties();
+                    boolean propertiesChanged = false;
+
                     Set<Map.Entry<String, JsonElement>> entrySet = jsonObject.entrySet();
                     for (Map.Entry<String, JsonElement> entry : entrySet) {
                         try {
                             TeslaChannelSelector selector = TeslaChannelSelector
-                                    .getValueSelectorFromRESTID(entry.getKey());
+                                    .findValueSelectorFromRESTID(entry.getKey());
+                            if (selector == null) {
+                                continue;
+                            }
                             if (!selector.isProperty()) {
                                 if (!entry.getValue().isJsonNull()) {
                                     updateState(selector.getChannelID(), teslaChannelSelectorProxy
-                                            .getState(entry.getValue().getAsString(), selector, editProperties()));
+                                            .getState(entry.getValue().getAsString(), selector, properties));
                                 } else {
                                     updateState(selector.getChannelID(), UnDefType.UNDEF);
                                 }
                             } else {
                                 if (!entry.getValue().isJsonNull()) {
-                                    Map<String, String> properties = editProperties();
-                                    properties.put(selector.getChannelID(), entry.getValue().getAsString());
-                                    updateProperties(properties);
+                                    String value = entry.getValue().getAsString();
+                                    if (!value.equals(properties.put(selector.getChannelID(), value))) {
+                                        propertiesChanged = true;
+                                    }
                                 }
                             }
                         } catch (Exception e) {
@@ -525,6 +532,10 @@ public class TeslaHandler extends BaseThingHandler {
                                     entry.getValue());
                         }
                     }
+
+                    if (propertiesChanged) {
+                        updateProperties(properties);
+                    }
                 }
             }
         } catch (Exception p) {
@@ -781,14 +792,23 @@ public class TeslaHandler extends BaseThingHandler {
         long emptyLineCounter = 0;
         long lastEventSystemTime = 0;
         long lastEventStreamEstablishedTime = 0;
-        String lastEventTimeStamp = "";
         Response eventResponse;
-        BufferedReader eventBufferedReader;
-        InputStreamReader eventInputStreamReader;
+        TeslaEventFramer eventFramer;
+
+        // the selectors of the event fields, and the last state of each channel they update
+        final TeslaChannelSelector[] eventSelectors = new TeslaChannelSelector[EventKeys.values().length];
+        final Map<String, State> eventStates = new LinkedHashMap<String, State>();
+
+        {
+            for (int i = 0; i < eventSelectors.length; i++) {
+                eventSelectors[i] = TeslaChannelSelector.findValueSelectorFromRESTID(EventKeys.values()[i].toString());
+            }
+        }
 
         protected void establishEventStream() {
             try {
-                eventBufferedReader = null;
+                eventFramer = null;
+                eventStates.clear();
 
                 if (eventResponse != null) {
                     eventResponse.close();
@@ -806,8 +826,7 @@ public class TeslaHandler extends BaseThingHandler {
 
                 if (eventResponse.getStatus() == 200) {
                     InputStream dummy = (InputStream) eventResponse.getEntity();
-                    eventInputStreamReader = new InputStreamReader(dummy);
-                    eventBufferedReader = new BufferedReader(eventInputStreamReader);
+                    eventFramer = new TeslaEventFramer(dummy);
                     isEstablished = true;
                     lastEventStreamEstablishedTime = System.currentTimeMillis();
                     lastEventSystemTime = lastEventStreamEstablishedTime;
@@ -822,6 +841,51 @@ public class TeslaHandler extends BaseThingHandler {
             }
         }
 
+        /**
+         * Updates the channels from the fields of the current event frame. Only fields which differ from the
+         * last event are converted again, and each channel is updated at most once per event.
+         */
+        protected void processEvent() {
+            Map<String, String> properties = editProperties();
+            boolean propertiesChanged = false;
+
+            int fieldCount = Math.min(eventSelectors.length, eventFramer.getFieldCount());
+            for (int i = 0; i < fieldCount; i++) {
+                TeslaChannelSelector selector = eventSelectors[i];
+                if (selector == null
+                        || (!eventFramer.isFieldChanged(i) && eventStates.containsKey(selector.getChannelID()))) {
+                    continue;
+                }
+                try {
+                    if (!selector.isProperty()) {
+                        State newState = null;
+                        if (!eventFramer.isFieldEmpty(i)) {
+                            newState = teslaChannelSelectorProxy.getState(eventFramer.getField(i), selector,
+                                    properties);
+                        }
+                        eventStates.put(selector.getChannelID(), newState != null ? newState : UnDefType.UNDEF);
+                    } else {
+                        String value = (selector.getState(eventFramer.getField(i))).toString();
+                        if (!value.equals(properties.put(selector.getChannelID(), value))) {
+                            propertiesChanged = true;
+                        }
+                    }
+                } catch (Exception e) {
+                    logger.warn(
+                            "Event Stream : An exception occurred while processing an event received from the vehicle; '{}'",
+                            e.getMessage());
+                }
+            }
+            eventFramer.commit();
+
+            for (Map.Entry<String, State> entry : eventStates.entrySet()) {
+                updateState(entry.getKey(), entry.getValue());
+            }
+            if (propertiesChanged) {
+                updateProperties(properties);
+            }
+        }
+
         @Override
         public void run() {
             try {
@@ -854,47 +918,21 @@ public class TeslaHandler extends BaseThingHandler {
 
                         try {
                             if (isEstablished) {
-                                String line = null;
+                                boolean hasFrame = false;
                                 try {
-                                    line = eventBufferedReader.readLine();
+                                    hasFrame = eventFramer.readFrame();
                                 } catch (SocketTimeoutException s) {
                                     // Nothing to do here - we move on
                                 } catch (Exception e) {
                                     logger.error("An exception occurred while reading events : '{}'", e.getMessage());
                                     isEstablished = false;
                                 }
-                                if (line != null) {
+                                if (hasFrame) {
                                     emptyLineCounter = 0;
                                     lastEventSystemTime = System.currentTimeMillis();
-                                    logger.debug("Event Stream : Received an event: '{}'", line);
-                                    String vals[] = line.split(",");
-                                    if (!vals[0].equals(lastEventTimeStamp)) {
-                                        lastEventTimeStamp = vals[0];
-                                        for (int i = 0; i < EventKeys.values().length; i++) {
-                                            try {
-                                                TeslaChannelSelector selector = TeslaChannelSelector
-                                                        .getValueSelectorFromRESTID((EventKeys.values()[i]).toString());
-                                                if (!selector.isProperty()) {
-                                                    State newState = teslaChannelSelectorProxy.getState(vals[i],
-                                                            selector, editProperties());
-                                                    if (newState != null && !vals[i].equals("")) {
-                                                        updateState(selector.getChannelID(), newState);
-                                                    } else {
-                                                        updateState(selector.getChannelID(), UnDefType.UNDEF);
-
-                                                    }
-                                                } else {
-                                                    Map<String, String> properties = editProperties();
-                                                    properties.put(selector.getChannelID(),
-                                                            (selector.getState(vals[i])).toString());
-                                                    updateProperties(properties);
-                                                }
-                                            } catch (Exception e) {
-                                                logger.warn(
-                                                        "Event Stream : An exception occurred while processing an event received from the vehicle; '{}'",
-                                                        e.getMessage());
-                                            }
-                                        }
+                                    logger.debug("Event Stream : Received an event: '{}'", eventFramer);
+                                    if (eventFramer.isFieldChanged(0)) {
+                                        processEvent();
                                     }
                                 } else {
                                     emptyLineCounter++;
@@ -12,6 +12,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Map;
 
 import org.eclipse.smarthome.core.library.types.DateTimeType;
@@ -976,10 +977,9 @@ public class TeslaChannelSelectorProxy {
         public static TeslaChannelSelector getValueSelectorFromChannelID(String valueSelectorText)
                 throws IllegalArgumentException {
 
-            for (TeslaChannelSelector c : TeslaChannelSelector.values()) {
-                if (c.channelID.equals(valueSelectorText)) {
-                    return c;
-                }
+            TeslaChannelSelector c = BY_CHANNEL_ID.get(valueSelectorText);
+            if (c != null) {
+                return c;
             }
 
             throw new IllegalArgumentException("Not valid value selector");
@@ -988,14 +988,35 @@ public class TeslaChannelSelectorProxy {
         public static TeslaChannelSelector getValueSelectorFromRESTID(String valueSelectorText)
                 throws IllegalArgumentException {
 
-            for (TeslaChannelSelector c : TeslaChannelSelector.values()) {
-                if (c.RESTID != null && c.RESTID.equals(valueSelectorText)) {
-                    return c;
-                }
+            TeslaChannelSelector c = BY_REST_ID.get(valueSelectorText);
+            if (c != null) {
+                return c;
             }
 
             throw new IllegalArgumentException("Not valid value selector");
         }
+
+        /**
+         * Returns the selector for a REST id, or null if there is none, without the cost of an exception
+         */
+        public static TeslaChannelSelector findValueSelectorFromRESTID(String valueSelectorText) {
+            return BY_REST_ID.get(valueSelectorText);
+        }
+
+        // lookup tables, the first selector for an id wins as with a linear search over the values
+        private static final Map<String, TeslaChannelSelector> BY_CHANNEL_ID = new HashMap<String, TeslaChannelSelector>();
+        private static final Map<String, TeslaChannelSelector> BY_REST_ID = new HashMap<String, TeslaChannelSelector>();
+
+        static {
+            for (TeslaChannelSelector c : TeslaChannelSelector.values()) {
+                if (!BY_CHANNEL_ID.containsKey(c.channelID)) {
+                    BY_CHANNEL_ID.put(c.channelID, c);
+                }
+                if (c.RESTID != null && !BY_REST_ID.containsKey(c.RESTID)) {
+                    BY_REST_ID.put(c.RESTID, c);
+                }
+            }
+        }
     }
 
     public String latitude = "0";
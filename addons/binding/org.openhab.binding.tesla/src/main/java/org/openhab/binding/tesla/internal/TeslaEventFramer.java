@@ -0,0 +1,174 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.tesla.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * The {@link TeslaEventFramer} splits the Tesla event stream into frames of
+ * comma separated fields. Frames and fields are located directly in a reusable
+ * byte buffer, and a field is only decoded into a String when it is asked for.
+ * Fields can be compared at byte level with those of the last committed frame,
+ * so unchanged values do not have to be decoded and converted again.
+ *
+ * @author agent - Initial contribution
+ */
+public class TeslaEventFramer {
+
+    private static final Charset US_ASCII = Charset.forName("US-ASCII");
+
+    private final InputStream inputStream;
+
+    private byte[] buffer = new byte[512];
+    private int position = 0;
+    private int limit = 0;
+
+    // fields of the current frame, as offsets into the buffer
+    private int frameEnd = 0;
+    private int fieldCount = 0;
+    private int[] fieldStart = new int[16];
+    private int[] fieldEnd = new int[16];
+
+    // fields of the last committed frame
+    private byte[] committed = new byte[0];
+    private int committedCount = 0;
+    private int[] committedStart = new int[16];
+    private int[] committedEnd = new int[16];
+
+    public TeslaEventFramer(InputStream inputStream) {
+        this.inputStream = inputStream;
+    }
+
+    /**
+     * Reads the next non-empty frame. Data which has been received before a
+     * read timeout is kept, and completed by the next call.
+     *
+     * @return true if a frame was read, false at the end of the stream
+     * @throws IOException, including a SocketTimeoutException if no complete frame arrived in time
+     */
+    public boolean readFrame() throws IOException {
+        position = frameEnd;
+        int scan = position;
+        while (true) {
+            for (; scan < limit; scan++) {
+                if (buffer[scan] == '\n') {
+                    int end = scan;
+                    if (end > position && buffer[end - 1] == '\r') {
+                        end--;
+                    }
+                    if (end > position) {
+                        split(position, end);
+                        frameEnd = scan + 1;
+                        return true;
+                    }
+                    // skip empty lines
+                    position = scan + 1;
+                }
+            }
+
+            // move the incomplete frame to the start of the buffer, and grow it if it is full
+            if (position > 0) {
+                System.arraycopy(buffer, position, buffer, 0, limit - position);
+                limit -= position;
+                scan -= position;
+                position = 0;
+                frameEnd = 0;
+            }
+            if (limit == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+
+            int read = inputStream.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                return false;
+            }
+            limit += read;
+        }
+    }
+
+    private void split(int start, int end) {
+        fieldCount = 0;
+        int fieldBegin = start;
+        for (int i = start; i <= end; i++) {
+            if (i == end || buffer[i] == ',') {
+                if (fieldCount == fieldStart.length) {
+                    fieldStart = Arrays.copyOf(fieldStart, fieldCount * 2);
+                    fieldEnd = Arrays.copyOf(fieldEnd, fieldCount * 2);
+                }
+                fieldStart[fieldCount] = fieldBegin;
+                fieldEnd[fieldCount] = i;
+                fieldCount++;
+                fieldBegin = i + 1;
+            }
+        }
+    }
+
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    public boolean isFieldEmpty(int index) {
+        return fieldStart[index] == fieldEnd[index];
+    }
+
+    public String getField(int index) {
+        return new String(buffer, fieldStart[index], fieldEnd[index] - fieldStart[index], US_ASCII);
+    }
+
+    /**
+     * Returns true if the field differs from the same field of the last committed frame
+     */
+    public boolean isFieldChanged(int index) {
+        if (index >= committedCount) {
+            return true;
+        }
+        int length = fieldEnd[index] - fieldStart[index];
+        if (length != committedEnd[index] - committedStart[index]) {
+            return true;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer[fieldStart[index] + i] != committed[committedStart[index] + i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Makes the current frame the reference for {@link #isFieldChanged(int)}
+     */
+    public void commit() {
+        int start = fieldCount > 0 ? fieldStart[0] : 0;
+        int length = fieldCount > 0 ? fieldEnd[fieldCount - 1] - start : 0;
+        if (committed.length < length) {
+            committed = new byte[Math.max(length, committed.length * 2)];
+        }
+        System.arraycopy(buffer, start, committed, 0, length);
+        if (committedStart.length < fieldCount) {
+            committedStart = new int[fieldStart.length];
+            committedEnd = new int[fieldEnd.length];
+        }
+        for (int i = 0; i < fieldCount; i++) {
+            committedStart[i] = fieldStart[i] - start;
+            committedEnd[i] = fieldEnd[i] - start;
+        }
+        committedCount = fieldCount;
+    }
+
+    @Override
+    public String toString() {
+        if (fieldCount == 0) {
+            return "";
+        }
+        return new String(buffer, fieldStart[0], fieldEnd[fieldCount - 1] - fieldStart[0], US_ASCII);
+    }
+}
@@ -47,6 +47,7 @@ public class YamahaReceiverHandler extends BaseThingHandler {
     private float relativeVolumeChangeFactor = 0.5f; // Default: 0.5 percent
     private long lastRefreshInMS = 0;
     private YamahaReceiverState state = null;
+    private YamahaReceiverCommunication communication = null;
     private ScheduledFuture<?> refreshTimer;
     private ZoneDiscoveryService zoneDiscoveryService;
 
@@ -120,7 +121,11 @@ public class YamahaReceiverHandler extends BaseThingHandler {
 
         Zone zone = YamahaReceiverCommunication.Zone.valueOf(zoneName);
 
-        state = new YamahaReceiverState(new YamahaReceiverCommunication(host, zone));
+        if (communication != null) {
+            communication.dispose();
+        }
+        communication = new YamahaReceiverCommunication(host, zone);
+        state = new YamahaReceiverState(communication);
         try {
             state.updateDeviceInformation();
         } catch (IOException e) {
@@ -138,6 +143,18 @@ public class YamahaReceiverHandler extends BaseThingHandler {
         }
     }
 
+    @Override
+    public void dispose() {
+        if (refreshTimer != null) {
+            refreshTimer.cancel(false);
+            refreshTimer = null;
+        }
+        if (communication != null) {
+            communication.dispose();
+            communication = null;
+        }
+    }
+
     /**
      * Sets up a refresh timer (using the scheduler) with the CONFIG_REFRESH interval.
      *
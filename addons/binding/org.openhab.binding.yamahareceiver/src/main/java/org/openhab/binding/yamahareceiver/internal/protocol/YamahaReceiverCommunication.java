@@ -8,28 +8,21 @@
  */
 package org.openhab.binding.yamahareceiver.internal.protocol;
 
-import java.io.BufferedReader;
-import java.io.DataOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.StringReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
 
 import org.openhab.binding.yamahareceiver.internal.YamahaReceiverState;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
+import org.openhab.binding.yamahareceiver.internal.protocol.YamahaReceiverConnection.ResponseHandler;
 
 /**
  * Yamaha Receiver protocol class used to control a yamaha receiver with HTTP/XML.
  * No state will be saved here, but in {@link YamahaReceiverState} instead.
+ * All zones of a receiver share one {@link YamahaReceiverConnection}.
  *
  * @author David Gräff <david.graeff@tu-dortmund.de>
  * @author Eric Thill
@@ -56,26 +49,30 @@ public class YamahaReceiverCommunication {
     public static final int VOLUME_MAX = 12;
     public static final int VOLUME_RANGE = -VOLUME_MIN + VOLUME_MAX;
 
-    // We need a lot of xml parsing. Create a document builder beforehand.
-    private final DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-
-    // The address of the receiver.
-    private final String host;
+    // The connection to the receiver, shared with the other zones.
+    private final YamahaReceiverConnection connection;
     private final Zone zone;
 
     // Creates a yamaha protol connection object.
     // All commands always refer to a zone. A protocol connection object
     // therefore consists of a host address and a zone.
     public YamahaReceiverCommunication(String host, Zone zone) {
-        this.host = host;
+        this.connection = YamahaReceiverConnection.acquire(host);
         this.zone = zone;
     }
 
+    /**
+     * Releases the connection to the receiver, the object must not be used afterwards.
+     */
+    public void dispose() {
+        connection.release();
+    }
+
     /**
      * Return the host address
      */
     public String getHost() {
-        return host;
+        return connection.getHost();
     }
 
     /**
@@ -86,46 +83,21 @@ public class YamahaReceiverCommunication {
     }
 
     public void updateDeviceInformation(YamahaReceiverState state) throws IOException {
-        Document doc = postAndGetXmlResponse(
-                "<?xml version=\"1.0\" encoding=\"utf-8\"?><YAMAHA_AV cmd=\"GET\"><System><Config>GetParam</Config></System></YAMAHA_AV>");
-        if (doc != null) {
-            Node basicStatus = getNode(doc.getFirstChild(), "System/Config");
-
-            Node node;
-            String value;
-
-            node = getNode(basicStatus, "Model_Name");
-            value = node != null ? node.getTextContent() : "";
-            state.name = value;
-
-            node = getNode(basicStatus, "System_ID");
-            value = node != null ? node.getTextContent() : "";
-            state.id = value;
-
-            node = getNode(basicStatus, "Version");
-            value = node != null ? node.getTextContent() : "";
-            state.version = value;
-
-            state.additional_zones.clear();
-
-            node = getNode(basicStatus, "Feature_Existence");
-            if (node != null) {
-                Node subnode;
-                subnode = getNode(node, "Zone_2");
-                value = subnode != null ? subnode.getTextContent() : null;
-                if (value != null && (value.equals("1") || value.equals("Available"))) {
-                    state.additional_zones.add(Zone.Zone_2);
-                }
-                subnode = getNode(node, "Zone_3");
-                value = subnode != null ? subnode.getTextContent() : null;
-                if (value != null && (value.equals("1") || value.equals("Available"))) {
-                    state.additional_zones.add(Zone.Zone_3);
-                }
-                subnode = getNode(node, "Zone_4");
-                value = subnode != null ? subnode.getTextContent() : null;
-                if (value != null && (value.equals("1") || value.equals("Available"))) {
-                    state.additional_zones.add(Zone.Zone_4);
-                }
+        Map<String, String> values = postAndGetValues(
+                "<?xml version=\"1.0\" encoding=\"utf-8\"?><YAMAHA_AV cmd=\"GET\"><System><Config>GetParam</Config></System></YAMAHA_AV>",
+                "System/Config/Model_Name", "System/Config/System_ID", "System/Config/Version",
+                "System/Config/Feature_Existence/Zone_2", "System/Config/Feature_Existence/Zone_3",
+                "System/Config/Feature_Existence/Zone_4");
+
+        state.name = getValue(values, "System/Config/Model_Name", "");
+        state.id = getValue(values, "System/Config/System_ID", "");
+        state.version = getValue(values, "System/Config/Version", "");
+
+        state.additional_zones.clear();
+        for (Zone additionalZone : new Zone[] { Zone.Zone_2, Zone.Zone_3, Zone.Zone_4 }) {
+            String value = values.get("System/Config/Feature_Existence/" + additionalZone);
+            if (value != null && (value.equals("1") || value.equals("Available"))) {
+                state.additional_zones.add(additionalZone);
             }
         }
     }
@@ -176,121 +148,94 @@ public class YamahaReceiverCommunication {
     }
 
     public void updateState(YamahaReceiverState state) throws IOException {
-        Document doc = postAndGetXmlResponse("<?xml version=\"1.0\" encoding=\"utf-8\"?><YAMAHA_AV cmd=\"GET\"><" + zone
-                + "><Basic_Status>GetParam</Basic_Status></" + zone + "></YAMAHA_AV>");
-        Node basicStatus = getNode(doc.getFirstChild(), "" + zone + "/Basic_Status");
+        String basicStatus = zone + "/Basic_Status/";
+        Map<String, String> values = postAndGetValues(
+                "<?xml version=\"1.0\" encoding=\"utf-8\"?><YAMAHA_AV cmd=\"GET\"><" + zone
+                        + "><Basic_Status>GetParam</Basic_Status></" + zone + "></YAMAHA_AV>",
+                basicStatus + "Power_Control/Power", basicStatus + "Input/Input_Sel",
+                basicStatus + "Surround/Program_Sel/Current/Sound_Program", basicStatus + "Volume/Lvl/Val",
+                basicStatus + "Volume/Mute", basicStatus + "Input/Input_Sel_Item_Info/Src_Number");
 
-        Node node;
         String value;
 
-        node = getNode(basicStatus, "Power_Control/Power");
-        value = node != null ? node.getTextContent() : "";
+        value = getValue(values, basicStatus + "Power_Control/Power", "");
         state.power = "On".equalsIgnoreCase(value);
 
-        node = getNode(basicStatus, "Input/Input_Sel");
-        value = node != null ? node.getTextContent() : "";
-        state.input = value;
+        state.input = getValue(values, basicStatus + "Input/Input_Sel", "");
 
-        node = getNode(basicStatus, "Surround/Program_Sel/Current/Sound_Program");
-        value = node != null ? node.getTextContent() : "";
-        state.surroundProgram = value;
+        state.surroundProgram = getValue(values, basicStatus + "Surround/Program_Sel/Current/Sound_Program", "");
 
-        node = getNode(basicStatus, "Volume/Lvl/Val");
-        value = node != null ? node.getTextContent() : String.valueOf(VOLUME_MIN);
+        value = getValue(values, basicStatus + "Volume/Lvl/Val", String.valueOf(VOLUME_MIN));
         state.volume = Float.parseFloat(value) * .1f; // in DB
         state.volume = (state.volume + -YamahaReceiverCommunication.VOLUME_MIN) * 100.0f
                 / YamahaReceiverCommunication.VOLUME_RANGE; // in percent
 
-        node = getNode(basicStatus, "Volume/Mute");
-        value = node != null ? node.getTextContent() : "";
+        value = getValue(values, basicStatus + "Volume/Mute", "");
         state.mute = "On".equalsIgnoreCase(value);
 
-        node = getNode(basicStatus, "Input/Input_Sel_Item_Info/Src_Number");
-        value = node != null ? node.getTextContent() : "0";
+        value = getValue(values, basicStatus + "Input/Input_Sel_Item_Info/Src_Number", "0");
         state.netRadioChannel = Integer.parseInt(value);
     }
 
     public void updateInputsList(YamahaReceiverState state) throws IOException {
-        Document doc = postAndGetXmlResponse("<?xml version=\"1.0\" encoding=\"utf-8\"?><YAMAHA_AV cmd=\"GET\"><" + zone
-                + "><Input><Input_Sel_Item>GetParam</Input_Sel_Item></Input></" + zone + "></YAMAHA_AV>");
-        Node inputSelItem = getNode(doc.getFirstChild(), zone + "/Input/Input_Sel_Item");
-        NodeList items = inputSelItem.getChildNodes();
+        // The items are reported as <Item_N><Param>name</Param><RW>RW</RW>...</Item_N>
+        final String prefix = zone + "/Input/Input_Sel_Item/";
+        final Map<String, String> names = new LinkedHashMap<>();
+        final Map<String, String> access = new HashMap<>();
+        connection.post("<?xml version=\"1.0\" encoding=\"utf-8\"?><YAMAHA_AV cmd=\"GET\"><" + zone
+                + "><Input><Input_Sel_Item>GetParam</Input_Sel_Item></Input></" + zone + "></YAMAHA_AV>",
+                new ResponseHandler() {
+                    @Override
+                    public void value(String path, String value) {
+                        if (!path.startsWith(prefix)) {
+                            return;
+                        }
+                        int separator = path.indexOf('/', prefix.length());
+                        if (separator < 0) {
+                            return;
+                        }
+                        String item = path.substring(prefix.length(), separator);
+                        String field = path.substring(separator + 1);
+                        if (field.equals("Param")) {
+                            names.put(item, value);
+                        } else if (field.equals("RW")) {
+                            access.put(item, value);
+                        }
+                    }
+                });
+
         state.inputNames.clear();
-        for (int i = 0; i < items.getLength(); i++) {
-            Element item = (Element) items.item(i);
-            String name = item.getElementsByTagName("Param").item(0).getTextContent();
-            boolean writable = item.getElementsByTagName("RW").item(0).getTextContent().contains("W");
-            if (writable) {
-                state.inputNames.add(name);
+        for (Map.Entry<String, String> name : names.entrySet()) {
+            String rw = access.get(name.getKey());
+            if (rw != null && rw.contains("W")) {
+                state.inputNames.add(name.getValue());
             }
         }
     }
 
-    private static Node getNode(Node root, String nodePath) {
-        String[] nodePathArr = nodePath.split("/");
-        return getNode(root, nodePathArr, 0);
+    private static String getValue(Map<String, String> values, String path, String defaultValue) {
+        String value = values.get(path);
+        return value != null ? value : defaultValue;
     }
 
-    private static Node getNode(Node parent, String[] nodePath, int offset) {
-        if (parent == null) {
-            return null;
-        }
-        if (offset < nodePath.length - 1) {
-            return getNode(((Element) parent).getElementsByTagName(nodePath[offset]).item(0), nodePath, offset + 1);
-        } else {
-            return ((Element) parent).getElementsByTagName(nodePath[offset]).item(0);
-        }
-    }
-
-    private Document postAndGetXmlResponse(String message) throws IOException {
-        String response = "<?xml version=\"1.0\" encoding=\"utf-8\"?>" + postAndGetResponse(message);
-        try {
-            DocumentBuilder db = dbf.newDocumentBuilder();
-            Document doc = db.parse(new InputSource(new StringReader(response)));
-            if (doc.getFirstChild().hasChildNodes() == false) {
-                throw new IOException("Could not handle response");
+    /**
+     * Posts the message and returns the values of the given paths found in the response
+     */
+    private Map<String, String> postAndGetValues(String message, String... paths) throws IOException {
+        final Set<String> wanted = new HashSet<>(Arrays.asList(paths));
+        final Map<String, String> values = new HashMap<>();
+        connection.post(message, new ResponseHandler() {
+            @Override
+            public void value(String path, String value) {
+                if (wanted.contains(path)) {
+                    values.put(path, value);
+                }
             }
-            return doc;
-        } catch (Exception e) {
-            throw new IOException("Could not handle response", e);
-        }
+        });
+        return values;
     }
 
-    private String postAndGetResponse(String message) throws IOException {
-        HttpURLConnection connection = null;
-        try {
-            URL url = new URL("http://" + host + "/YamahaRemoteControl/ctrl");
-            connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("POST");
-            connection.setRequestProperty("Content-Length", "" + Integer.toString(message.length()));
-
-            connection.setUseCaches(false);
-            connection.setDoInput(true);
-            connection.setDoOutput(true);
-
-            // Send request
-            DataOutputStream wr = new DataOutputStream(connection.getOutputStream());
-            wr.writeBytes(message);
-            wr.flush();
-            wr.close();
-
-            // Read response
-            InputStream is = connection.getInputStream();
-            BufferedReader rd = new BufferedReader(new InputStreamReader(is));
-            String line;
-            StringBuffer response = new StringBuffer();
-            while ((line = rd.readLine()) != null) {
-                response.append(line);
-                response.append('\r');
-            }
-            rd.close();
-            return response.toString();
-        } catch (Exception e) {
-            throw new IOException("Could not handle http post", e);
-        } finally {
-            if (connection != null) {
-                connection.disconnect();
-            }
-        }
+    private void postAndGetResponse(String message) throws IOException {
+        connection.post(message, null);
     }
 }
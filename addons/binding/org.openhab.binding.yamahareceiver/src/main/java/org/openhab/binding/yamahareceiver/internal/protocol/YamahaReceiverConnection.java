@@ -0,0 +1,249 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.yamahareceiver.internal.protocol;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * The HTTP connection to a Yamaha receiver, shared by all zones of the receiver.
+ *
+ * Requests are serialized and their responses are read completely, so the keep-alive
+ * connection of the JRE is reused instead of connecting for every request. Responses
+ * are read with a pull parser, which reports the text of every leaf element together
+ * with its path, e.g. "Main_Zone/Basic_Status/Volume/Mute".
+ *
+ * @author agent - Initial contribution
+ */
+public class YamahaReceiverConnection {
+    /**
+     * Receives the values of a response
+     */
+    public interface ResponseHandler {
+        /**
+         * @param path The path of the element below the YAMAHA_AV root, separated by '/'
+         * @param value The text content of the element
+         */
+        void value(String path, String value);
+    }
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    // Timeouts in milliseconds, a request of one zone must not block the other zones for long
+    private static final int CONNECT_TIMEOUT = 5000;
+    private static final int READ_TIMEOUT = 10000;
+
+    private static final Map<String, YamahaReceiverConnection> connections = new HashMap<>();
+
+    private static final XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+    static {
+        xmlInputFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    private final String host;
+    private final byte[] drainBuffer = new byte[512];
+    private int users;
+
+    private YamahaReceiverConnection(String host) {
+        this.host = host;
+    }
+
+    /**
+     * Returns the connection to the receiver with the given host address.
+     * Every call must be matched by a call of {@link #release()}.
+     */
+    public static YamahaReceiverConnection acquire(String host) {
+        synchronized (connections) {
+            YamahaReceiverConnection connection = connections.get(host);
+            if (connection == null) {
+                connection = new YamahaReceiverConnection(host);
+                connections.put(host, connection);
+            }
+            connection.users++;
+            return connection;
+        }
+    }
+
+    /**
+     * Releases the connection, it is forgotten once it is no longer used.
+     */
+    public void release() {
+        synchronized (connections) {
+            if (--users == 0) {
+                connections.remove(host);
+            }
+        }
+    }
+
+    /**
+     * Return the host address
+     */
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * Posts the message to the receiver and reports the values of the response to the handler
+     *
+     * @param message The XML message
+     * @param handler The handler for the values of the response, may be null if the response is not needed
+     * @throws IOException If the receiver is not reachable, or the response is empty or not valid XML
+     */
+    public synchronized void post(String message, ResponseHandler handler) throws IOException {
+        byte[] data = message.getBytes(UTF_8);
+        HttpURLConnection connection = null;
+        try {
+            URL url = new URL("http://" + host + "/YamahaRemoteControl/ctrl");
+            connection = (HttpURLConnection) url.openConnection();
+            connection.setRequestMethod("POST");
+            connection.setConnectTimeout(CONNECT_TIMEOUT);
+            connection.setReadTimeout(READ_TIMEOUT);
+            // the request is buffered and sent together with the header, which avoids delayed ACKs
+            connection.setRequestProperty("Content-Length", Integer.toString(data.length));
+
+            connection.setUseCaches(false);
+            connection.setDoInput(true);
+            connection.setDoOutput(true);
+
+            // Send request
+            OutputStream os = connection.getOutputStream();
+            os.write(data);
+            os.close();
+
+            // Read response
+            ResponseStream is = new ResponseStream(connection.getInputStream());
+            try {
+                if (handler != null) {
+                    parse(is, handler);
+                }
+                // the connection is only reused if the response has been read completely
+                while (!is.ended && is.read(drainBuffer) >= 0) {
+                }
+            } finally {
+                is.close();
+            }
+            connection = null;
+        } catch (IOException e) {
+            throw new IOException("Could not handle http post", e);
+        } finally {
+            // the state of a failed connection is unknown, so it is not reused
+            if (connection != null) {
+                connection.disconnect();
+            }
+        }
+    }
+
+    /**
+     * Remembers the end of the response, the stream of the JRE must not be read after that
+     */
+    private static class ResponseStream extends FilterInputStream {
+        private boolean ended;
+
+        private ResponseStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = ended ? -1 : super.read();
+            ended = b < 0;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = ended ? -1 : super.read(b, off, len);
+            ended = read < 0;
+            return read;
+        }
+    }
+
+    private static void parse(InputStream is, ResponseHandler handler) throws IOException {
+        XMLStreamReader reader = null;
+        try {
+            reader = xmlInputFactory.createXMLStreamReader(is, "UTF-8");
+
+            StringBuilder path = new StringBuilder();
+            int[] pathLengths = new int[16];
+            int depth = 0;
+            int rootChildren = 0;
+            StringBuilder text = new StringBuilder();
+            boolean leaf = false;
+
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        if (depth == pathLengths.length) {
+                            int[] larger = new int[depth * 2];
+                            System.arraycopy(pathLengths, 0, larger, 0, depth);
+                            pathLengths = larger;
+                        }
+                        pathLengths[depth] = path.length();
+                        // the YAMAHA_AV root element is not part of the path
+                        if (depth == 1) {
+                            rootChildren++;
+                        } else if (depth > 1) {
+                            path.append('/');
+                        }
+                        if (depth > 0) {
+                            path.append(reader.getLocalName());
+                        }
+                        depth++;
+                        text.setLength(0);
+                        leaf = true;
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                        if (leaf) {
+                            text.append(reader.getText());
+                        }
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        depth--;
+                        if (leaf && depth > 0) {
+                            handler.value(path.toString(), text.toString());
+                        }
+                        path.setLength(pathLengths[depth]);
+                        leaf = false;
+                        break;
+                    default:
+                        break;
+                }
+            }
+
+            if (rootChildren == 0) {
+                throw new IOException("Could not handle response");
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Could not handle response", e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    // the stream is closed by the caller
+                }
+            }
+        }
+    }
+}
@@ -111,4 +111,8 @@ public class ZWayBindingConstants {
     public final static String BRIDGE_PROP_MANUFACTURER_ID = "manufacturerId";
     public final static String BRIDGE_PROP_SECURE_INCLUSION = "secureInclusion";
     public final static String BRIDGE_PROP_FREQUENCY = "frequency";
+    public final static String BRIDGE_PROP_POLLING_REQUESTS = "pollingRequests";
+    public final static String BRIDGE_PROP_REQUESTS_PER_HOUR = "requestsPerHour";
+    public final static String BRIDGE_PROP_UPDATE_LATENCY_AVERAGE = "updateLatencyAverage";
+    public final static String BRIDGE_PROP_UPDATE_LATENCY_MAX = "updateLatencyMax";
 }
@@ -10,14 +10,20 @@ package org.openhab.binding.zway.handler;
 
 import static org.openhab.binding.zway.ZWayBindingConstants.*;
 
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.smarthome.config.core.Configuration;
 import org.eclipse.smarthome.core.library.types.OnOffType;
 import org.eclipse.smarthome.core.thing.Bridge;
+import org.eclipse.smarthome.core.thing.Channel;
 import org.eclipse.smarthome.core.thing.ChannelUID;
 import org.eclipse.smarthome.core.thing.Thing;
 import org.eclipse.smarthome.core.thing.ThingStatus;
@@ -76,6 +82,34 @@ public class ZWayBridgeHandler extends BaseBridgeHandler implements IZWayApiCall
 
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
+    /**
+     * Size of the time buckets of the device list snapshot in milliseconds. All requests for the device list
+     * within the same bucket share one snapshot, so that the controller is only asked once per bucket.
+     */
+    private static final long DEVICE_LIST_BUCKET_SIZE = 5000;
+
+    private final Object deviceListLock = new Object();
+    private DeviceList deviceList = null;
+    private long deviceListBucket = -1;
+
+    /**
+     * Requests sent to the Z-Way server by the polling and for device list snapshots, used to report the request
+     * rate as bridge property
+     */
+    private final AtomicLong serverRequests = new AtomicLong();
+    private long lastReportRequests;
+    private long lastReportTime;
+
+    /**
+     * Device handlers which receive the changes of the devices they show as channels
+     */
+    private final Set<ZWayDeviceHandler> deviceHandlers = new CopyOnWriteArraySet<ZWayDeviceHandler>();
+
+    /**
+     * Last known update time by device id
+     */
+    private final Map<String, Integer> deviceUpdateTimes = new ConcurrentHashMap<String, Integer>();
+
     private BridgePolling bridgePolling;
     private ScheduledFuture<?> pollingJob;
 
@@ -250,6 +284,10 @@ public class ZWayBridgeHandler extends BaseBridgeHandler implements IZWayApiCall
     public void initialize() {
         logger.info("Initializing Z-Way bridge ...");
 
+        deviceUpdateTimes.clear();
+        lastReportRequests = serverRequests.get();
+        lastReportTime = System.currentTimeMillis();
+
         // Set thing status to a valid status
         updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_PENDING, "Checking configuration...");
 
@@ -304,6 +342,9 @@ public class ZWayBridgeHandler extends BaseBridgeHandler implements IZWayApiCall
             resetInclusionExclusionJob = null;
         }
 
+        invalidateDeviceList();
+        deviceUpdateTimes.clear();
+
         super.dispose();
     }
 
@@ -339,7 +380,16 @@ public class ZWayBridgeHandler extends BaseBridgeHandler implements IZWayApiCall
         public void run() {
             logger.debug("Starting polling for bridge: {}", getThing().getLabel());
             if (getThing().getStatus().equals(ThingStatus.ONLINE)) {
-                updateControllerData();
+                // https://community.openhab.org/t/oh2-major-bug-with-scheduled-jobs/12350/11
+                // If any execution of the task encounters an exception, subsequent executions are
+                // suppressed. Otherwise, the task will only terminate via cancellation or
+                // termination of the executor.
+                try {
+                    updateControllerData();
+                    pollDevices();
+                } catch (Throwable t) {
+                    logger.error("Error occurred when performing polling: {}", t.getMessage());
+                }
             } else {
                 logger.debug("Polling not possible, bridge isn't ONLINE");
             }
@@ -350,6 +400,7 @@ public class ZWayBridgeHandler extends BaseBridgeHandler implements IZWayApiCall
         // Add additional information as properties or update channels
 
         ZWaveController zwaveController = mZWayApi.getZWaveController();
+        serverRequests.incrementAndGet();
         if (zwaveController != null) {
             Map<String, String> properties = editProperties();
             // ESH default properties
@@ -379,6 +430,99 @@ public class ZWayBridgeHandler extends BaseBridgeHandler implements IZWayApiCall
         }
     }
 
+    /**
+     * Loads the device list once, passes all devices which have been updated since the last polling to the
+     * handlers of these devices and lets all registered handlers poll their linked channels. The update latency of
+     * the dispatched devices and the request rate are published as bridge properties.
+     */
+    private void pollDevices() {
+        long start = System.currentTimeMillis();
+        DeviceList deviceList = getDeviceList();
+        if (deviceList == null) {
+            logger.warn("Devices not loaded");
+            return;
+        }
+
+        // the channels of a handler may change, so the handlers are looked up by the current channels
+        Map<String, ZWayDeviceHandler> handlersByDeviceId = new HashMap<String, ZWayDeviceHandler>();
+        for (ZWayDeviceHandler handler : deviceHandlers) {
+            for (Channel channel : handler.getThing().getChannels()) {
+                String deviceId = channel.getProperties().get("deviceId");
+                if (deviceId != null) {
+                    handlersByDeviceId.put(deviceId, handler);
+                }
+            }
+        }
+
+        int updatedDevices = 0;
+        int latencyCount = 0;
+        long latencySum = 0;
+        long latencyMax = 0;
+        for (Device device : deviceList.getDevices()) {
+            Integer lastUpdateTime = deviceUpdateTimes.put(device.getDeviceId(), device.getUpdateTime());
+            if (lastUpdateTime != null && lastUpdateTime.equals(device.getUpdateTime())) {
+                continue;
+            }
+            ZWayDeviceHandler handler = handlersByDeviceId.get(device.getDeviceId());
+            if (handler != null) {
+                handler.deviceUpdated(device);
+                updatedDevices++;
+
+                // The first known update time isn't a change, so it's not counted as latency
+                if (lastUpdateTime != null && device.getUpdateTime() != null) {
+                    long latency = Math.max(0, start - device.getUpdateTime() * 1000L);
+                    latencyCount++;
+                    latencySum += latency;
+                    latencyMax = Math.max(latencyMax, latency);
+                }
+            }
+        }
+
+        // Command classes and device updates are polled for all handlers in one pass
+        for (ZWayDeviceHandler handler : deviceHandlers) {
+            serverRequests.addAndGet(handler.pollLinkedChannels(deviceList));
+        }
+
+        long now = System.currentTimeMillis();
+        long requests = serverRequests.get();
+        long cycleRequests = requests - lastReportRequests;
+        long requestsPerHour = now > lastReportTime ? Math.round(cycleRequests * 3600000.0 / (now - lastReportTime))
+                : 0;
+        lastReportRequests = requests;
+        lastReportTime = now;
+
+        logger.debug("Dispatched {} updated of {} devices and polled {} handlers in {} ms, {} request(s) since last "
+                + "polling", updatedDevices, deviceList.getDevices().size(), deviceHandlers.size(), now - start,
+                cycleRequests);
+
+        Map<String, String> properties = editProperties();
+        properties.put(BRIDGE_PROP_POLLING_REQUESTS, String.valueOf(cycleRequests));
+        properties.put(BRIDGE_PROP_REQUESTS_PER_HOUR, String.valueOf(requestsPerHour));
+        if (latencyCount > 0) {
+            properties.put(BRIDGE_PROP_UPDATE_LATENCY_AVERAGE, String.valueOf(latencySum / latencyCount));
+            properties.put(BRIDGE_PROP_UPDATE_LATENCY_MAX, String.valueOf(latencyMax));
+        }
+        updateProperties(properties);
+    }
+
+    /**
+     * Registers a device handler for the changes of all devices it shows as channels.
+     *
+     * @param handler device handler
+     */
+    public void registerDeviceHandler(ZWayDeviceHandler handler) {
+        deviceHandlers.add(handler);
+    }
+
+    /**
+     * Unregisters a device handler from device updates.
+     *
+     * @param handler device handler
+     */
+    public void unregisterDeviceHandler(ZWayDeviceHandler handler) {
+        deviceHandlers.remove(handler);
+    }
+
     /**
      * Inclusion/Exclusion must be reset manually, also channel states.
      */
@@ -570,6 +714,40 @@ public class ZWayBridgeHandler extends BaseBridgeHandler implements IZWayApiCall
         return mZWayApi;
     }
 
+    /**
+     * Returns a snapshot of the device list of the Z-Way server. The snapshot is shared by all device handlers
+     * and only loaded once per time bucket, instead of loading the full device list for every channel refresh.
+     *
+     * @return device list or null if the device list couldn't be loaded
+     */
+    public DeviceList getDeviceList() {
+        synchronized (deviceListLock) {
+            long bucket = System.currentTimeMillis() / DEVICE_LIST_BUCKET_SIZE;
+            if (deviceList == null || bucket != deviceListBucket) {
+                DeviceList loadedDeviceList = mZWayApi.getDevices();
+                serverRequests.incrementAndGet();
+                if (loadedDeviceList != null) {
+                    logger.debug("Device list snapshot loaded ({} devices)", loadedDeviceList.getDevices().size());
+                    deviceListBucket = bucket;
+                } else {
+                    deviceListBucket = -1;
+                }
+                deviceList = loadedDeviceList;
+            }
+            return deviceList;
+        }
+    }
+
+    /**
+     * Discards the device list snapshot, e.g. after devices have been changed on the Z-Way server.
+     */
+    public void invalidateDeviceList() {
+        synchronized (deviceListLock) {
+            deviceList = null;
+            deviceListBucket = -1;
+        }
+    }
+
     /********************************
      ****** Z-Way API callback ******
      *******************************/
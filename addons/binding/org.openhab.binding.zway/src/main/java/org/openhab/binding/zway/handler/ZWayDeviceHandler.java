@@ -15,8 +15,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 
 import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.library.types.DecimalType;
@@ -68,11 +66,9 @@ import de.fh_zwickau.informatik.sensor.model.zwaveapi.devices.ZWaveDevice;
 public abstract class ZWayDeviceHandler extends BaseThingHandler {
     private Logger logger = LoggerFactory.getLogger(this.getClass());
 
-    private DevicePolling devicePolling;
-    private ScheduledFuture<?> pollingJob;
-
     /**
-     * Initialize polling job and register all linked item in openHAB connector as observer
+     * Register at the bridge for device updates and polling, push the current states and register all linked item in
+     * openHAB connector as observer
      */
     private class Initializer implements Runnable {
 
@@ -90,16 +86,9 @@ public abstract class ZWayDeviceHandler extends BaseThingHandler {
                     return;
                 }
 
-                // Initialize device polling
-                if (pollingJob == null || pollingJob.isCancelled()) {
-                    logger.debug("Starting polling job at intervall {}",
-                            zwayBridgeHandler.getZWayBridgeConfiguration().getPollingInterval());
-                    pollingJob = scheduler.scheduleAtFixedRate(devicePolling, 10,
-                            zwayBridgeHandler.getZWayBridgeConfiguration().getPollingInterval(), TimeUnit.SECONDS);
-                } else {
-                    // Called when thing or bridge updated ...
-                    logger.debug("Polling is allready active");
-                }
+                // Register for device changes and polling, both are done by the bridge, and push the current states
+                zwayBridgeHandler.registerDeviceHandler(ZWayDeviceHandler.this);
+                new DevicePolling(true, true).run();
 
                 // Register all linked items on server start
                 if (zwayBridgeHandler.getZWayBridgeConfiguration().getObserverMechanismEnabled()) {
@@ -128,7 +117,7 @@ public abstract class ZWayDeviceHandler extends BaseThingHandler {
                 }
                 if (getThing().getStatus() == ThingStatus.ONLINE) {
                     updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.HANDLER_INITIALIZING_ERROR,
-                            "Error occurred when starting polling and registering item as observer.");
+                            "Error occurred when registering for updates and registering item as observer.");
                 }
             }
         }
@@ -172,8 +161,6 @@ public abstract class ZWayDeviceHandler extends BaseThingHandler {
 
     public ZWayDeviceHandler(Thing thing) {
         super(thing);
-
-        devicePolling = new DevicePolling();
     }
 
     protected synchronized ZWayBridgeHandler getZWayBridgeHandler() {
@@ -200,9 +187,9 @@ public abstract class ZWayDeviceHandler extends BaseThingHandler {
 
     @Override
     public void dispose() {
-        if (pollingJob != null && !pollingJob.isCancelled()) {
-            pollingJob.cancel(true);
-            pollingJob = null;
+        ZWayBridgeHandler zwayBridgeHandler = getZWayBridgeHandler();
+        if (zwayBridgeHandler != null) {
+            zwayBridgeHandler.unregisterDeviceHandler(this);
         }
 
         super.dispose();
@@ -235,45 +222,97 @@ public abstract class ZWayDeviceHandler extends BaseThingHandler {
         }
     }
 
+    /**
+     * Refreshes all linked channels, either from the device list snapshot of the bridge or, for a refresh requested
+     * by the user, from the Z-Way server.
+     */
     private class DevicePolling implements Runnable {
+        private final boolean updateDeviceStates;
+        private final boolean useSnapshot;
+
+        private DevicePolling(boolean updateDeviceStates, boolean useSnapshot) {
+            this.updateDeviceStates = updateDeviceStates;
+            this.useSnapshot = useSnapshot;
+        }
+
         @Override
         public void run() {
-            logger.debug("Starting polling for device: {}", getThing().getLabel());
-            if (getThing().getStatus().equals(ThingStatus.ONLINE)) {
-                for (Channel channel : getThing().getChannels()) {
-                    logger.debug("Checking link state of channel: {}", channel.getLabel());
-                    if (isLinked(channel.getUID().getId())) {
-                        logger.debug("Refresh items that linked with channel: {}", channel.getLabel());
-
-                        // https://community.openhab.org/t/oh2-major-bug-with-scheduled-jobs/12350/11
-                        // If any execution of the task encounters an exception, subsequent executions are
-                        // suppressed. Otherwise, the task will only terminate via cancellation or
-                        // termination of the executor.
-                        try {
-                            refreshChannel(channel);
-                        } catch (Throwable t) {
-                            if (t instanceof Exception) {
-                                logger.error("Error occurred when performing polling:" + ((Exception) t).getMessage());
-                            } else if (t instanceof Error) {
-                                logger.error("Error occurred when performing polling: " + ((Error) t).getMessage());
-                            } else {
-                                logger.error("Error occurred when performing polling: Unexpected error");
-                            }
-                            if (getThing().getStatus() == ThingStatus.ONLINE) {
-                                updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.NONE,
-                                        "Error occurred when performing polling.");
-                            }
-                        }
+            DeviceList deviceList = null;
+            if (useSnapshot) {
+                ZWayBridgeHandler zwayBridgeHandler = getZWayBridgeHandler();
+                if (zwayBridgeHandler == null) {
+                    logger.debug("Z-Way bridge handler not found.");
+                    return;
+                }
+                deviceList = zwayBridgeHandler.getDeviceList();
+                if (deviceList == null) {
+                    logger.warn("Devices not loaded");
+                    return;
+                }
+            }
+            refreshLinkedChannels(updateDeviceStates, deviceList);
+        }
+    };
+
+    /**
+     * Refreshes the command class channels and triggers the update of the devices of all linked channels. Called by
+     * the bridge once per polling interval for all registered handlers, changed device states are passed by the
+     * bridge with {@link #deviceUpdated(Device)}.
+     *
+     * @param deviceList device list snapshot of the bridge
+     * @return number of requests sent to the Z-Way server
+     */
+    protected int pollLinkedChannels(DeviceList deviceList) {
+        return refreshLinkedChannels(false, deviceList);
+    }
+
+    /**
+     * Refreshes all linked channels.
+     *
+     * @param updateDeviceStates true if the states of device channels should be updated
+     * @param deviceList snapshot of the device list to read the devices from, or null to load the devices from the
+     *            Z-Way server
+     * @return number of requests sent to the Z-Way server
+     */
+    private int refreshLinkedChannels(boolean updateDeviceStates, DeviceList deviceList) {
+        logger.debug("Starting polling for device: {}", getThing().getLabel());
+        if (!getThing().getStatus().equals(ThingStatus.ONLINE)) {
+            logger.debug("Polling not possible, Z-Way device isn't ONLINE");
+            return 0;
+        }
+
+        int requests = 0;
+        for (Channel channel : getThing().getChannels()) {
+            logger.debug("Checking link state of channel: {}", channel.getLabel());
+            if (isLinked(channel.getUID().getId())) {
+                logger.debug("Refresh items that linked with channel: {}", channel.getLabel());
+
+                // https://community.openhab.org/t/oh2-major-bug-with-scheduled-jobs/12350/11
+                // If any execution of the task encounters an exception, subsequent executions are
+                // suppressed. Otherwise, the task will only terminate via cancellation or
+                // termination of the executor.
+                try {
+                    requests += refreshChannel(channel, updateDeviceStates, deviceList);
+                } catch (Throwable t) {
+                    if (t instanceof Exception) {
+                        logger.error("Error occurred when performing polling:" + ((Exception) t).getMessage());
+                    } else if (t instanceof Error) {
+                        logger.error("Error occurred when performing polling: " + ((Error) t).getMessage());
                     } else {
-                        logger.debug("Polling for device: {} not possible (channel {} not linked", thing.getLabel(),
-                                channel.getLabel());
+                        logger.error("Error occurred when performing polling: Unexpected error");
+                    }
+                    if (getThing().getStatus() == ThingStatus.ONLINE) {
+                        updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.NONE,
+                                "Error occurred when performing polling.");
                     }
                 }
             } else {
-                logger.debug("Polling not possible, Z-Way device isn't ONLINE");
+                logger.debug("Polling for device: {} not possible (channel {} not linked", thing.getLabel(),
+                        channel.getLabel());
             }
         }
-    };
+        return requests;
+    }
 
     private synchronized void setLocation() {
         Map<String, String> properties = getThing().getProperties();
@@ -289,42 +328,63 @@ public abstract class ZWayDeviceHandler extends BaseThingHandler {
     }
 
     protected void refreshAllChannels() {
-        scheduler.execute(new DevicePolling());
+        scheduler.execute(new DevicePolling(true, false));
     }
 
-    private void refreshChannel(Channel channel) {
+    /**
+     * Updates all linked channels of the passed device, called by the bridge if the device has changed.
+     *
+     * @param device updated device
+     */
+    protected void deviceUpdated(Device device) {
+        if (!getThing().getStatus().equals(ThingStatus.ONLINE)) {
+            return;
+        }
+        for (Channel channel : getThing().getChannels()) {
+            if (device.getDeviceId().equals(channel.getProperties().get("deviceId"))
+                    && isLinked(channel.getUID().getId())) {
+                updateState(channel.getUID(), ZWayDeviceStateConverter.toState(device, channel));
+            }
+        }
+    }
+
+    /**
+     * Refreshes a channel and triggers the update of its device.
+     *
+     * @param channel channel to refresh
+     * @param updateDeviceState true if the state of a device channel should be updated
+     * @param deviceList snapshot of the device list to read the device from, or null to load the device from the
+     *            Z-Way server
+     * @return number of requests sent to the Z-Way server
+     */
+    private int refreshChannel(Channel channel, boolean updateDeviceState, DeviceList deviceList) {
         // Check Z-Way bridge handler
         ZWayBridgeHandler zwayBridgeHandler = getZWayBridgeHandler();
         if (zwayBridgeHandler == null || !zwayBridgeHandler.getThing().getStatus().equals(ThingStatus.ONLINE)) {
             logger.debug("Z-Way bridge handler not found or not ONLINE.");
-            return;
+            return 0;
         }
 
+        int requests = 0;
+
         // Check device id associated with channel
         String deviceId = channel.getProperties().get("deviceId");
         if (deviceId != null) {
-            // Load and check device from Z-Way server
-            DeviceList deviceList = zwayBridgeHandler.getZWayApi().getDevices();
+            // 1.) Load only the current value from Z-Way server
+            Device device;
             if (deviceList != null) {
-                // 1.) Load only the current value from Z-Way server
-                Device device = deviceList.getDeviceById(deviceId);
-                if (device == null) {
-                    logger.debug("ZAutomation device not found.");
-                    return;
-                }
-
-                updateState(channel.getUID(), ZWayDeviceStateConverter.toState(device, channel));
-
-                // 2.) Trigger update function, soon as the value has been updated, openHAB will be notified
-                try {
-                    device.update();
-                } catch (Exception e) {
-                    logger.debug(device.getMetrics().getTitle()
-                            + " doesn't support update (triggered during refresh channel)");
-                }
+                device = deviceList.getDeviceById(deviceId);
             } else {
-                logger.warn("Devices not loaded");
+                device = zwayBridgeHandler.getZWayApi().getDevice(deviceId);
+                requests++;
+            }
+            if (device == null) {
+                logger.debug("ZAutomation device not found.");
+                return requests;
             }
+
+            refreshDeviceChannel(channel, device, updateDeviceState);
+            requests++;
         } else {
             // Check channel for command classes
             // Channel thermostat mode
@@ -332,6 +392,7 @@ public abstract class ZWayDeviceHandler extends BaseThingHandler {
                 // Load physical device
                 Integer nodeId = Integer.parseInt(channel.getProperties().get("nodeId"));
                 ZWaveDevice physicalDevice = zwayBridgeHandler.getZWayApi().getZWaveDevice(nodeId);
+                requests++;
 
                 if (physicalDevice != null) {
                     updateState(channel.getUID(), new DecimalType(physicalDevice.getInstances().get0()
@@ -339,6 +400,20 @@ public abstract class ZWayDeviceHandler extends BaseThingHandler {
                 }
             }
         }
+        return requests;
+    }
+
+    private void refreshDeviceChannel(Channel channel, Device device, boolean updateDeviceState) {
+        if (updateDeviceState) {
+            updateState(channel.getUID(), ZWayDeviceStateConverter.toState(device, channel));
+        }
+
+        // 2.) Trigger update function, soon as the value has been updated, openHAB will be notified
+        try {
+            device.update();
+        } catch (Exception e) {
+            logger.debug(device.getMetrics().getTitle() + " doesn't support update (triggered during refresh channel)");
+        }
     }
 
     @Override
@@ -458,19 +533,15 @@ public abstract class ZWayDeviceHandler extends BaseThingHandler {
         final String deviceId = channel.getProperties().get("deviceId");
 
         if (deviceId != null) {
-            DeviceList deviceList = zwayBridgeHandler.getZWayApi().getDevices();
-            if (deviceList != null) {
-                Device device = deviceList.getDeviceById(deviceId);
-                if (device == null) {
-                    logger.debug("ZAutomation device not found.");
-                    return;
-                }
-
+            // Commands depend on the current device state, so the device is loaded from the Z-Way server instead of
+            // reading it from the device list snapshot
+            Device device = zwayBridgeHandler.getZWayApi().getDevice(deviceId);
+            if (device != null) {
                 try {
                     if (command instanceof RefreshType) {
                         logger.debug("Handle command: RefreshType");
 
-                        refreshChannel(channel);
+                        refreshDeviceChannel(channel, device, true);
                     } else {
                         if (device instanceof Battery) {
                             // possible commands: update()
@@ -579,7 +650,7 @@ public abstract class ZWayDeviceHandler extends BaseThingHandler {
                     logger.warn("Unknown command: {}", e.getMessage());
                 }
             } else {
-                logger.warn("Devices not loaded");
+                logger.debug("ZAutomation device not found.");
             }
         } else if (channel.getUID().equals(new ChannelUID(getThing().getUID(), THERMOSTAT_MODE_CC_CHANNEL))) {
             // Load physical device
@@ -592,7 +663,7 @@ public abstract class ZWayDeviceHandler extends BaseThingHandler {
             } else if (command instanceof RefreshType) {
                 logger.debug("Handle command: RefreshType");
 
-                refreshChannel(channel);
+                refreshChannel(channel, true, null);
             }
         }
     }
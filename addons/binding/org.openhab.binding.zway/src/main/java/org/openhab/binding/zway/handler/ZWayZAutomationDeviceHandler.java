@@ -52,7 +52,7 @@ public class ZWayZAutomationDeviceHandler extends ZWayDeviceHandler {
                 updateStatus(statusInfo.getStatus(), statusInfo.getStatusDetail(), statusInfo.getDescription());
 
                 // Add all available channels
-                DeviceList deviceList = getZWayBridgeHandler().getZWayApi().getDevices();
+                DeviceList deviceList = getZWayBridgeHandler().getDeviceList();
                 if (deviceList != null) {
                     logger.debug("Z-Way devices loaded ({} virtual devices)", deviceList.getDevices().size());
 
@@ -68,7 +68,7 @@ public class ZWayZAutomationDeviceHandler extends ZWayDeviceHandler {
 
                             addDeviceAsChannel(device);
 
-                            // starts polling job and register all linked items
+                            // registers for device changes and polling and register all linked items
                             completeInitialization();
                         } else {
                             logger.warn("Initializing Z-Way device handler failed (virtual device not found): {}",
@@ -128,7 +128,7 @@ public class ZWayZAutomationDeviceHandler extends ZWayDeviceHandler {
     }
 
     private void completeInitialization() {
-        super.initialize(); // starts polling job and register all linked items
+        super.initialize(); // registers for device changes and polling and register all linked items
     }
 
     private ZWayZAutomationDeviceConfiguration loadAndCheckConfiguration() {
@@ -54,7 +54,7 @@ public class ZWayZWaveDeviceHandler extends ZWayDeviceHandler {
 
                 // Add all available channels
                 logger.debug("Add all available channels");
-                DeviceList deviceList = getZWayBridgeHandler().getZWayApi().getDevices();
+                DeviceList deviceList = getZWayBridgeHandler().getDeviceList();
                 if (deviceList != null) {
                     logger.debug("Z-Way devices loaded ({} physical devices)",
                             deviceList.getDevicesGroupByNodeId().size());
@@ -106,7 +106,7 @@ public class ZWayZWaveDeviceHandler extends ZWayDeviceHandler {
                             addCommandClassThermostatModeAsChannel(modes, mConfig.getNodeId());
                         }
 
-                        // starts polling job and register all linked items
+                        // registers for device changes and polling and register all linked items
                         completeInitialization();
                     } catch (Throwable t) {
                         if (t instanceof Exception) {
@@ -159,7 +159,7 @@ public class ZWayZWaveDeviceHandler extends ZWayDeviceHandler {
     }
 
     private void completeInitialization() {
-        super.initialize(); // starts polling job and register all linked items
+        super.initialize(); // registers for device changes and polling and register all linked items
     }
 
     private ZWayZWaveDeviceConfiguration loadAndCheckConfiguration() {
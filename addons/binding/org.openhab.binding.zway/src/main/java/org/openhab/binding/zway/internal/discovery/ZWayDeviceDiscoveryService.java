@@ -65,7 +65,7 @@ public class ZWayDeviceDiscoveryService extends AbstractDiscoveryService {
 
         LocationList locationList = mBridgeHandler.getZWayApi().getLocations();
 
-        DeviceList deviceList = mBridgeHandler.getZWayApi().getDevices();
+        DeviceList deviceList = mBridgeHandler.getDeviceList();
         if (deviceList != null) {
             Map<Integer, List<Device>> physicalDevices = deviceList.getDevicesGroupByNodeId();
             for (Map.Entry<Integer, List<Device>> entry : physicalDevices.entrySet()) {
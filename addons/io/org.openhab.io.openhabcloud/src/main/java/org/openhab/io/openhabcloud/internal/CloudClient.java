@@ -13,19 +13,22 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URLEncoder;
 import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jetty.client.HttpClient;
 import org.eclipse.jetty.client.api.Request;
 import org.eclipse.jetty.client.api.Request.FailureListener;
 import org.eclipse.jetty.client.api.Response;
-import org.eclipse.jetty.client.api.Response.ContentListener;
+import org.eclipse.jetty.client.api.Response.AsyncContentListener;
 import org.eclipse.jetty.client.api.Response.HeadersListener;
 import org.eclipse.jetty.client.api.Result;
 import org.eclipse.jetty.client.util.BytesContentProvider;
@@ -34,8 +37,10 @@ import org.eclipse.jetty.http.HttpFields;
 import org.eclipse.jetty.http.HttpMethod;
 import org.eclipse.jetty.http.HttpStatus;
 import org.eclipse.jetty.util.BufferUtil;
+import org.eclipse.jetty.util.Callback;
 import org.eclipse.jetty.util.URIUtil;
 import org.eclipse.smarthome.core.common.ThreadPoolManager;
+import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.openhab.core.OpenHAB;
@@ -47,6 +52,7 @@ import io.socket.client.Manager;
 import io.socket.client.Socket;
 import io.socket.emitter.Emitter;
 import io.socket.engineio.client.Transport;
+import io.socket.thread.EventThread;
 
 /**
  * This class provides communication between openHAB and the openHAB Cloud service.
@@ -77,6 +83,13 @@ public class CloudClient {
      */
     private static final int HTTP_CLIENT_TIMEOUT = 30000;
 
+    /*
+     * This constant defines the maximum number of response bytes per request which have been read from
+     * local openHAB but not yet written by the transport of the Socket.IO connection. Reading from openHAB
+     * is paused while this window is exhausted.
+     */
+    private static final int RESPONSE_WINDOW_SIZE = 256 * 1024;
+
     /*
      * This variable holds base URL for the openHAB Cloud connections
      */
@@ -103,9 +116,9 @@ public class CloudClient {
     private HttpClient jettyClient;
 
     /*
-     * This hashmap holds HTTP requests to local openHAB which are currently running
+     * This map holds HTTP requests to local openHAB which are currently running
      */
-    private HashMap<Integer, Request> runningRequests;
+    private final ConcurrentMap<Integer, Request> runningRequests;
 
     /*
      * This variable indicates if connection to the openHAB Cloud is currently in an established state
@@ -123,6 +136,12 @@ public class CloudClient {
      */
     private Socket socket;
 
+    /*
+     * This queue holds the response chunks which have been emitted to Socket.IO since the last drain of its
+     * transport. It is only accessed on the Socket.IO event thread.
+     */
+    private final Queue<EmittedChunk> emittedChunks = new ArrayDeque<EmittedChunk>();
+
     /*
      * This variable holds instance of CloudClientListener which provides callbacks to communicate
      * certain events from the openHAB Cloud back to openHAB
@@ -148,7 +167,7 @@ public class CloudClient {
         this.localBaseUrl = localBaseUrl;
         this.remoteAccessEnabled = remoteAccessEnabled;
         this.exposedItems = exposedItems;
-        runningRequests = new HashMap<Integer, Request>();
+        runningRequests = new ConcurrentHashMap<Integer, Request>();
         jettyClient = new HttpClient();
         jettyClient.setMaxConnectionsPerDestination(HTTP_CLIENT_MAX_CONNECTIONS_PER_DEST);
         jettyClient.setConnectTimeout(HTTP_CLIENT_TIMEOUT);
@@ -182,6 +201,13 @@ public class CloudClient {
                         headers.put("remoteaccess", Arrays.asList(((Boolean) remoteAccessEnabled).toString()));
                     }
                 });
+                transport.on(Transport.EVENT_DRAIN, new Emitter.Listener() {
+                    @Override
+                    public void call(Object... args) {
+                        logger.trace("Transport.EVENT_DRAIN");
+                        onTransportDrain();
+                    }
+                });
             }
         });
         socket.on(Socket.EVENT_CONNECT, new Emitter.Listener() {
@@ -196,6 +222,8 @@ public class CloudClient {
             public void call(Object... args) {
                 logger.debug("Socket.IO disconnected");
                 isConnected = false;
+                // the transport is gone, so the emitted chunks will not be drained
+                onTransportDrain();
                 onDisconnect();
             }
         }).on(Socket.EVENT_ERROR, new Emitter.Listener() {
@@ -240,6 +268,23 @@ public class CloudClient {
         }
     }
 
+    /**
+     * Callback method for the Socket.IO transport which is called when it has written the packets it was given.
+     * All response chunks emitted before have been written at the latest by the write which follows this drain,
+     * so the unwritten bytes of a request never exceed the window by more than one write of the transport.
+     */
+    private void onTransportDrain() {
+        EventThread.exec(new Runnable() {
+            @Override
+            public void run() {
+                EmittedChunk chunk;
+                while ((chunk = emittedChunks.poll()) != null) {
+                    chunk.listener.onContentWritten(chunk.size);
+                }
+            }
+        });
+    }
+
     /**
      * Callback method for socket.io client which is called when disconnect occurs
      */
@@ -257,9 +302,7 @@ public class CloudClient {
             }
         }
         // And clean up the list of running requests
-        if (runningRequests != null) {
-            runningRequests.clear();
-        }
+        runningRequests.clear();
     }
 
     /**
@@ -345,10 +388,11 @@ public class CloudClient {
                 return;
             }
             ResponseListener listener = new ResponseListener(requestId);
-            request.onResponseHeaders(listener).onResponseContent(listener).onRequestFailure(listener).send(listener);
-            // If successfully submitted request to http client, add it to the list of currently
-            // running requests to be able to cancel it if needed
+            // Add the request to the list of currently running requests before sending it,
+            // to be able to cancel it if needed and to not race with its completion
             runningRequests.put(requestId, request);
+            request.onResponseHeaders(listener).onResponseContentAsync(listener).onRequestFailure(listener)
+                    .send(listener);
         } catch (JSONException e) {
             logger.error(e.getMessage());
         } catch (IOException e) {
@@ -382,10 +426,9 @@ public class CloudClient {
             int requestId = data.getInt("id");
             logger.debug("Received cancel for request {}", requestId);
             // Find and abort running request
-            if (runningRequests.containsKey(requestId)) {
-                Request request = runningRequests.get(requestId);
+            Request request = runningRequests.remove(requestId);
+            if (request != null) {
                 request.abort(new InterruptedException());
-                runningRequests.remove(requestId);
             }
         } catch (JSONException e) {
             logger.error(e.getMessage());
@@ -487,9 +530,10 @@ public class CloudClient {
      *
      * @param itemName the name of the item
      * @param itemState updated item state
+     * @return true if the update has been sent, false if there is no connection
      *
      */
-    public void sendItemUpdate(String itemName, String itemState) {
+    public boolean sendItemUpdate(String itemName, String itemState) {
         if (isConnected()) {
             logger.debug("Sending update '{}' for item '{}'", itemState, itemName);
             JSONObject itemUpdateMessage = new JSONObject();
@@ -500,8 +544,41 @@ public class CloudClient {
             } catch (JSONException e) {
                 logger.error(e.getMessage());
             }
+            return true;
         } else {
             logger.debug("No connection, Item update is not sent");
+            return false;
+        }
+    }
+
+    /**
+     * Send several item updates to openHAB Cloud in a single message
+     *
+     * @param itemStates map of item names to their updated states
+     * @return true if the updates have been sent, false if there is no connection
+     *
+     */
+    public boolean sendItemUpdates(Map<String, String> itemStates) {
+        if (isConnected()) {
+            logger.debug("Sending {} item updates", itemStates.size());
+            JSONArray itemUpdates = new JSONArray();
+            try {
+                for (Map.Entry<String, String> itemState : itemStates.entrySet()) {
+                    JSONObject itemUpdateMessage = new JSONObject();
+                    itemUpdateMessage.put("itemName", itemState.getKey());
+                    itemUpdateMessage.put("itemStatus", itemState.getValue());
+                    itemUpdates.put(itemUpdateMessage);
+                }
+                JSONObject itemUpdatesMessage = new JSONObject();
+                itemUpdatesMessage.put("updates", itemUpdates);
+                socket.emit("itemupdates", itemUpdatesMessage);
+            } catch (JSONException e) {
+                logger.error(e.getMessage());
+            }
+            return true;
+        } else {
+            logger.debug("No connection, Item updates are not sent");
+            return false;
         }
     }
 
@@ -538,15 +615,49 @@ public class CloudClient {
     }
 
     /*
-     * An internal class which forwards response headers and data back to the openHAB Cloud
+     * A response chunk which has been emitted to Socket.IO, but not yet written by its transport
+     */
+    private static class EmittedChunk {
+        private final ResponseListener listener;
+        private final int size;
+
+        private EmittedChunk(ResponseListener listener, int size) {
+            this.listener = listener;
+            this.size = size;
+        }
+    }
+
+    /*
+     * An internal class which forwards response headers and data back to the openHAB Cloud.
+     * Response content is forwarded with flow control: Jetty only continues reading from local
+     * openHAB while less than RESPONSE_WINDOW_SIZE bytes of this response are waiting to be written
+     * by the transport of the Socket.IO connection.
      */
     private class ResponseListener
-            implements Response.CompleteListener, HeadersListener, ContentListener, FailureListener {
+            implements Response.CompleteListener, HeadersListener, AsyncContentListener, FailureListener {
 
         private static final String THREADPOOL_OPENHABCLOUD = "openhabcloud";
         private int mRequestId;
         private boolean mHeadersSent = false;
 
+        /*
+         * Number of bytes emitted to Socket.IO, but not yet written by its transport
+         */
+        private int mBytesInFlight = 0;
+
+        /*
+         * Jetty callback of the content chunk which exhausted the window, if any
+         */
+        private Callback mPendingCallback;
+
+        /*
+         * Per-request statistics
+         */
+        private final long mStartTime = System.currentTimeMillis();
+        private long mBytesSent = 0;
+        private int mChunksSent = 0;
+        private int mStalls = 0;
+
         public ResponseListener(int requestId) {
             mRequestId = requestId;
         }
@@ -567,6 +678,7 @@ public class CloudClient {
         public void onComplete(Result result) {
             // Remove this request from list of running requests
             runningRequests.remove(mRequestId);
+            logStatistics();
             if (result.isFailed() && result.getResponse().getStatus() != HttpStatus.OK_200) {
                 logger.warn("Jetty request {} failed: {}", mRequestId, result.getFailure().getMessage());
                 logger.warn(result.getRequestFailure().getMessage());
@@ -608,16 +720,64 @@ public class CloudClient {
         }
 
         @Override
-        public void onContent(Response response, ByteBuffer content) {
-            logger.debug("Jetty received response content of size " + String.valueOf(content.remaining()));
+        public void onContent(Response response, ByteBuffer content, Callback callback) {
+            final int size = content.remaining();
+            logger.debug("Jetty received response content of size {}", size);
             JSONObject responseJson = new JSONObject();
             try {
                 responseJson.put("id", mRequestId);
+                // the content buffer is recycled by Jetty once the callback is completed, so it is copied here
                 responseJson.put("body", BufferUtil.toArray(content));
-                socket.emit("responseContentBinary", responseJson);
-                logger.debug("Sent content to request {}", mRequestId);
             } catch (JSONException e) {
                 logger.error(e.getMessage());
+                callback.failed(e);
+                return;
+            }
+            boolean windowAvailable;
+            synchronized (this) {
+                mBytesInFlight += size;
+                mBytesSent += size;
+                mChunksSent++;
+                windowAvailable = mBytesInFlight < RESPONSE_WINDOW_SIZE;
+                if (!windowAvailable) {
+                    mPendingCallback = callback;
+                    mStalls++;
+                }
+            }
+            socket.emit("responseContentBinary", responseJson);
+            // Socket.IO processes emits in order on its event thread, so this runs once the chunk has been
+            // queued for the transport, it is accounted as written when the transport drains
+            EventThread.exec(new Runnable() {
+                @Override
+                public void run() {
+                    emittedChunks.add(new EmittedChunk(ResponseListener.this, size));
+                }
+            });
+            logger.debug("Sent content to request {}", mRequestId);
+            if (windowAvailable) {
+                callback.succeeded();
+            }
+        }
+
+        private void onContentWritten(int size) {
+            Callback callback = null;
+            synchronized (this) {
+                mBytesInFlight -= size;
+                if (mPendingCallback != null && mBytesInFlight < RESPONSE_WINDOW_SIZE) {
+                    callback = mPendingCallback;
+                    mPendingCallback = null;
+                }
+            }
+            if (callback != null) {
+                callback.succeeded();
+            }
+        }
+
+        private synchronized void logStatistics() {
+            if (logger.isDebugEnabled()) {
+                long duration = Math.max(1, System.currentTimeMillis() - mStartTime);
+                logger.debug("Request {} sent {} bytes in {} chunks within {} ms ({} kB/s, {} stalls)", mRequestId,
+                        mBytesSent, mChunksSent, duration, mBytesSent / duration, mStalls);
             }
         }
 
@@ -60,13 +60,17 @@ public class CloudService implements ActionService, CloudClientListener, EventSu
     private static final String CFG_EXPOSE = "expose";
     private static final String CFG_BASE_URL = "baseURL";
     private static final String CFG_MODE = "mode";
+    private static final String CFG_UPDATE_INTERVAL = "updateInterval";
+    private static final String CFG_BATCH_UPDATES = "batchUpdates";
     private static final String SECRET_FILE_NAME = "openhabcloud" + File.separator + "secret";
     private static final String DEFAULT_URL = "https://myopenhab.org/";
+    private static final long DEFAULT_UPDATE_INTERVAL = 1000;
 
     private Logger logger = LoggerFactory.getLogger(CloudService.class);
 
     public static String clientVersion = null;
     private CloudClient cloudClient;
+    private ItemUpdateBuffer itemUpdateBuffer;
     private String cloudBaseUrl = null;
     protected ItemRegistry itemRegistry = null;
     protected EventPublisher eventPublisher = null;
@@ -149,6 +153,9 @@ public class CloudService implements ActionService, CloudClientListener, EventSu
 
     protected void deactivate() {
         logger.debug("openHAB Cloud connector deactivated");
+        if (itemUpdateBuffer != null) {
+            itemUpdateBuffer.stop();
+        }
         cloudClient.shutdown();
     }
 
@@ -184,8 +191,23 @@ public class CloudService implements ActionService, CloudClientListener, EventSu
             }
         }
 
+        long updateInterval = DEFAULT_UPDATE_INTERVAL;
+        Object intervalCfg = config.get(CFG_UPDATE_INTERVAL);
+        if (intervalCfg != null) {
+            try {
+                updateInterval = Long.parseLong(intervalCfg.toString().trim());
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid update interval '{}', using {} ms", intervalCfg, DEFAULT_UPDATE_INTERVAL);
+            }
+        }
+        Object batchCfg = config.get(CFG_BATCH_UPDATES);
+        boolean batchUpdates = batchCfg != null && Boolean.parseBoolean(batchCfg.toString().trim());
+
         logger.debug("UUID = " + InstanceUUID.get() + ", secret = " + getSecret());
 
+        if (itemUpdateBuffer != null) {
+            itemUpdateBuffer.stop();
+        }
         if (cloudClient != null) {
             cloudClient.shutdown();
         }
@@ -196,6 +218,8 @@ public class CloudService implements ActionService, CloudClientListener, EventSu
         cloudClient.setOpenHABVersion(OpenHAB.getVersion());
         cloudClient.connect();
         cloudClient.setListener(this);
+        itemUpdateBuffer = new ItemUpdateBuffer(cloudClient, updateInterval, batchUpdates);
+        itemUpdateBuffer.start();
         NotificationAction.cloudService = this;
     }
 
@@ -334,7 +358,7 @@ public class CloudService implements ActionService, CloudClientListener, EventSu
     public void receive(Event event) {
         ItemStateEvent ise = (ItemStateEvent) event;
         if (exposedItems != null && exposedItems.contains(ise.getItemName())) {
-            cloudClient.sendItemUpdate(ise.getItemName(), ise.getItemState().toString());
+            itemUpdateBuffer.offer(ise.getItemName(), ise.getItemState().toString());
         }
     }
 
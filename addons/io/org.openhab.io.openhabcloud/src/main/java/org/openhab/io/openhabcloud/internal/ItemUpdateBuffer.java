@@ -0,0 +1,225 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.openhabcloud.internal;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class buffers item updates which are to be sent to the openHAB Cloud. Updates are coalesced per item,
+ * so that only the latest state of an item is sent once per flush interval. While the connection to the
+ * openHAB Cloud is down, pending updates are kept (still coalesced) and sent as soon as it is re-established.
+ *
+ * @author agent - Initial contribution
+ */
+public class ItemUpdateBuffer {
+
+    private static final String THREADPOOL_OPENHABCLOUD = "openhabcloud";
+
+    /*
+     * The interval in milliseconds in which the update statistics are logged
+     */
+    private static final long STATISTICS_INTERVAL = 60000;
+
+    private final Logger logger = LoggerFactory.getLogger(ItemUpdateBuffer.class);
+
+    /*
+     * This variable holds the cloud client which is used to send the updates
+     */
+    private final CloudClient cloudClient;
+
+    /*
+     * This variable holds the flush interval in milliseconds, 0 disables buffering
+     */
+    private final long flushInterval;
+
+    /*
+     * This variable indicates if updates should be sent as a single "itemupdates" message per flush
+     */
+    private final boolean batchUpdates;
+
+    /*
+     * This map holds the latest pending state per item name, in order of first update
+     */
+    private Map<String, String> pendingUpdates = new LinkedHashMap<String, String>();
+
+    private final AtomicLong sentUpdates = new AtomicLong();
+    private final AtomicLong coalescedUpdates = new AtomicLong();
+    private final AtomicLong requeuedUpdates = new AtomicLong();
+
+    private ScheduledFuture<?> flushJob;
+    private ScheduledFuture<?> statisticsJob;
+
+    /**
+     * Constructor of ItemUpdateBuffer
+     *
+     * @param cloudClient the client used to send updates to the openHAB Cloud
+     * @param flushInterval the interval in milliseconds in which pending updates are sent, 0 to send immediately
+     * @param batchUpdates true if all pending updates should be sent in a single "itemupdates" message
+     */
+    public ItemUpdateBuffer(CloudClient cloudClient, long flushInterval, boolean batchUpdates) {
+        this.cloudClient = cloudClient;
+        this.flushInterval = flushInterval;
+        this.batchUpdates = batchUpdates;
+    }
+
+    /**
+     * Starts the periodic flush job and the periodic debug log of the update statistics
+     */
+    public synchronized void start() {
+        ScheduledExecutorService scheduler = ThreadPoolManager.getScheduledPool(THREADPOOL_OPENHABCLOUD);
+        if (statisticsJob == null) {
+            statisticsJob = scheduler.scheduleAtFixedRate(new Runnable() {
+                @Override
+                public void run() {
+                    logStatistics();
+                }
+            }, STATISTICS_INTERVAL, STATISTICS_INTERVAL, TimeUnit.MILLISECONDS);
+        }
+        if (flushInterval > 0 && flushJob == null) {
+            flushJob = scheduler.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        flush();
+                    } catch (Exception e) {
+                        logger.warn("Error sending item updates to the openHAB Cloud: {}", e.getMessage());
+                    }
+                }
+            }, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops the periodic flush job and drops all pending updates
+     */
+    public synchronized void stop() {
+        if (flushJob != null) {
+            flushJob.cancel(false);
+            flushJob = null;
+        }
+        if (statisticsJob != null) {
+            statisticsJob.cancel(false);
+            statisticsJob = null;
+        }
+        pendingUpdates.clear();
+        logStatistics();
+    }
+
+    private void logStatistics() {
+        if (logger.isDebugEnabled()) {
+            int pending;
+            synchronized (this) {
+                pending = pendingUpdates.size();
+            }
+            logger.debug("Item update statistics: {} sent, {} coalesced, {} requeued, {} pending", sentUpdates.get(),
+                    coalescedUpdates.get(), requeuedUpdates.get(), pending);
+        }
+    }
+
+    /**
+     * Queues an item update. If an update for the same item is already pending, it is replaced.
+     *
+     * @param itemName the name of the item
+     * @param itemState updated item state
+     */
+    public void offer(String itemName, String itemState) {
+        if (flushInterval <= 0) {
+            if (cloudClient.sendItemUpdate(itemName, itemState)) {
+                sentUpdates.incrementAndGet();
+            }
+            return;
+        }
+        synchronized (this) {
+            if (pendingUpdates.put(itemName, itemState) != null) {
+                coalescedUpdates.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Sends all pending updates to the openHAB Cloud. If there is no connection, or the connection drops while
+     * sending, the updates which have not been sent are kept until the next flush.
+     */
+    public void flush() {
+        if (!cloudClient.isConnected()) {
+            return;
+        }
+        Map<String, String> updates;
+        synchronized (this) {
+            if (pendingUpdates.isEmpty()) {
+                return;
+            }
+            updates = pendingUpdates;
+            pendingUpdates = new LinkedHashMap<String, String>();
+        }
+        if (batchUpdates) {
+            if (cloudClient.sendItemUpdates(updates)) {
+                sentUpdates.addAndGet(updates.size());
+                return;
+            }
+        } else {
+            Iterator<Map.Entry<String, String>> iterator = updates.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, String> update = iterator.next();
+                if (!cloudClient.sendItemUpdate(update.getKey(), update.getValue())) {
+                    break;
+                }
+                sentUpdates.incrementAndGet();
+                iterator.remove();
+            }
+            if (updates.isEmpty()) {
+                return;
+            }
+        }
+        requeue(updates);
+    }
+
+    /**
+     * Puts updates which could not be sent back in front of the pending updates. Newer states, which have been
+     * offered in the meantime, are kept.
+     */
+    private synchronized void requeue(Map<String, String> updates) {
+        requeuedUpdates.addAndGet(updates.size());
+        logger.debug("Connection lost, {} item updates are sent on the next flush", updates.size());
+        updates.putAll(pendingUpdates);
+        pendingUpdates = updates;
+    }
+
+    /**
+     * Returns the number of item updates which have been sent to the openHAB Cloud
+     */
+    public long getSentUpdates() {
+        return sentUpdates.get();
+    }
+
+    /**
+     * Returns the number of item updates which have been replaced by a newer state before being sent
+     */
+    public long getCoalescedUpdates() {
+        return coalescedUpdates.get();
+    }
+
+    /**
+     * Returns the number of item updates which have been kept for the next flush, because the connection was lost
+     */
+    public long getRequeuedUpdates() {
+        return requeuedUpdates.get();
+    }
+
+}
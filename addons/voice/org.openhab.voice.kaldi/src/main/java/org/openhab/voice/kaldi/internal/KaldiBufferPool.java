@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.voice.kaldi.internal;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * A pool of frame buffers shared by all recognition sessions
+ *
+ * @author agent - Initial contribution
+ *
+ */
+public class KaldiBufferPool {
+
+    /**
+     * Maximum number of buffers kept in the pool
+     */
+    private final int maxSize;
+
+    /**
+     * Buffers currently not in use
+     */
+    private final ArrayDeque<byte[]> buffers = new ArrayDeque<byte[]>();
+
+    /**
+     * Constructs a pool keeping at most the passed number of buffers
+     *
+     * @param maxSize The maximum number of buffers kept in the pool
+     */
+    public KaldiBufferPool(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns a buffer of the passed size, reusing a pooled one if possible
+     *
+     * @param size The size of the buffer in bytes
+     * @return A buffer of the passed size
+     */
+    public synchronized byte[] acquire(int size) {
+        Iterator<byte[]> iterator = buffers.iterator();
+        while (iterator.hasNext()) {
+            byte[] buffer = iterator.next();
+            if (buffer.length == size) {
+                iterator.remove();
+                return buffer;
+            }
+        }
+        return new byte[size];
+    }
+
+    /**
+     * Returns a buffer to the pool
+     *
+     * @param buffer The buffer which is no longer used
+     */
+    public synchronized void release(byte[] buffer) {
+        if (buffer == null) {
+            return;
+        }
+        if (buffers.size() >= maxSize) {
+            buffers.removeFirst();
+        }
+        buffers.addLast(buffer);
+    }
+}
@@ -12,7 +12,11 @@ import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.HashSet;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 
 import org.eclipse.smarthome.core.audio.AudioFormat;
 import org.eclipse.smarthome.core.audio.AudioStream;
@@ -36,6 +40,32 @@ public class KaldiSTTService implements STTService {
      */
     private static final String kaldiWebSocketURL = "ws://52.37.26.79:8888/client/ws/speech";
 
+    /**
+     * Configuration property for the duration of the audio frames sent to the server in milliseconds
+     */
+    private static final String CONFIG_FRAME_DURATION = "frameDuration";
+
+    /**
+     * Default and maximum frame duration in milliseconds, 250ms is the maximum [See: http://bit.ly/1V4Ktw2]
+     */
+    private static final int DEFAULT_FRAME_DURATION = 100;
+    private static final int MAX_FRAME_DURATION = 250;
+
+    /**
+     * Duration of the audio frames sent to the server in milliseconds
+     */
+    private int frameDuration = DEFAULT_FRAME_DURATION;
+
+    /**
+     * Scheduler sending the audio frames of all recognition sessions
+     */
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Pool of frame buffers shared by all recognition sessions
+     */
+    private final KaldiBufferPool bufferPool = new KaldiBufferPool(8);
+
     /**
      * Set of supported locales
      */
@@ -46,6 +76,36 @@ public class KaldiSTTService implements STTService {
      */
     private final HashSet<AudioFormat> audioFormats = initAudioFormats();
 
+    protected void activate(Map<String, Object> config) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "Kaldi STT streaming");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        modified(config);
+    }
+
+    protected void modified(Map<String, Object> config) {
+        if (config != null && config.get(CONFIG_FRAME_DURATION) != null) {
+            try {
+                int duration = Integer.parseInt(config.get(CONFIG_FRAME_DURATION).toString().trim());
+                frameDuration = Math.max(10, Math.min(duration, MAX_FRAME_DURATION));
+            } catch (NumberFormatException e) {
+                frameDuration = DEFAULT_FRAME_DURATION;
+            }
+        }
+    }
+
+    protected void deactivate() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -105,12 +165,16 @@ public class KaldiSTTService implements STTService {
         }
         // One need not call recognitionSession.setContentType(...) [See http://bit.ly/1TGvQzA]
         recognitionSession.addRecognitionEventListener(new RecognitionEventListenerKaldi(sttListener));
+        STTServiceKaldiRunnable sttServiceKaldiRunnable = new STTServiceKaldiRunnable(recognitionSession, sttListener,
+                audioStream, bufferPool);
+        try {
+            recognitionSession.connect();
+        } catch (IOException e) {
+            throw new STTException("Error connected to the server", e);
+        }
 
         // Start recognition
-        STTServiceKaldiRunnable sttServiceKaldiRunnable = new STTServiceKaldiRunnable(recognitionSession, sttListener,
-                audioStream);
-        Thread thread = new Thread(sttServiceKaldiRunnable);
-        thread.start();
+        sttServiceKaldiRunnable.start(scheduler, frameDuration);
 
         // Return STTServiceHandleKaldi
         return new STTServiceHandleKaldi(sttServiceKaldiRunnable);
@@ -10,12 +10,19 @@ package org.openhab.voice.kaldi.internal;
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.smarthome.core.audio.AudioFormat;
 import org.eclipse.smarthome.core.audio.AudioStream;
 import org.eclipse.smarthome.core.voice.RecognitionStartEvent;
 import org.eclipse.smarthome.core.voice.STTListener;
 import org.eclipse.smarthome.core.voice.SpeechRecognitionErrorEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import ee.ioc.phon.netspeechapi.duplex.RecognitionEvent;
 import ee.ioc.phon.netspeechapi.duplex.RecognitionEventListener;
@@ -24,11 +31,41 @@ import ee.ioc.phon.netspeechapi.duplex.WsDuplexRecognitionSession;
 /**
  * A Runnable that sends AudioStream data in a WsDuplexRecognitionSession
  *
+ * The Runnable is scheduled at a fixed rate on a scheduler shared by all sessions. Each run sends the
+ * audio data which is due according to the elapsed time since the start of the session, so the stream
+ * is sent in real time without drifting, independent of when exactly the scheduler runs it.
+ *
+ * The AudioStream is read into frames by a reader thread of the session, as reading a live source blocks
+ * until the data has been captured. The scheduler only takes frames which have been read already, so a
+ * source lagging behind the wall clock does not delay the other sessions.
+ *
  * @author Kelly Davis - Initial contribution and API
  *
  */
 public class STTServiceKaldiRunnable implements Runnable, RecognitionEventListener {
 
+    private final Logger logger = LoggerFactory.getLogger(STTServiceKaldiRunnable.class);
+
+    /**
+     * Maximum number of frames read ahead of sending
+     */
+    private static final int MAX_QUEUED_FRAMES = 50;
+
+    /**
+     * A frame read from the AudioSource
+     */
+    private static class Frame {
+        private final byte[] data;
+        private final int size;
+        private final boolean last;
+
+        private Frame(byte[] data, int size, boolean last) {
+            this.data = data;
+            this.size = size;
+            this.last = last;
+        }
+    }
+
     /**
      * Boolean indicating if the server closed the connection
      */
@@ -54,69 +91,166 @@ public class STTServiceKaldiRunnable implements Runnable, RecognitionEventListen
      */
     private final WsDuplexRecognitionSession recognitionSession;
 
+    /**
+     * The pool the frame buffers are taken from and returned to
+     */
+    private final KaldiBufferPool bufferPool;
+
+    /**
+     * The frames which have been read, but not yet sent
+     */
+    private final BlockingQueue<Frame> frames = new ArrayBlockingQueue<Frame>(MAX_QUEUED_FRAMES);
+
+    /**
+     * The size of a frame in bytes
+     */
+    private int frameSize;
+
+    /**
+     * The thread reading the AudioSource
+     */
+    private Thread reader;
+
+    /**
+     * Boolean indicating if reading from the AudioSource failed
+     */
+    private volatile boolean readFailed;
+
+    /**
+     * Boolean indicating if sending has been stopped
+     */
+    private volatile boolean stopped;
+
+    /**
+     * The audio data rate in bytes per second
+     */
+    private int byteRate;
+
+    /**
+     * Start of streaming and number of bytes sent since
+     */
+    private long startTime;
+    private long bytesSent;
+
+    /**
+     * Boolean indicating if the last chunk was sent to the server
+     */
+    private boolean sentLastChunk;
+
+    /**
+     * Boolean indicating if a first result was received
+     */
+    private volatile boolean receivedResult;
+
+    private ScheduledFuture<?> job;
+
     /**
      * Constructs an instance targeting the passed WsDuplexRecognitionSession
      *
      * @param recognitionSession The WsDuplexRecognitionSession sesion
      * @param sttListener The STTListener targeted for STTEvents
      * @param audioStream The AudioSource data
+     * @param bufferPool The pool to take the frame buffer from
      */
     public STTServiceKaldiRunnable(WsDuplexRecognitionSession recognitionSession, STTListener sttListener,
-            AudioStream audioStream) {
+            AudioStream audioStream, KaldiBufferPool bufferPool) {
         this.isClosed = false;
         this.isAborting = false;
         this.audioStream = audioStream;
         this.sttListener = sttListener;
         this.recognitionSession = recognitionSession;
+        this.bufferPool = bufferPool;
 
         this.recognitionSession.addRecognitionEventListener(this);
     }
 
     /**
-     * This method sends AudioSource data in the WsDuplexRecognitionSession
+     * Starts sending the AudioSource data in frames of the passed duration
+     *
+     * @param scheduler The scheduler shared by all sessions
+     * @param frameMillis The duration of a frame in milliseconds
+     */
+    public synchronized void start(ScheduledExecutorService scheduler, int frameMillis) {
+        AudioFormat audioFormat = this.audioStream.getFormat();
+        int bitRate = audioFormat.getBitRate().intValue();
+        this.byteRate = (bitRate / 8);
+        this.frameSize = Math.max(1, (int) ((long) byteRate * frameMillis / 1000));
+        this.startTime = System.currentTimeMillis();
+
+        sttListener.sttEventReceived(new RecognitionStartEvent());
+
+        this.reader = new Thread("Kaldi audio reader") {
+            @Override
+            public void run() {
+                readFrames();
+            }
+        };
+        this.reader.setDaemon(true);
+        this.reader.start();
+        this.job = scheduler.scheduleAtFixedRate(this, 0, frameMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Reads the AudioSource into frames until its end, this blocks while a live source captures the data
+     */
+    private void readFrames() {
+        try {
+            boolean last = false;
+            while (!last && !stopped && !isAborting && !isClosed) {
+                byte[] buffer = bufferPool.acquire(frameSize);
+                int size = read(buffer);
+                last = size < buffer.length;
+                frames.put(new Frame(buffer, size, last));
+            }
+        } catch (InterruptedException e) {
+            // sending has been stopped
+        } catch (IOException e) {
+            logger.debug("Unable to read audio data: {}", e.getMessage());
+            readFailed = true;
+        }
+    }
+
+    /**
+     * This method sends the AudioSource data which is due in the WsDuplexRecognitionSession
      */
     @Override
-    public void run() {
+    public synchronized void run() {
+        if (job == null) {
+            return;
+        }
         try {
-            this.recognitionSession.connect();
-            AudioFormat audioFormat = this.audioStream.getFormat();
-            int bitRate = audioFormat.getBitRate().intValue();
-            int byteRate = (bitRate / 8);
-            int chunkRate = 4; // 4 <= chunkRate [See: http://bit.ly/1V4Ktw2]
-            byte buffer[] = new byte[byteRate / chunkRate];
-
-            sttListener.sttEventReceived(new RecognitionStartEvent());
-
-            boolean sentLastChunk = false;
-            while (!this.isAborting && !this.isClosed) {
-                long millisWithinChunkSecond = System.currentTimeMillis() % (1000 / chunkRate);
-                int size = audioStream.read(buffer);
-                if (size < 0) {
-                    sentLastChunk = true;
-                    byte buffer2[] = new byte[0];
-                    this.recognitionSession.sendChunk(buffer2, true);
-                    break;
+            if (this.isAborting || this.isClosed) {
+                if (!this.isClosed && !sentLastChunk) {
+                    sendLastChunk(new byte[0], 0);
                 }
-                if (size == (byteRate / chunkRate)) {
-                    this.recognitionSession.sendChunk(buffer, false);
+                stop();
+                return;
+            }
+
+            // Send the frames which are due by now and have been read already, this never blocks the
+            // scheduler shared with the other sessions
+            long due = (System.currentTimeMillis() - startTime) * byteRate / 1000 - bytesSent;
+            Frame frame;
+            while (!sentLastChunk && (frame = frames.peek()) != null && due >= frame.size) {
+                frames.poll();
+                if (frame.last) {
+                    sendLastChunk(frame.data, frame.size);
                 } else {
-                    sentLastChunk = true;
-                    byte buffer2[] = Arrays.copyOf(buffer, size);
-                    this.recognitionSession.sendChunk(buffer2, true);
-                    break;
+                    this.recognitionSession.sendChunk(frame.data, false);
+                    bytesSent += frame.size;
+                    due -= frame.size;
                 }
-                Thread.sleep(1000 / chunkRate - millisWithinChunkSecond);
+                bufferPool.release(frame.data);
             }
-
-            if (this.isAborting && !this.isClosed && !sentLastChunk) {
-                byte buffer2[] = new byte[0];
-                this.recognitionSession.sendChunk(buffer2, true);
+            if (!sentLastChunk && readFailed && frames.isEmpty()) {
+                throw new IOException("Unable to read audio data");
+            }
+            if (sentLastChunk) {
+                stop();
             }
         } catch (IOException e) {
             sttListener.sttEventReceived(new SpeechRecognitionErrorEvent("Unable to send audio data to the server"));
-        } catch (InterruptedException e) {
-            sttListener.sttEventReceived(
-                    new SpeechRecognitionErrorEvent("Unable to send data to the server at the proper rate"));
+            stop();
         } catch (RuntimeException e) {
             // Note: This is a workaround for a bug in net-speech-api and Java-WebSocket.
             //
@@ -134,6 +268,44 @@ public class STTServiceKaldiRunnable implements Runnable, RecognitionEventListen
             // This temporary, but working, solution is to catch a RuntimeException
             // here and assume that it results from sendChunk() being called on a
             // closed session then proceede as if onClose() was called.
+            stop();
+        }
+    }
+
+    /**
+     * Reads a frame from the AudioSource into the passed buffer
+     *
+     * @return The number of bytes read, which is less than a frame only at the end of the stream
+     */
+    private int read(byte[] buffer) throws IOException {
+        int size = 0;
+        while (size < buffer.length) {
+            int read = audioStream.read(buffer, size, buffer.length - size);
+            if (read < 0) {
+                break;
+            }
+            size += read;
+        }
+        return size;
+    }
+
+    private void sendLastChunk(byte[] data, int size) throws IOException {
+        sentLastChunk = true;
+        this.recognitionSession.sendChunk(Arrays.copyOf(data, size), true);
+        bytesSent += size;
+    }
+
+    private void stop() {
+        if (job != null) {
+            job.cancel(false);
+            job = null;
+            stopped = true;
+            // a reader blocked on the AudioSource ends once it returns
+            reader.interrupt();
+            Frame frame;
+            while ((frame = frames.poll()) != null) {
+                bufferPool.release(frame.data);
+            }
         }
     }
 
@@ -149,7 +321,12 @@ public class STTServiceKaldiRunnable implements Runnable, RecognitionEventListen
      */
     @Override
     public void onRecognitionEvent(RecognitionEvent recognitionEvent) {
-        // RecognitionEvent are ignored
+        if (!receivedResult && recognitionEvent.getStatus() == RecognitionEvent.STATUS_SUCCESS) {
+            receivedResult = true;
+            logger.debug("Received first {} result {} ms after start of streaming",
+                    recognitionEvent.getResult().isFinal() ? "final" : "partial",
+                    System.currentTimeMillis() - startTime);
+        }
     }
 
     /**
@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.voice.marytts.internal;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.smarthome.core.audio.AudioFormat;
+import org.eclipse.smarthome.core.voice.Voice;
+
+/**
+ * In-memory cache of synthesized raw audio, keyed by the text, voice and audio format it was synthesized for.
+ * The least recently used entries are evicted once the cache exceeds its maximum size.
+ *
+ * @author agent - Initial contribution
+ */
+class MaryTTSAudioCache {
+
+    /**
+     * Maximum total size of all cached audio data in bytes
+     */
+    private final long maxSize;
+
+    /**
+     * Cached raw audio in access order
+     */
+    private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<String, byte[]>(16, 0.75f, true);
+
+    private long size = 0;
+
+    /**
+     * Constructs a cache with the passed maximum size
+     *
+     * @param maxSize The maximum total size of all cached audio data in bytes
+     */
+    public MaryTTSAudioCache(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Creates the cache key for the passed synthesis parameters
+     *
+     * @param text The synthesized text
+     * @param voice The voice used for synthesis
+     * @param audioFormat The format of the synthesized audio
+     * @return The cache key
+     */
+    public static String getKey(String text, Voice voice, AudioFormat audioFormat) {
+        return voice.getUID() + '|' + audioFormat.getCodec() + '|' + audioFormat.getFrequency() + '|' + text;
+    }
+
+    /**
+     * Returns the cached raw audio for the passed key
+     *
+     * @param key The cache key
+     * @return The raw audio or null if it is not cached
+     */
+    public synchronized byte[] get(String key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Adds raw audio to the cache, evicting the least recently used entries if necessary
+     *
+     * @param key The cache key
+     * @param rawAudio The raw audio
+     */
+    public synchronized void put(String key, byte[] rawAudio) {
+        if (rawAudio.length > maxSize) {
+            return;
+        }
+        byte[] previous = entries.put(key, rawAudio);
+        if (previous != null) {
+            size -= previous.length;
+        }
+        size += rawAudio.length;
+        Iterator<Map.Entry<String, byte[]>> iterator = entries.entrySet().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            Map.Entry<String, byte[]> eldest = iterator.next();
+            size -= eldest.getValue().length;
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Removes all entries from the cache
+     */
+    public synchronized void clear() {
+        entries.clear();
+        size = 0;
+    }
+}
@@ -13,8 +13,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.SequenceInputStream;
 
-import javax.sound.sampled.AudioInputStream;
-
 import org.apache.commons.io.IOUtils;
 import org.eclipse.smarthome.core.audio.AudioException;
 import org.eclipse.smarthome.core.audio.AudioFormat;
@@ -45,12 +43,12 @@ class MaryTTSAudioStream extends FixedLengthAudioStream {
     /**
      * Constructs an instance with the passed properties
      *
-     * @param inputStream The InputStream of this instance
+     * @param rawAudio The raw PCM audio data of this instance
      * @param audioFormat The AudioFormat of this instance
      * @throws IOException
      */
-    public MaryTTSAudioStream(AudioInputStream inputStream, AudioFormat audioFormat) throws IOException {
-        rawAudio = IOUtils.toByteArray(inputStream);
+    public MaryTTSAudioStream(byte[] rawAudio, AudioFormat audioFormat) throws IOException {
+        this.rawAudio = rawAudio;
         this.length = rawAudio.length + 36;
         this.inputStream = new SequenceInputStream(getWavHeaderInputStream(length), new ByteArrayInputStream(rawAudio));
         this.audioFormat = audioFormat;
@@ -82,6 +80,16 @@ class MaryTTSAudioStream extends FixedLengthAudioStream {
     }
 
     private InputStream getWavHeaderInputStream(int length) throws IOException {
+        return new ByteArrayInputStream(getWavHeader(length));
+    }
+
+    /**
+     * Creates the WAVE header for the passed length
+     *
+     * @param length The length of the RIFF chunk, i.e. the raw audio length plus 36
+     * @return The 44 bytes of the WAVE header
+     */
+    static byte[] getWavHeader(long length) {
         // WAVE header
         // see http://www-mmsp.ece.mcgill.ca/Documents/AudioFormats/WAVE/WAVE.html
         byte[] header = new byte[44];
@@ -137,7 +145,7 @@ class MaryTTSAudioStream extends FixedLengthAudioStream {
         header[41] = (byte) ((rawLength >> 8) & 0xff);
         header[42] = (byte) ((rawLength >> 16) & 0xff);
         header[43] = (byte) ((rawLength >> 24) & 0xff);
-        return new ByteArrayInputStream(header);
+        return header;
     }
 
     @Override
@@ -16,13 +16,26 @@ package org.openhab.voice.marytts.internal;
  */
 
 import java.io.IOException;
+import java.text.BreakIterator;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
 
+import org.apache.commons.io.IOUtils;
 import org.eclipse.smarthome.core.audio.AudioFormat;
 import org.eclipse.smarthome.core.audio.AudioStream;
 import org.eclipse.smarthome.core.voice.TTSException;
@@ -44,9 +57,27 @@ import marytts.modules.synthesis.Voice;
  */
 public class MaryTTSService implements TTSService {
 
+    /**
+     * Maximum total size of the synthesized audio kept in memory
+     */
+    private static final long CACHE_SIZE = 32 * 1024 * 1024;
+
     private final Logger logger = LoggerFactory.getLogger(MaryTTSService.class);
 
-    private MaryInterface marytts;
+    /**
+     * Pool of MaryInterfaces, one per available processor, so that several texts can be synthesized concurrently
+     */
+    private BlockingQueue<MaryInterface> maryInterfaces;
+
+    /**
+     * Executor which synthesizes the sentences of a text in the background
+     */
+    private ExecutorService synthesisExecutor;
+
+    /**
+     * Cache of recently synthesized texts
+     */
+    private final MaryTTSAudioCache cache = new MaryTTSAudioCache(CACHE_SIZE);
 
     /**
      * Set of supported voices
@@ -60,14 +91,37 @@ public class MaryTTSService implements TTSService {
 
     protected void activate() {
         try {
-            marytts = getMaryInterface();
-            voices = initVoices();
-            audioFormats = initAudioFormats();
+            int poolSize = Runtime.getRuntime().availableProcessors();
+            maryInterfaces = new ArrayBlockingQueue<MaryInterface>(poolSize);
+            for (int i = 0; i < poolSize; i++) {
+                maryInterfaces.add(getMaryInterface());
+            }
+            synthesisExecutor = Executors.newFixedThreadPool(poolSize, new ThreadFactory() {
+                private final AtomicInteger threadCount = new AtomicInteger(1);
+
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "MaryTTS synthesis " + threadCount.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            MaryInterface marytts = maryInterfaces.peek();
+            voices = initVoices(marytts);
+            audioFormats = initAudioFormats(marytts);
         } catch (Throwable t) {
             logger.error("Failed to initialize MaryTTS: {}", t.getMessage(), t);
         }
     }
 
+    protected void deactivate() {
+        if (synthesisExecutor != null) {
+            synthesisExecutor.shutdownNow();
+            synthesisExecutor = null;
+        }
+        cache.clear();
+    }
+
     @Override
     public Set<org.eclipse.smarthome.core.voice.Voice> getAvailableVoices() {
         return this.voices;
@@ -122,32 +176,106 @@ public class MaryTTSService implements TTSService {
         Voice maryTTSVoice = Voice.getVoice(voice.getLabel());
         AudioFormat maryTTSVoiceAudioFormat = getAudioFormat(maryTTSVoice.dbAudioFormat());
 
-        // Synchronize on marytts
-        synchronized (marytts) {
-            // AudioStream to return
-            AudioStream audioStream = null;
+        String cacheKey = MaryTTSAudioCache.getKey(text, voice, maryTTSVoiceAudioFormat);
+        try {
+            byte[] cachedAudio = cache.get(cacheKey);
+            if (cachedAudio != null) {
+                logger.debug("Using cached audio for '{}'", text);
+                return new MaryTTSAudioStream(cachedAudio, maryTTSVoiceAudioFormat);
+            }
+
+            List<String> sentences = splitSentences(text, voice.getLocale());
+            if (sentences.size() <= 1) {
+                byte[] rawAudio = generateAudio(text, voice);
+                cache.put(cacheKey, rawAudio);
+                return new MaryTTSAudioStream(rawAudio, maryTTSVoiceAudioFormat);
+            }
+
+            // Synthesize all sentences concurrently, playback can start once the first one is available
+            List<Future<byte[]>> sentenceAudio = new ArrayList<Future<byte[]>>(sentences.size());
+            for (String sentence : sentences) {
+                sentenceAudio.add(synthesisExecutor.submit(new SentenceSynthesis(sentence, voice)));
+            }
+            sentenceAudio.get(0).get();
+            return new MaryTTSStreamingAudioStream(sentenceAudio, maryTTSVoiceAudioFormat, cache, cacheKey);
+        } catch (ExecutionException e) {
+            throw new TTSException("Error generating an AudioStream", e.getCause());
+        } catch (InterruptedException | IOException e) {
+            throw new TTSException("Error generating an AudioStream", e);
+        }
+    }
 
+    /**
+     * Synthesizes the passed text with a MaryInterface of the pool
+     *
+     * @param text The text to synthesize
+     * @param voice The voice to use
+     * @return The raw audio data
+     */
+    private byte[] generateAudio(String text, org.eclipse.smarthome.core.voice.Voice voice)
+            throws TTSException, InterruptedException, IOException {
+        MaryInterface marytts = maryInterfaces.take();
+        try {
             // Set voice (Each voice supports onl a single AudioFormat)
             marytts.setLocale(voice.getLocale());
             marytts.setVoice(voice.getLabel());
 
-            try {
-                AudioInputStream audioInputStream = marytts.generateAudio(text);
-                audioStream = new MaryTTSAudioStream(audioInputStream, maryTTSVoiceAudioFormat);
-            } catch (SynthesisException | IOException e) {
-                throw new TTSException("Error generating an AudioStream", e);
+            AudioInputStream audioInputStream = marytts.generateAudio(text);
+            return IOUtils.toByteArray(audioInputStream);
+        } catch (SynthesisException e) {
+            throw new TTSException("Error generating an AudioStream", e);
+        } finally {
+            maryInterfaces.add(marytts);
+        }
+    }
+
+    /**
+     * Splits the passed text into sentences
+     *
+     * @param text The text to split
+     * @param locale The locale of the text
+     * @return The non-empty sentences of the text
+     */
+    private List<String> splitSentences(String text, Locale locale) {
+        List<String> sentences = new ArrayList<String>();
+        BreakIterator iterator = BreakIterator.getSentenceInstance(locale);
+        iterator.setText(text);
+        int start = iterator.first();
+        for (int end = iterator.next(); end != BreakIterator.DONE; start = end, end = iterator.next()) {
+            String sentence = text.substring(start, end).trim();
+            if (!sentence.isEmpty()) {
+                sentences.add(sentence);
             }
+        }
+        return sentences;
+    }
+
+    /**
+     * Synthesis of a single sentence of a text
+     */
+    private class SentenceSynthesis implements Callable<byte[]> {
+
+        private final String sentence;
+        private final org.eclipse.smarthome.core.voice.Voice voice;
+
+        public SentenceSynthesis(String sentence, org.eclipse.smarthome.core.voice.Voice voice) {
+            this.sentence = sentence;
+            this.voice = voice;
+        }
 
-            return audioStream;
+        @Override
+        public byte[] call() throws Exception {
+            return generateAudio(sentence, voice);
         }
     }
 
     /**
      * Initializes this.voices
      *
+     * @param marytts The MaryInterface to query
      * @return The voices of this instance
      */
-    private final HashSet<org.eclipse.smarthome.core.voice.Voice> initVoices() {
+    private final HashSet<org.eclipse.smarthome.core.voice.Voice> initVoices(MaryInterface marytts) {
         HashSet<org.eclipse.smarthome.core.voice.Voice> voices = new HashSet<org.eclipse.smarthome.core.voice.Voice>();
         Set<Locale> locales = marytts.getAvailableLocales();
         for (Locale local : locales) {
@@ -162,9 +290,10 @@ public class MaryTTSService implements TTSService {
     /**
      * Initializes this.audioFormats
      *
+     * @param marytts The MaryInterface to query
      * @return The audio formats of this instance
      */
-    private final HashSet<AudioFormat> initAudioFormats() {
+    private final HashSet<AudioFormat> initAudioFormats(MaryInterface marytts) {
         HashSet<AudioFormat> audioFormats = new HashSet<AudioFormat>();
         Set<String> voiceLabels = marytts.getAvailableVoices();
         for (String voiceLabel : voiceLabels) {
@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.voice.marytts.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.eclipse.smarthome.core.audio.AudioFormat;
+import org.eclipse.smarthome.core.audio.AudioSource;
+import org.eclipse.smarthome.core.audio.AudioStream;
+
+/**
+ * {@link AudioStream} for the {@link MaryTTSService} which is synthesized sentence by sentence. Playback can
+ * start as soon as the first sentence is available, while the following sentences are still being synthesized.
+ * As the total length is unknown upfront, the WAVE header announces the maximum length.
+ *
+ * @author agent - Initial contribution
+ */
+class MaryTTSStreamingAudioStream extends AudioStream {
+
+    /**
+     * Length announced in the WAVE header of a stream of unknown length
+     */
+    private static final long UNKNOWN_LENGTH = 0xFFFFFFFFL;
+
+    /**
+     * {@link AudioFormat} of this {@link AudioSource}
+     */
+    private final AudioFormat audioFormat;
+
+    /**
+     * Raw audio of the sentences in the order they are played
+     */
+    private final List<Future<byte[]>> sentences;
+
+    /**
+     * Cache which receives the complete raw audio once all sentences have been read
+     */
+    private final MaryTTSAudioCache cache;
+    private final String cacheKey;
+    private final ByteArrayOutputStream completeAudio = new ByteArrayOutputStream();
+
+    private byte[] current;
+    private int position;
+    private int sentenceIndex;
+    private boolean closed;
+
+    /**
+     * Constructs an instance with the passed properties
+     *
+     * @param sentences The raw audio of the sentences, which may still be being synthesized
+     * @param audioFormat The AudioFormat of this instance
+     * @param cache The cache to store the complete audio in
+     * @param cacheKey The key of the complete audio in the cache
+     */
+    public MaryTTSStreamingAudioStream(List<Future<byte[]>> sentences, AudioFormat audioFormat,
+            MaryTTSAudioCache cache, String cacheKey) {
+        this.sentences = sentences;
+        this.audioFormat = audioFormat;
+        this.cache = cache;
+        this.cacheKey = cacheKey;
+        this.current = MaryTTSAudioStream.getWavHeader(UNKNOWN_LENGTH);
+    }
+
+    @Override
+    public AudioFormat getFormat() {
+        return this.audioFormat;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b) throws IOException {
+        return read(b, 0, b.length);
+    }
+
+    @Override
+    public synchronized int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        while (current == null || position >= current.length) {
+            if (!nextSentence()) {
+                return -1;
+            }
+        }
+        int count = Math.min(len, current.length - position);
+        System.arraycopy(current, position, b, off, count);
+        position += count;
+        return count;
+    }
+
+    /**
+     * Moves on to the next sentence, waiting for its synthesis if necessary
+     *
+     * @return false if there are no more sentences
+     * @throws IOException if the synthesis failed
+     */
+    private boolean nextSentence() throws IOException {
+        if (closed || sentenceIndex >= sentences.size()) {
+            current = null;
+            return false;
+        }
+        try {
+            current = sentences.get(sentenceIndex++).get();
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException("Interrupted while waiting for synthesis");
+        } catch (ExecutionException e) {
+            throw new IOException("Error synthesizing audio", e.getCause());
+        }
+        position = 0;
+        completeAudio.write(current, 0, current.length);
+        if (sentenceIndex == sentences.size()) {
+            cache.put(cacheKey, completeAudio.toByteArray());
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closed = true;
+        for (Future<byte[]> sentence : sentences) {
+            sentence.cancel(true);
+        }
+        super.close();
+    }
+}
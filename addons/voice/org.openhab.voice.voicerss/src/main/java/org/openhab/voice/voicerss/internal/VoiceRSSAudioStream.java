@@ -9,23 +9,45 @@
 package org.openhab.voice.voicerss.internal;
 
 import java.io.File;
+import java.io.IOException;
 
 import org.eclipse.smarthome.core.audio.AudioException;
 import org.eclipse.smarthome.core.audio.AudioStream;
 import org.eclipse.smarthome.core.audio.FileAudioStream;
+import org.openhab.voice.voicerss.internal.cloudapi.CachedVoiceRSSCloudImplementation;
 
 /**
  * Implementation of the {@link AudioStream} interface for the
  * {@link VoiceRSSTTSService}. It simply uses a {@link FileAudioStream} which is
  * doing all the necessary work, e.g. supporting MP3 and WAV files with fixed
- * stream length.
+ * stream length. The audio file is locked in the cache until the stream is
+ * closed.
  *
  * @author Jochen Hiller - Initial contribution and API
  */
 class VoiceRSSAudioStream extends FileAudioStream {
 
-	public VoiceRSSAudioStream(File audioFile) throws AudioException {
+	private final File audioFile;
+	private CachedVoiceRSSCloudImplementation cache;
+
+	public VoiceRSSAudioStream(File audioFile, CachedVoiceRSSCloudImplementation cache) throws AudioException {
 		super(audioFile);
+		this.audioFile = audioFile;
+		this.cache = cache;
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			super.close();
+		} finally {
+			synchronized (this) {
+				if (cache != null) {
+					cache.unlockFile(audioFile);
+					cache = null;
+				}
+			}
+		}
 	}
 
 }
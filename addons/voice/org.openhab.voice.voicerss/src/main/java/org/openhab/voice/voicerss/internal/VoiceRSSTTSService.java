@@ -40,6 +40,10 @@ public class VoiceRSSTTSService implements TTSService {
     private static final String CONFIG_API_KEY = "apiKey";
     private String apiKey = null;
 
+    // Maximum cache size in MB, 0 for unlimited
+    private static final String CONFIG_CACHE_SIZE = "cacheSize";
+    private long cacheSize = 0;
+
     private final Logger logger = LoggerFactory.getLogger(VoiceRSSTTSService.class);
 
     /**
@@ -76,6 +80,18 @@ public class VoiceRSSTTSService implements TTSService {
     protected void modified(Map<String, Object> config) {
         if (config != null) {
             this.apiKey = config.containsKey(CONFIG_API_KEY) ? config.get(CONFIG_API_KEY).toString() : null;
+            Object cacheSizeConfig = config.get(CONFIG_CACHE_SIZE);
+            if (cacheSizeConfig != null) {
+                try {
+                    this.cacheSize = Long.parseLong(cacheSizeConfig.toString().trim());
+                } catch (NumberFormatException ex) {
+                    logger.warn("Invalid cache size '{}', cache size is not limited", cacheSizeConfig);
+                    this.cacheSize = 0;
+                }
+            }
+            if (voiceRssImpl != null) {
+                voiceRssImpl.setMaxCacheSize(cacheSize * 1024 * 1024);
+            }
         }
     }
 
@@ -119,15 +135,18 @@ public class VoiceRSSTTSService implements TTSService {
         // now create the input stream for given text, locale, format. There is
         // only a default voice
         try {
-            File cacheAudioFile = voiceRssImpl.getTextToSpeechAsFile(this.apiKey, text,
+            File cacheAudioFile = voiceRssImpl.lockTextToSpeechFile(this.apiKey, text,
                     voice.getLocale().toLanguageTag(), requestedFormat.getCodec());
             if (cacheAudioFile == null) {
                 throw new TTSException("Could not read from VoiceRSS service");
             }
-            AudioStream audioStream = new VoiceRSSAudioStream(cacheAudioFile);
-            return audioStream;
-        } catch (AudioException ex) {
-            throw new TTSException("Could not create AudioStream: " + ex.getMessage(), ex);
+            try {
+                AudioStream audioStream = new VoiceRSSAudioStream(cacheAudioFile, voiceRssImpl);
+                return audioStream;
+            } catch (AudioException ex) {
+                voiceRssImpl.unlockFile(cacheAudioFile);
+                throw new TTSException("Could not create AudioStream: " + ex.getMessage(), ex);
+            }
         } catch (IOException ex) {
             throw new TTSException("Could not read from VoiceRSS service: " + ex.getMessage(), ex);
         }
@@ -184,7 +203,8 @@ public class VoiceRSSTTSService implements TTSService {
     }
 
     private final CachedVoiceRSSCloudImplementation initVoiceImplementation() {
-        CachedVoiceRSSCloudImplementation apiImpl = new CachedVoiceRSSCloudImplementation(getCacheFolderName());
+        CachedVoiceRSSCloudImplementation apiImpl = new CachedVoiceRSSCloudImplementation(getCacheFolderName(),
+                cacheSize * 1024 * 1024);
         return apiImpl;
     }
 
@@ -15,9 +15,21 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
-import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,58 +38,329 @@ import org.slf4j.LoggerFactory;
  * This class implements a cache for the retrieved audio data. It will preserve
  * them in file system, as .mp3 files with an additional .txt file to indidate
  * what content is in the audio file.
- * 
+ *
+ * The cache keeps an in-memory index of all cached files, which is loaded on
+ * construction. If a maximum cache size is given, the least recently used files
+ * are deleted once the cache grows beyond it, except for locked files which are
+ * currently played. Concurrent requests for the same text which is not yet
+ * cached result in a single call to the service.
+ *
  * @author Jochen Hiller - Initial contribution
  */
 public class CachedVoiceRSSCloudImplementation extends VoiceRSSCloudImplementation {
 
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	private static final String TEMP_FILE_EXTENSION = ".mp3.tmp";
+
 	private final Logger logger = LoggerFactory.getLogger(CachedVoiceRSSCloudImplementation.class);
 
 	private final File cacheFolder;
 
+	/**
+	 * Maximum size of all cached audio files in bytes, 0 for unlimited.
+	 */
+	private long maxCacheSize;
+
+	/**
+	 * Sizes of the cached audio files, by file name without extension, in
+	 * least recently used order.
+	 */
+	private final LinkedHashMap<String, Long> index = new LinkedHashMap<String, Long>(16, 0.75f, true);
+
+	private long cacheSize = 0;
+
+	/**
+	 * Number of locks of the cached audio files, by file name without
+	 * extension. Locked files are not removed from the cache.
+	 */
+	private final Map<String, Integer> locks = new HashMap<String, Integer>();
+
+	/**
+	 * Running downloads, by file name without extension.
+	 */
+	private final ConcurrentMap<String, FutureTask<File>> downloads = new ConcurrentHashMap<String, FutureTask<File>>();
+
 	public CachedVoiceRSSCloudImplementation(String cacheFolderName) {
+		this(cacheFolderName, 0);
+	}
+
+	public CachedVoiceRSSCloudImplementation(String cacheFolderName, long maxCacheSize) {
 		if (cacheFolderName == null) {
 			throw new RuntimeException("Folder for cache must be defined");
 		}
+		this.maxCacheSize = maxCacheSize;
 		// Lazy create the cache folder
 		cacheFolder = new File(cacheFolderName);
 		if (!cacheFolder.exists()) {
 			cacheFolder.mkdirs();
 		}
+		loadIndex();
+	}
+
+	/**
+	 * Sets the maximum size of all cached audio files in bytes, 0 for
+	 * unlimited. Files are removed at once if the cache is larger.
+	 */
+	public void setMaxCacheSize(long maxCacheSize) {
+		synchronized (index) {
+			this.maxCacheSize = maxCacheSize;
+			evict(null);
+		}
 	}
 
 	public File getTextToSpeechAsFile(String apiKey, String text, String locale, String audioFormat)
 			throws IOException {
-		String fileNameInCache = getUniqeFilenameForText(text, locale);
+		return getFile(apiKey, text, locale, audioFormat, false);
+	}
+
+	/**
+	 * Returns the audio file like
+	 * {@link #getTextToSpeechAsFile(String, String, String, String)}, and
+	 * keeps it in the cache until {@link #unlockFile(File)} is called.
+	 */
+	public File lockTextToSpeechFile(String apiKey, String text, String locale, String audioFormat)
+			throws IOException {
+		return getFile(apiKey, text, locale, audioFormat, true);
+	}
+
+	/**
+	 * Releases a file locked by
+	 * {@link #lockTextToSpeechFile(String, String, String, String)}.
+	 */
+	public void unlockFile(File audioFileInCache) {
+		String name = audioFileInCache.getName();
+		String fileNameInCache = name.substring(0, name.length() - ".mp3".length());
+		synchronized (index) {
+			Integer count = locks.get(fileNameInCache);
+			if (count == null) {
+				return;
+			}
+			if (count > 1) {
+				locks.put(fileNameInCache, count - 1);
+			} else {
+				locks.remove(fileNameInCache);
+				// files which have been skipped while locked can be removed now
+				evict(null);
+			}
+		}
+	}
+
+	private File getFile(final String apiKey, final String text, final String locale, final String audioFormat,
+			boolean lock) throws IOException {
+		final String fileNameInCache = getUniqeFilenameForText(text, locale);
 		// check if in cache
 		File audioFileInCache = new File(cacheFolder, fileNameInCache + ".mp3");
-		if (audioFileInCache.exists()) {
+		if (lookup(fileNameInCache, audioFileInCache, lock)) {
 			return audioFileInCache;
 		}
 
-		// if not in cache, get audio data and put to cache
+		File downloadedFile = download(apiKey, text, locale, audioFormat, fileNameInCache);
+		if (downloadedFile == null || !lock || lookup(fileNameInCache, downloadedFile, true)) {
+			return downloadedFile;
+		}
+		// the file has been removed by a concurrent download right after it was added
+		downloadedFile = download(apiKey, text, locale, audioFormat, fileNameInCache);
+		if (downloadedFile == null || lookup(fileNameInCache, downloadedFile, true)) {
+			return downloadedFile;
+		}
+		throw new IOException("Could not keep " + downloadedFile + " in cache");
+	}
+
+	/**
+	 * Returns true if the file is in the cache, and locks it if requested.
+	 * Files which have been deleted from the cache folder are removed from the
+	 * index.
+	 */
+	private boolean lookup(String fileNameInCache, File audioFileInCache, boolean lock) {
+		synchronized (index) {
+			Long size = index.get(fileNameInCache);
+			if (size == null) {
+				return false;
+			}
+			if (!audioFileInCache.isFile()) {
+				index.remove(fileNameInCache);
+				cacheSize -= size;
+				logger.debug("Cached file {} has been deleted, it is requested again", audioFileInCache);
+				return false;
+			}
+			if (lock) {
+				Integer count = locks.get(fileNameInCache);
+				locks.put(fileNameInCache, count == null ? 1 : count + 1);
+			}
+			audioFileInCache.setLastModified(System.currentTimeMillis());
+			return true;
+		}
+	}
+
+	private File download(final String apiKey, final String text, final String locale, final String audioFormat,
+			final String fileNameInCache) throws IOException {
+		// if not in cache, get audio data and put to cache, but only once for
+		// concurrent requests of the same text
+		FutureTask<File> download = new FutureTask<File>(new Callable<File>() {
+			@Override
+			public File call() throws IOException {
+				// a download which finished after the lookup of the caller has
+				// already added the file to the index
+				File audioFileInCache = new File(cacheFolder, fileNameInCache + ".mp3");
+				if (lookup(fileNameInCache, audioFileInCache, false)) {
+					return audioFileInCache;
+				}
+				return downloadToCache(apiKey, text, locale, audioFormat, fileNameInCache);
+			}
+		});
+		FutureTask<File> runningDownload = downloads.putIfAbsent(fileNameInCache, download);
+		if (runningDownload == null) {
+			try {
+				download.run();
+			} finally {
+				downloads.remove(fileNameInCache, download);
+			}
+			runningDownload = download;
+		}
+		try {
+			return runningDownload.get();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for " + fileNameInCache, ex);
+		} catch (ExecutionException ex) {
+			if (ex.getCause() instanceof IOException) {
+				throw (IOException) ex.getCause();
+			}
+			throw new IOException(ex.getCause());
+		}
+	}
+
+	/**
+	 * Fills the cache with audio data for the given texts. Texts which are
+	 * already cached are not requested again.
+	 *
+	 * @return the number of texts which are available in the cache
+	 */
+	public int prewarm(String apiKey, Iterable<String> texts, String locale, String audioFormat) {
+		int cached = 0;
+		for (String text : texts) {
+			if (text == null || text.trim().length() == 0) {
+				continue;
+			}
+			try {
+				if (getTextToSpeechAsFile(apiKey, text.trim(), locale, audioFormat) != null) {
+					cached++;
+				}
+			} catch (IOException ex) {
+				logger.warn("Could not cache audio for '{}': {}", text, ex.getMessage());
+			}
+		}
+		return cached;
+	}
+
+	private File downloadToCache(String apiKey, String text, String locale, String audioFormat,
+			String fileNameInCache) throws IOException {
+		File audioFileInCache = new File(cacheFolder, fileNameInCache + ".mp3");
+		// the audio data is written to a temporary file, which is renamed at
+		// once, so a cached file which is being played is never rewritten
+		File tempFile = new File(cacheFolder, fileNameInCache + TEMP_FILE_EXTENSION);
 		try (InputStream is = super.getTextToSpeech(apiKey, text, locale, audioFormat);
-				FileOutputStream fos = new FileOutputStream(audioFileInCache);) {
+				FileOutputStream fos = new FileOutputStream(tempFile);) {
 			copyStream(is, fos);
-			// write text to file for transparency too
-			// this allows to know which contents is in which audio file
-			File txtFileInCache = new File(cacheFolder, fileNameInCache + ".txt");
-			writeText(txtFileInCache, text);
-			// return from cache
-			return audioFileInCache;
 		} catch (FileNotFoundException ex) {
 			logger.warn("Could not write {} to cache, return null", audioFileInCache, ex);
 			return null;
 		} catch (IOException ex) {
-			logger.error("Could not write {} to cache, return null", audioFileInCache, ex);
+			logger.error("Could not write {} to cache, return null", audioFileInCache, ex);
+			tempFile.delete();
 			return null;
 		}
+		try {
+			Files.move(tempFile.toPath(), audioFileInCache.toPath(), StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException ex) {
+			logger.error("Could not move {} into cache, return null", audioFileInCache, ex);
+			tempFile.delete();
+			return null;
+		}
+		try {
+			// write text to file for transparency too
+			// this allows to know which contents is in which audio file
+			File txtFileInCache = new File(cacheFolder, fileNameInCache + ".txt");
+			writeText(txtFileInCache, text);
+		} catch (IOException ex) {
+			logger.warn("Could not write text of {} to cache", audioFileInCache, ex);
+		}
+		addToIndex(fileNameInCache, audioFileInCache.length());
+		// return from cache
+		return audioFileInCache;
+	}
+
+	/**
+	 * Loads the index from the audio files in the cache folder, oldest first.
+	 */
+	private void loadIndex() {
+		File[] files = cacheFolder.listFiles();
+		if (files == null) {
+			return;
+		}
+		Arrays.sort(files, new Comparator<File>() {
+			@Override
+			public int compare(File f1, File f2) {
+				return Long.compare(f1.lastModified(), f2.lastModified());
+			}
+		});
+		for (File file : files) {
+			String name = file.getName();
+			if (file.isFile() && name.endsWith(TEMP_FILE_EXTENSION)) {
+				// left over by an interrupted download
+				file.delete();
+			} else if (file.isFile() && name.endsWith(".mp3")) {
+				addToIndex(name.substring(0, name.length() - ".mp3".length()), file.length());
+			}
+		}
+		logger.debug("Loaded {} cached audio files with {} bytes from {}", index.size(), cacheSize, cacheFolder);
+	}
+
+	/**
+	 * Adds a file to the index and deletes least recently used files if the
+	 * cache exceeds its maximum size.
+	 */
+	private void addToIndex(String fileNameInCache, long size) {
+		synchronized (index) {
+			Long previousSize = index.put(fileNameInCache, size);
+			if (previousSize != null) {
+				cacheSize -= previousSize;
+			}
+			cacheSize += size;
+			evict(fileNameInCache);
+		}
+	}
+
+	/**
+	 * Deletes least recently used files which are not locked, until the cache
+	 * does not exceed its maximum size. Must be called while holding the index.
+	 *
+	 * @param keptFileName
+	 *            name of a file which is kept as well, may be null
+	 */
+	private void evict(String keptFileName) {
+		if (maxCacheSize <= 0) {
+			return;
+		}
+		Iterator<Map.Entry<String, Long>> iterator = index.entrySet().iterator();
+		while (cacheSize > maxCacheSize && iterator.hasNext()) {
+			Map.Entry<String, Long> eldest = iterator.next();
+			if (eldest.getKey().equals(keptFileName) || locks.containsKey(eldest.getKey())) {
+				continue;
+			}
+			cacheSize -= eldest.getValue();
+			iterator.remove();
+			new File(cacheFolder, eldest.getKey() + ".mp3").delete();
+			new File(cacheFolder, eldest.getKey() + ".txt").delete();
+			logger.debug("Removed {} from cache", eldest.getKey());
+		}
 	}
 
 	/**
 	 * Gets a unique filename for a give text, by creating a MD5 hash of it. It
 	 * will be preceded by the locale.
-	 * 
+	 *
 	 * Sample: "en-US_00a2653ac5f77063bc4ea2fee87318d3"
 	 */
 	String getUniqeFilenameForText(String text, String locale) {
@@ -85,14 +368,12 @@ public class CachedVoiceRSSCloudImplementation extends VoiceRSSCloudImplementati
 			byte[] bytesOfMessage = text.getBytes("UTF-8");
 			MessageDigest md = MessageDigest.getInstance("MD5");
 			byte[] md5Hash = md.digest(bytesOfMessage);
-			BigInteger bigInt = new BigInteger(1, md5Hash);
-			String hashtext = bigInt.toString(16);
-			// Now we need to zero pad it if you actually want the full 32
-			// chars.
-			while (hashtext.length() < 32) {
-				hashtext = "0" + hashtext;
-			}
-			String fileName = locale + "_" + hashtext;
+			char[] hashtext = new char[md5Hash.length * 2];
+			for (int i = 0; i < md5Hash.length; i++) {
+				hashtext[2 * i] = HEX_DIGITS[(md5Hash[i] >> 4) & 0x0f];
+				hashtext[2 * i + 1] = HEX_DIGITS[md5Hash[i] & 0x0f];
+			}
+			String fileName = locale + "_" + new String(hashtext);
 			return fileName;
 		} catch (UnsupportedEncodingException ex) {
 			// should not happen
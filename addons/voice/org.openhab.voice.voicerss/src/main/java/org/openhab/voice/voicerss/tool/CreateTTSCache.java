@@ -12,6 +12,9 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import org.openhab.voice.voicerss.internal.cloudapi.CachedVoiceRSSCloudImplementation;
 
@@ -56,7 +59,7 @@ public class CreateTTSCache {
 			generateCacheForFile(apiKey, cacheDir, locale, inputFileName);
 		} else {
 			String text = args[4];
-			generateCacheForMessage(apiKey, cacheDir, locale, text);
+			generateCacheForMessages(apiKey, cacheDir, locale, Collections.singletonList(text));
 		}
 		return RC_OK;
 	}
@@ -79,33 +82,26 @@ public class CreateTTSCache {
 	private void generateCacheForFile(String apiKey, String cacheDir, String locale, String inputFileName)
 			throws IOException {
 		File inputFile = new File(inputFileName);
+		List<String> lines = new ArrayList<String>();
 		BufferedReader br = null;
 		try {
 			br = new BufferedReader(new FileReader(inputFile));
 			String line;
 			while ((line = br.readLine()) != null) {
-				// process the line.
-				generateCacheForMessage(apiKey, cacheDir, locale, line);
+				lines.add(line);
 			}
 		} finally {
 			if (br != null) {
 				br.close();
 			}
 		}
+		generateCacheForMessages(apiKey, cacheDir, locale, lines);
 	}
 
-	private void generateCacheForMessage(String apiKey, String cacheDir, String locale, String msg) throws IOException {
-		if (msg == null) {
-			System.err.println("Ignore msg=null");
-			return;
-		}
-		msg = msg.trim();
-		if (msg.length() == 0) {
-			System.err.println("Ignore msg=''");
-			return;
-		}
+	private void generateCacheForMessages(String apiKey, String cacheDir, String locale, List<String> msgs) {
 		CachedVoiceRSSCloudImplementation impl = new CachedVoiceRSSCloudImplementation(cacheDir);
-		File cachedFile = impl.getTextToSpeechAsFile(apiKey, msg, locale, "MP3");
-		System.out.println("Created cached audio for locale='" + locale + "', msg='" + msg + "' to file=" + cachedFile);
+		int cached = impl.prewarm(apiKey, msgs, locale, "MP3");
+		System.out.println("Cached audio for " + cached + " of " + msgs.size() + " messages for locale='" + locale
+				+ "' in " + cacheDir);
 	}
 }